@@ -0,0 +1,201 @@
+package chatzis.nikolas.mc.nikoapi.benchmark;
+
+import chatzis.nikolas.mc.nikoapi.packet.capture.CaptureReader;
+import chatzis.nikolas.mc.nikoapi.packet.metrics.PacketMetrics;
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketDirection;
+import chatzis.nikolas.mc.nikoapi.player.EmbeddedConnection;
+import chatzis.nikolas.mc.nikoapi.player.PacketInterceptor;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.embedded.EmbeddedChannel;
+import net.minecraft.network.CompressionDecoder;
+import net.minecraft.network.Connection;
+import net.minecraft.network.ConnectionProtocol;
+import net.minecraft.network.PacketDecoder;
+import net.minecraft.network.protocol.PacketFlow;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Replays captures of the {@link chatzis.nikolas.mc.nikoapi.packet.capture.PacketCapture} without a server.
+ * Every capture gets an {@link EmbeddedConnection}, the inbound frames are decoded by the vanilla decoders
+ * in front of the packet interceptor, the outbound frames are decoded like the client does and written through it.
+ * The frames of all captures are replayed in the order they were recorded,
+ * at the recorded speed, accelerated by a factor or as fast as possible with a speed of 0.
+ *
+ * <pre>java -cp benchmarks/target/benchmarks.jar chatzis.nikolas.mc.nikoapi.benchmark.CaptureReplay plugins/NikoAPI/captures --speed 4</pre>
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class CaptureReplay {
+
+    private static final String DECOMPRESS = "decompress";
+    private static final String DECODER = "decoder";
+
+    private final List<Replay> replays;
+    private final double speed;
+    private long frames;
+    private long errors;
+
+    private CaptureReplay(List<Replay> replays, double speed) {
+        this.replays = replays;
+        this.speed = speed;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<Path> roots = new ArrayList<>();
+        double speed = 1;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--speed") && i + 1 < args.length)
+                speed = Double.parseDouble(args[++i]);
+            else
+                roots.add(Paths.get(args[i]));
+        }
+        if (roots.isEmpty()) {
+            System.err.println("Usage: CaptureReplay <capture directory>... [--speed <factor, 0 for unlimited>]");
+            return;
+        }
+
+        List<Replay> replays = new ArrayList<>();
+        for (Path root : roots)
+            open(root, replays);
+        System.out.printf("Replaying %d captures at speed %s%n", replays.size(), speed == 0 ? "unlimited" : speed);
+
+        PacketMetrics.getInstance().setEnabled(true);
+        new CaptureReplay(replays, speed).run();
+        PacketMetrics.getInstance().snapshot().write(new OutputStreamWriter(System.out));
+    }
+
+    /**
+     * Opens the capture in the directory or every capture in its sub directories.
+     */
+    private static void open(Path directory, List<Replay> replays) throws IOException {
+        try {
+            CaptureReader reader = new CaptureReader(directory);
+            replays.add(new Replay(reader, replays.size()));
+            return;
+        } catch (IOException exception) {
+            if (!Files.isDirectory(directory))
+                throw exception;
+        }
+        try (Stream<Path> children = Files.list(directory)) {
+            for (Path child : children.filter(Files::isDirectory).sorted().toList())
+                open(child, replays);
+        }
+    }
+
+    private void run() throws IOException, InterruptedException {
+        PriorityQueue<Replay> queue = new PriorityQueue<>(Comparator.comparingLong(Replay::getTime));
+        for (Replay replay : replays) {
+            if (replay.reader.next())
+                queue.add(replay);
+        }
+        if (queue.isEmpty())
+            return;
+
+        long recordedStart = queue.peek().getTime();
+        long start = System.nanoTime();
+        while (!queue.isEmpty()) {
+            Replay replay = queue.poll();
+            if (speed > 0) {
+                long due = start + (long) ((replay.getTime() - recordedStart) / speed);
+                long wait = due - System.nanoTime();
+                if (wait > 0)
+                    TimeUnit.NANOSECONDS.sleep(wait);
+            }
+
+            if (!replay.replayFrame())
+                errors++;
+            frames++;
+            if (replay.reader.next())
+                queue.add(replay);
+            else
+                replay.close();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Replayed %d frames in %d ms, %d could not be decoded%n", frames, TimeUnit.NANOSECONDS.toMillis(elapsed), errors);
+    }
+
+    /**
+     * Replay of one capture.
+     */
+    private static final class Replay {
+
+        private final CaptureReader reader;
+        private final EmbeddedConnection connection;
+        private final EmbeddedChannel client;
+
+        private Replay(CaptureReader reader, int index) {
+            this.reader = reader;
+            this.connection = new EmbeddedConnection(FakePlayers.create(reader.getName() + "-" + index));
+            this.connection.getChannel().pipeline().addBefore(PacketInterceptor.NAME, DECODER, new PacketDecoder(PacketFlow.SERVERBOUND));
+            this.client = new EmbeddedChannel();
+            this.client.pipeline().addLast(DECODER, new PacketDecoder(PacketFlow.CLIENTBOUND));
+        }
+
+        private long getTime() {
+            return reader.getStartEpochNanos() + reader.getTimestamp();
+        }
+
+        /**
+         * Replays the current frame of the reader.
+         *
+         * @return boolean - whatever the frame was decoded.
+         */
+        private boolean replayFrame() {
+            ConnectionProtocol protocol = ConnectionProtocol.getById(reader.getProtocolId());
+            if (protocol == null)
+                return false;
+
+            ByteBuf frame = Unpooled.wrappedBuffer(reader.getFrame());
+            try {
+                if (reader.getDirection() == PacketDirection.INBOUND) {
+                    EmbeddedChannel channel = connection.getChannel();
+                    prepare(channel, protocol);
+                    channel.pipeline().fireChannelRead(frame);
+                    channel.checkException();
+                } else {
+                    prepare(client, protocol);
+                    client.writeInbound(frame);
+                    client.checkException();
+                    Object packet;
+                    while ((packet = client.readInbound()) != null)
+                        connection.write(packet);
+                    connection.flush();
+                }
+                return true;
+            } catch (Exception exception) {
+                return false;
+            }
+        }
+
+        private void prepare(EmbeddedChannel channel, ConnectionProtocol protocol) {
+            channel.attr(Connection.ATTRIBUTE_PROTOCOL).set(protocol);
+            ChannelPipeline pipeline = channel.pipeline();
+            boolean compressed = pipeline.get(DECOMPRESS) != null;
+            if (reader.isCompressed() && !compressed)
+                pipeline.addBefore(DECODER, DECOMPRESS, new CompressionDecoder(0, false));
+            else if (!reader.isCompressed() && compressed)
+                pipeline.remove(DECOMPRESS);
+        }
+
+        private void close() {
+            reader.close();
+            connection.close();
+            client.finishAndReleaseAll();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package chatzis.nikolas.mc.nikoapi.benchmark;
+
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Creates players for the benchmarks without a running server.
+ * Only the identity of the player is answered, every other method returns the default value of its type.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class FakePlayers {
+
+    private FakePlayers() {
+        throw new UnsupportedOperationException("This is a util class.");
+    }
+
+    /**
+     * Creates a player with an offline uuid of the name.
+     *
+     * @param name String - the name of the player.
+     * @return Player - the player.
+     */
+    public static Player create(String name) {
+        UUID uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+        return (Player) Proxy.newProxyInstance(FakePlayers.class.getClassLoader(), new Class<?>[]{Player.class}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "getName", "getDisplayName", "getPlayerListName" -> name;
+                    case "getUniqueId" -> uuid;
+                    case "isOnline", "isValid" -> true;
+                    case "hashCode" -> uuid.hashCode();
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "FakePlayer{" + name + "}";
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    /**
+     * Gets the default value of a type, like an uninitialized field.
+     *
+     * @param type Class<?> - the type.
+     * @return Object - the default value.
+     */
+    public static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class)
+            return null;
+        if (type == boolean.class)
+            return false;
+        if (type == char.class)
+            return '\0';
+        if (type == float.class)
+            return 0F;
+        if (type == double.class)
+            return 0D;
+        if (type == long.class)
+            return 0L;
+        if (type == int.class)
+            return 0;
+        if (type == short.class)
+            return (short) 0;
+        return (byte) 0;
+    }
+}
@@ -0,0 +1,80 @@
+package chatzis.nikolas.mc.nikoapi.benchmark;
+
+import chatzis.nikolas.mc.nikoapi.packet.reader.InteractPacketDecoder;
+import chatzis.nikolas.mc.nikoapi.util.ReflectionHelper;
+import net.minecraft.network.protocol.game.ServerboundInteractPacket;
+import net.minecraft.world.InteractionHand;
+import org.bukkit.event.inventory.ClickType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the precompiled {@link InteractPacketDecoder} against the former reflective decoding
+ * of the interact packet in the APIListenerManager.
+ * The legacy path is reproduced with the mojang field names, as the benchmarks run against the mojang mapped server.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InteractDecodeBenchmark {
+
+    private ServerboundInteractPacket[] packets;
+    private int index;
+
+    @Setup
+    public void setup() {
+        this.packets = new ServerboundInteractPacket[]{
+                PacketFactory.interact(42, InteractionHand.MAIN_HAND),
+                PacketFactory.attack(43),
+                PacketFactory.interact(44, InteractionHand.OFF_HAND),
+                PacketFactory.interactAt(45, InteractionHand.MAIN_HAND)
+        };
+    }
+
+    private ServerboundInteractPacket next() {
+        return packets[index++ & 3];
+    }
+
+    @Benchmark
+    public void decoder(Blackhole blackhole) {
+        ServerboundInteractPacket packet = next();
+        InteractPacketDecoder.Action action = InteractPacketDecoder.getAction(packet);
+        if (action == InteractPacketDecoder.Action.INTERACT_AT)
+            return;
+        if (action == InteractPacketDecoder.Action.INTERACT && InteractPacketDecoder.getHand(packet) != InteractionHand.MAIN_HAND)
+            return;
+        blackhole.consume(InteractPacketDecoder.getEntityId(packet));
+        blackhole.consume(action == InteractPacketDecoder.Action.ATTACK ? ClickType.LEFT : ClickType.RIGHT);
+    }
+
+    @Benchmark
+    public void legacyReflection(Blackhole blackhole) {
+        ServerboundInteractPacket packet = next();
+        Object actionInterfaceInstance = ReflectionHelper.get(packet, "action");
+        Object actionObject = ReflectionHelper.invokeMethod(actionInterfaceInstance.getClass(), "getType", actionInterfaceInstance);
+        String action = actionObject == null ? "INTERACT" : actionObject.toString();
+        if (action.equalsIgnoreCase("c") || action.equalsIgnoreCase("interact_at"))
+            return;
+
+        Integer entityId = ReflectionHelper.get(packet, "entityId");
+        ClickType clickType = switch (action.toUpperCase()) {
+            case "A", "ATTACK" -> ClickType.LEFT;
+            default -> ClickType.RIGHT;
+        };
+        if (clickType.isRightClick()) {
+            Object hand = ReflectionHelper.get(actionInterfaceInstance, "hand");
+            if (hand != null && !hand.toString().equals("MAIN_HAND"))
+                return;
+        }
+        blackhole.consume(entityId);
+        blackhole.consume(clickType);
+    }
+}
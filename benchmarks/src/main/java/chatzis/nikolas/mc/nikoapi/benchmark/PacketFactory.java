@@ -0,0 +1,117 @@
+package chatzis.nikolas.mc.nikoapi.benchmark;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.game.ClientboundForgetLevelChunkPacket;
+import net.minecraft.network.protocol.game.ClientboundKeepAlivePacket;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.network.protocol.game.ClientboundSetTimePacket;
+import net.minecraft.network.protocol.game.ServerboundInteractPacket;
+import net.minecraft.network.protocol.game.ServerboundKeepAlivePacket;
+import net.minecraft.network.protocol.game.ServerboundMovePlayerPacket;
+import net.minecraft.world.InteractionHand;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+
+/**
+ * Creates packets for the benchmarks without a running server.
+ * Serverbound packets are decoded from the bytes the client would send,
+ * chunk packets are allocated without a level and only carry their coordinates.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class PacketFactory {
+
+    private static final Unsafe UNSAFE;
+    private static final long CHUNK_X;
+    private static final long CHUNK_Z;
+
+    static {
+        try {
+            Field unsafeField = Unsafe.class.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            UNSAFE = (Unsafe) unsafeField.get(null);
+            CHUNK_X = UNSAFE.objectFieldOffset(ClientboundLevelChunkWithLightPacket.class.getDeclaredField("x"));
+            CHUNK_Z = UNSAFE.objectFieldOffset(ClientboundLevelChunkWithLightPacket.class.getDeclaredField("z"));
+        } catch (ReflectiveOperationException exception) {
+            throw new ExceptionInInitializerError(exception);
+        }
+    }
+
+    private PacketFactory() {
+        throw new UnsupportedOperationException("This is a util class.");
+    }
+
+    /**
+     * Allocates an instance without calling a constructor.
+     */
+    public static <T> T allocate(Class<T> type) {
+        try {
+            return type.cast(UNSAFE.allocateInstance(type));
+        } catch (InstantiationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    public static ServerboundInteractPacket interact(int entityId, InteractionHand hand) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        buf.writeVarInt(entityId);
+        buf.writeVarInt(0);
+        buf.writeEnum(hand);
+        buf.writeBoolean(false);
+        return new ServerboundInteractPacket(buf);
+    }
+
+    public static ServerboundInteractPacket attack(int entityId) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        buf.writeVarInt(entityId);
+        buf.writeVarInt(1);
+        buf.writeBoolean(false);
+        return new ServerboundInteractPacket(buf);
+    }
+
+    public static ServerboundInteractPacket interactAt(int entityId, InteractionHand hand) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        buf.writeVarInt(entityId);
+        buf.writeVarInt(2);
+        buf.writeFloat(0.5F);
+        buf.writeFloat(1F);
+        buf.writeFloat(0.5F);
+        buf.writeEnum(hand);
+        buf.writeBoolean(false);
+        return new ServerboundInteractPacket(buf);
+    }
+
+    /**
+     * Allocates a chunk packet without chunk data, only the coordinates are set.
+     * It can pass the packet handlers, but can't be encoded.
+     */
+    public static ClientboundLevelChunkWithLightPacket chunk(int x, int z) {
+        ClientboundLevelChunkWithLightPacket packet = allocate(ClientboundLevelChunkWithLightPacket.class);
+        UNSAFE.putInt(packet, CHUNK_X, x);
+        UNSAFE.putInt(packet, CHUNK_Z, z);
+        return packet;
+    }
+
+    public static ClientboundForgetLevelChunkPacket forgetChunk(int x, int z) {
+        return new ClientboundForgetLevelChunkPacket(x, z);
+    }
+
+    public static ClientboundKeepAlivePacket keepAlive(long id) {
+        return new ClientboundKeepAlivePacket(id);
+    }
+
+    public static ServerboundKeepAlivePacket keepAliveResponse(long id) {
+        return new ServerboundKeepAlivePacket(id);
+    }
+
+    public static ClientboundSetTimePacket time(long gameTime) {
+        return new ClientboundSetTimePacket(gameTime, gameTime % 24000, true);
+    }
+
+    public static ServerboundMovePlayerPacket move(double x, double y, double z) {
+        return new ServerboundMovePlayerPacket.Pos(x, y, z, true);
+    }
+}
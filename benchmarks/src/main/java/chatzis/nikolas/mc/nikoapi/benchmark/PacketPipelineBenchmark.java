@@ -0,0 +1,144 @@
+package chatzis.nikolas.mc.nikoapi.benchmark;
+
+import chatzis.nikolas.mc.nikoapi.packet.metrics.PacketMetrics;
+import chatzis.nikolas.mc.nikoapi.packet.reader.APIListenerManager;
+import chatzis.nikolas.mc.nikoapi.packet.reader.EntityUsePacket;
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketChunkLoadListener;
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketChunkUnloadListener;
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketEntityUseListener;
+import chatzis.nikolas.mc.nikoapi.player.EmbeddedConnection;
+import net.minecraft.world.InteractionHand;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes packet streams through the injected packet handler and the {@link APIListenerManager}.
+ * Each operation is one packet, a burst of {@value #BURST} packets is passed per invocation.
+ * <ul>
+ *     <li>CHUNK_BURST - chunk packets written to the player and flushed once, like a teleport.</li>
+ *     <li>INTERACT_SPAM - interact packets received from the player, like an auto clicker.</li>
+ *     <li>UNINTERESTING - keep alive, time and movement packets, which no listener is registered for.</li>
+ * </ul>
+ * The listeners are registered for chunk loads, chunk unloads and interactions.
+ *
+ * <pre>java -jar benchmarks/target/benchmarks.jar PacketPipelineBenchmark -p listeners=0,50</pre>
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketPipelineBenchmark {
+
+    private static final int BURST = 64;
+
+    public enum Scenario {
+        CHUNK_BURST,
+        INTERACT_SPAM,
+        UNINTERESTING
+    }
+
+    @Param({"CHUNK_BURST", "INTERACT_SPAM", "UNINTERESTING"})
+    private Scenario scenario;
+
+    @Param({"0", "1", "50"})
+    private int listeners;
+
+    @Param({"false"})
+    private boolean metrics;
+
+    private final List<CountingListener> registered = new ArrayList<>();
+    private EmbeddedConnection connection;
+    private Object[] outbound;
+    private Object[] inbound;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        PacketMetrics.getInstance().setEnabled(metrics);
+        for (int i = 0; i < listeners; i++) {
+            CountingListener listener = new CountingListener();
+            APIListenerManager.getInstance().registerListener(listener);
+            registered.add(listener);
+        }
+        this.connection = new EmbeddedConnection(FakePlayers.create("Benchmark"));
+
+        List<Object> outboundPackets = new ArrayList<>();
+        List<Object> inboundPackets = new ArrayList<>();
+        for (int i = 0; i < BURST; i++) {
+            switch (scenario) {
+                case CHUNK_BURST -> outboundPackets.add(PacketFactory.chunk(i % 8 - 4, i / 8 - 4));
+                case INTERACT_SPAM -> inboundPackets.add(switch (i & 3) {
+                    case 0 -> PacketFactory.interact(100 + i, InteractionHand.MAIN_HAND);
+                    case 1 -> PacketFactory.interactAt(100 + i, InteractionHand.MAIN_HAND);
+                    case 2 -> PacketFactory.interact(100 + i, InteractionHand.OFF_HAND);
+                    default -> PacketFactory.attack(100 + i);
+                });
+                case UNINTERESTING -> {
+                    if ((i & 1) == 0)
+                        outboundPackets.add((i & 2) == 0 ? PacketFactory.keepAlive(i) : PacketFactory.time(i * 20L));
+                    else
+                        inboundPackets.add((i & 2) == 0 ? PacketFactory.keepAliveResponse(i) : PacketFactory.move(i, 64, i));
+                }
+            }
+        }
+        this.outbound = outboundPackets.toArray();
+        this.inbound = inboundPackets.toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        registered.forEach(APIListenerManager.getInstance()::unRegisterListener);
+        registered.clear();
+        connection.close();
+        PacketMetrics.getInstance().setEnabled(false);
+        PacketMetrics.getInstance().reset();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public long pipeline() {
+        for (Object packet : inbound)
+            connection.read(packet);
+        for (Object packet : outbound)
+            connection.write(packet);
+        if (outbound.length > 0)
+            connection.flush();
+        return connection.getReceived() + connection.getSent();
+    }
+
+    /**
+     * Listener, which only counts its calls.
+     */
+    static final class CountingListener implements PacketChunkLoadListener, PacketChunkUnloadListener, PacketEntityUseListener {
+
+        private long calls;
+
+        @Override
+        public List<APIListenerManager.PacketTypes> getListenerType() {
+            return List.of(APIListenerManager.PacketTypes.LOAD, APIListenerManager.PacketTypes.UNLOAD, APIListenerManager.PacketTypes.INTERACT);
+        }
+
+        @Override
+        public void loadChunk(Player player, int chunkId) {
+            calls++;
+        }
+
+        @Override
+        public void unloadChunk(Player player, int chunkId) {
+            calls++;
+        }
+
+        @Override
+        public void useEntity(Player player, EntityUsePacket packetPlayInUseEntity) {
+            calls++;
+        }
+    }
+}
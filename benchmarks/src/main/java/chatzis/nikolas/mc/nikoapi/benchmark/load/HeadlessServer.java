@@ -0,0 +1,130 @@
+package chatzis.nikolas.mc.nikoapi.benchmark.load;
+
+import chatzis.nikolas.mc.nikoapi.NikoAPI;
+import chatzis.nikolas.mc.nikoapi.benchmark.FakePlayers;
+import chatzis.nikolas.mc.nikoapi.benchmark.PacketFactory;
+import chatzis.nikolas.mc.nikoapi.player.PlayerHandler;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * A bukkit server without a world or network, which answers the calls NikoAPI makes.
+ * It knows the synthetic players, creates inventories in memory and runs the scheduler on a virtual clock.
+ * The NikoAPI plugin is allocated without the plugin loader, so its player handler and logger can be used.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class HeadlessServer implements InvocationHandler {
+
+    private static final Logger LOG = Logger.getLogger("Headless");
+    private static HeadlessServer instance;
+
+    private final VirtualScheduler scheduler;
+    private final Map<UUID, Player> players;
+    private final Collection<Player> onlinePlayers;
+    private final NikoAPI plugin;
+
+    private HeadlessServer() {
+        this.scheduler = new VirtualScheduler();
+        this.players = new LinkedHashMap<>();
+        this.onlinePlayers = Collections.unmodifiableCollection(players.values());
+        this.plugin = allocatePlugin();
+    }
+
+    /**
+     * Installs the server, bukkit only accepts one server per JVM.
+     */
+    static synchronized HeadlessServer install() {
+        if (instance == null) {
+            instance = new HeadlessServer();
+            Bukkit.setServer((Server) Proxy.newProxyInstance(HeadlessServer.class.getClassLoader(), new Class<?>[]{Server.class}, instance));
+        }
+        return instance;
+    }
+
+    VirtualScheduler getScheduler() {
+        return scheduler;
+    }
+
+    NikoAPI getPlugin() {
+        return plugin;
+    }
+
+    void addPlayer(Player player) {
+        players.put(player.getUniqueId(), player);
+    }
+
+    void removePlayer(Player player) {
+        players.remove(player.getUniqueId());
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "getName" -> "Headless";
+            case "getVersion", "getBukkitVersion" -> "1.20.1-R0.1-SNAPSHOT";
+            case "getLogger" -> LOG;
+            case "getScheduler" -> scheduler.getProxy();
+            case "getOnlinePlayers" -> onlinePlayers;
+            case "getMaxPlayers" -> Integer.MAX_VALUE;
+            case "isPrimaryThread" -> true;
+            case "getPlayer", "getPlayerExact" -> args[0] instanceof UUID uuid ? players.get(uuid) : getPlayer((String) args[0]);
+            case "createInventory" -> createInventory(args);
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "HeadlessServer";
+            default -> FakePlayers.defaultValue(method.getReturnType());
+        };
+    }
+
+    private Player getPlayer(String name) {
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        for (Player player : players.values()) {
+            if (player.getName().toLowerCase(Locale.ROOT).equals(lowerName))
+                return player;
+        }
+        return null;
+    }
+
+    private Inventory createInventory(Object[] args) {
+        int size = args[1] instanceof InventoryType type ? type.getDefaultSize() : (int) args[1];
+        return MemoryInventory.create(size);
+    }
+
+    private static NikoAPI allocatePlugin() {
+        NikoAPI plugin = PacketFactory.allocate(NikoAPI.class);
+        try {
+            setField(NikoAPI.class, plugin, "playerHandler", new PlayerHandler());
+            setField(NikoAPI.class, null, "instance", plugin);
+            // A PluginLogger needs the plugin description, so the logger is only set if a plain Logger fits
+            if (JavaPlugin.class.getDeclaredField("logger").getType() == Logger.class)
+                setField(JavaPlugin.class, plugin, "logger", Logger.getLogger("NikoAPI"));
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException("Could not allocate the plugin", exception);
+        }
+        return plugin;
+    }
+
+    private static void setField(Class<?> owner, Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = owner.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,278 @@
+package chatzis.nikolas.mc.nikoapi.benchmark.load;
+
+import chatzis.nikolas.mc.nikoapi.actionbar.ActionbarManager;
+import chatzis.nikolas.mc.nikoapi.actionbar.ActionbarMessage;
+import chatzis.nikolas.mc.nikoapi.hologram.APIHologram;
+import chatzis.nikolas.mc.nikoapi.hologram.HologramStyle;
+import chatzis.nikolas.mc.nikoapi.hologram.HologramVisibility;
+import chatzis.nikolas.mc.nikoapi.inventory.ClickAction;
+import chatzis.nikolas.mc.nikoapi.inventory.CustomInventory;
+import chatzis.nikolas.mc.nikoapi.packet.metrics.PacketMetrics;
+import chatzis.nikolas.mc.nikoapi.packet.sender.PacketSender;
+import chatzis.nikolas.mc.nikoapi.player.APIPlayer;
+import chatzis.nikolas.mc.nikoapi.player.PlayerPacketReader;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.OutputStreamWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator, which runs a server tick loop with synthetic players without a server.
+ * Every player walks through its world, so chunks are loaded and unloaded around it,
+ * opens and clicks a shared {@link CustomInventory}, receives actionbars and optionally sees holograms.
+ * The scheduler of the server runs on a virtual clock, which advances once per tick,
+ * so tasks like the flush of the {@link PacketSender}, the actionbar updates and the {@link HologramVisibility} run like on a server.
+ * Holograms are rendered as text displays, which don't need a level, and change their first line periodically,
+ * so the spawns, destroys and coalesced line updates of the visibility are part of the load.
+ * <p>
+ * After the warmup the harness reports the tick time, the allocations of the tick thread
+ * and the packets per player and tick, which passed the packet interceptor.
+ * Listeners, which run asynchronously, are not part of the tick time.
+ *
+ * <pre>java -cp benchmarks/target/benchmarks.jar chatzis.nikolas.mc.nikoapi.benchmark.load.LoadHarness --players 1000 --ticks 1200</pre>
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class LoadHarness {
+
+    private static final double WALK_SPEED = 0.28;
+    private static final double GOLDEN_ANGLE = Math.PI * (3 - Math.sqrt(5));
+    private static final int MENU_SLOTS = 9;
+    private static final long TICK_BUDGET_NANOS = 50_000_000L;
+
+    private final Options options;
+    private final HeadlessServer server;
+    private final List<SyntheticPlayer> players;
+    private final ActionbarManager actionbarManager;
+    private final CustomInventory menu;
+    private final List<APIHologram> holograms;
+    private final LongAdder clicks;
+
+    private LoadHarness(Options options) {
+        this.options = options;
+        this.server = HeadlessServer.install();
+        this.players = new ArrayList<>(options.players);
+        this.holograms = new ArrayList<>(options.players * options.holograms);
+        this.actionbarManager = new ActionbarManager();
+        this.clicks = new LongAdder();
+        this.menu = new CustomInventory("Menu", 27);
+        for (int i = 0; i < MENU_SLOTS; i++) {
+            menu.setItem(i, new ItemStack(Material.DIAMOND), new ClickAction(i == MENU_SLOTS - 1) {
+                @Override
+                public void onClick(APIPlayer apiPlayer, ItemStack itemStack, int slot) {
+                    clicks.increment();
+                }
+            });
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = Options.parse(args);
+        if (options == null) {
+            System.err.println("Usage: LoadHarness [--players <n>] [--ticks <n>] [--warmup <n>] [--view-distance <chunks>]"
+                    + " [--click-every <ticks>] [--actionbar-every <ticks>] [--holograms <per player>]"
+                    + " [--hologram-update-every <ticks>] [--metrics]");
+            return;
+        }
+        new LoadHarness(options).run();
+    }
+
+    private void run() throws IOException {
+        PlayerPacketReader.enable();
+        PacketMetrics.getInstance().setEnabled(options.metrics);
+        PacketSender.getInstance().start(server.getPlugin());
+        if (options.holograms > 0) {
+            // The entity types and data serializers of the holograms need the registries
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            HologramVisibility.getInstance().start(server.getPlugin());
+        }
+
+        SyntheticWorld world = new SyntheticWorld("world");
+        for (int i = 0; i < options.players; i++) {
+            // The players start on a grid, which is wider than the view distance, so every player has its own chunks
+            double spacing = (options.viewDistance * 2 + 1) * 16.0;
+            SyntheticPlayer player = new SyntheticPlayer("Synthetic" + i, world,
+                    (i % 32) * spacing, (i / 32) * spacing, options.viewDistance);
+            player.join(server);
+            showHolograms(player, new Random(i));
+            players.add(player);
+        }
+        System.out.printf("%d players joined, view distance %d, %d ticks after %d warmup ticks%n",
+                options.players, options.viewDistance, options.ticks, options.warmup);
+
+        for (int tick = 0; tick < options.warmup; tick++)
+            tick(tick);
+        PacketMetrics.getInstance().reset();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] tickNanos = new long[options.ticks];
+        long sentBefore = getSent();
+        long receivedBefore = getReceived();
+        long clicksBefore = clicks.sum();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int tick = 0; tick < options.ticks; tick++) {
+            long start = System.nanoTime();
+            tick(options.warmup + tick);
+            tickNanos[tick] = System.nanoTime() - start;
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        report(tickNanos, allocated, getSent() - sentBefore, getReceived() - receivedBefore, clicks.sum() - clicksBefore);
+        if (options.holograms > 0)
+            System.out.printf("Holograms:          %d shown, %.1f spawned per player%n", holograms.size(), getSpawnedHolograms());
+        if (options.metrics)
+            PacketMetrics.getInstance().snapshot().write(new OutputStreamWriter(System.out));
+
+        for (SyntheticPlayer player : players)
+            player.quit(server);
+        HologramVisibility.getInstance().stop();
+        PacketSender.getInstance().stop();
+        PlayerPacketReader.disable();
+    }
+
+    /**
+     * Runs one tick: the players act, the scheduler runs the due tasks and the connections are flushed.
+     */
+    private void tick(int tick) {
+        for (int i = 0; i < players.size(); i++) {
+            SyntheticPlayer player = players.get(i);
+            double angle = i * GOLDEN_ANGLE;
+            player.move(Math.cos(angle) * WALK_SPEED, Math.sin(angle) * WALK_SPEED);
+
+            if (options.clickEvery > 0 && (tick + i) % options.clickEvery == 0) {
+                if (player.hasInventoryOpen())
+                    player.click((tick / options.clickEvery + i) % MENU_SLOTS, ClickType.LEFT);
+                else
+                    menu.open(player.getApiPlayer());
+            }
+            if (options.actionbarEvery > 0 && (tick + i) % options.actionbarEvery == 0)
+                actionbarManager.addActionbar(player.getPlayer().getUniqueId(), new ActionbarMessage("Tick " + tick).setDuration(1));
+        }
+        if (options.hologramUpdateEvery > 0) {
+            for (int i = 0; i < holograms.size(); i++) {
+                if ((tick + i) % options.hologramUpdateEvery == 0)
+                    holograms.get(i).setLine(0, "Hologram " + i + " at tick " + tick);
+            }
+        }
+        server.getScheduler().tick();
+        for (SyntheticPlayer player : players)
+            player.flush();
+    }
+
+    /**
+     * Shows holograms in random chunks around the start of the player.
+     * The holograms within the render distance are spawned by the {@link HologramVisibility} on the next tick.
+     */
+    private void showHolograms(SyntheticPlayer player, Random random) {
+        Location start = player.getLocation();
+        int range = options.viewDistance * 16;
+        for (int i = 0; i < options.holograms; i++) {
+            Location location = start.clone().add(random.nextInt(range * 2) - range, 0, random.nextInt(range * 2) - range);
+            APIHologram hologram = new APIHologram(location, List.of("Hologram " + i, "Line"), HologramStyle.TEXT_DISPLAY);
+            player.getApiPlayer().showHologram(hologram);
+            holograms.add(hologram);
+        }
+    }
+
+    private double getSpawnedHolograms() {
+        long spawned = 0;
+        for (SyntheticPlayer player : players)
+            spawned += HologramVisibility.getInstance().getSpawnedCount(player.getPlayer());
+        return spawned / (double) players.size();
+    }
+
+    private long getSent() {
+        long sent = 0;
+        for (SyntheticPlayer player : players)
+            sent += player.getConnection().getSent();
+        return sent;
+    }
+
+    private long getReceived() {
+        long received = 0;
+        for (SyntheticPlayer player : players)
+            received += player.getConnection().getReceived();
+        return received;
+    }
+
+    private void report(long[] tickNanos, long allocated, long sent, long received, long clicks) {
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        int overBudget = 0;
+        for (long nanos : sorted) {
+            total += nanos;
+            if (nanos > TICK_BUDGET_NANOS)
+                overBudget++;
+        }
+
+        int ticks = sorted.length;
+        double playerTicks = (double) ticks * players.size();
+        System.out.printf("Tick time ms:       avg %.3f  p50 %.3f  p99 %.3f  max %.3f  (%d ticks over 50 ms)%n",
+                total / (double) ticks / 1e6, percentile(sorted, 0.5) / 1e6, percentile(sorted, 0.99) / 1e6,
+                sorted[ticks - 1] / 1e6, overBudget);
+        System.out.printf("Allocation:         %.1f KiB per tick, %.1f MiB/s at 20 tps%n",
+                allocated / (double) ticks / 1024, allocated / (double) ticks * 20 / (1024 * 1024));
+        System.out.printf("Packets per player: %.2f out, %.2f in per tick%n", sent / playerTicks, received / playerTicks);
+        System.out.printf("Inventory clicks:   %d%n", clicks);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    /**
+     * Options of the harness, parsed from the command line.
+     */
+    private static final class Options {
+
+        private int players = 1000;
+        private int ticks = 1200;
+        private int warmup = 200;
+        private int viewDistance = 8;
+        private int clickEvery = 40;
+        private int actionbarEvery = 20;
+        private int holograms = 0;
+        private int hologramUpdateEvery = 20;
+        private boolean metrics = false;
+
+        private static Options parse(String[] args) {
+            Options options = new Options();
+            try {
+                for (int i = 0; i < args.length; i++) {
+                    switch (args[i]) {
+                        case "--players" -> options.players = Integer.parseInt(args[++i]);
+                        case "--ticks" -> options.ticks = Integer.parseInt(args[++i]);
+                        case "--warmup" -> options.warmup = Integer.parseInt(args[++i]);
+                        case "--view-distance" -> options.viewDistance = Integer.parseInt(args[++i]);
+                        case "--click-every" -> options.clickEvery = Integer.parseInt(args[++i]);
+                        case "--actionbar-every" -> options.actionbarEvery = Integer.parseInt(args[++i]);
+                        case "--holograms" -> options.holograms = Integer.parseInt(args[++i]);
+                        case "--hologram-update-every" -> options.hologramUpdateEvery = Integer.parseInt(args[++i]);
+                        case "--metrics" -> options.metrics = true;
+                        default -> {
+                            return null;
+                        }
+                    }
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException exception) {
+                return null;
+            }
+            return options.players > 0 && options.ticks > 0 && options.warmup >= 0 && options.viewDistance >= 0
+                    && options.holograms >= 0 ? options : null;
+        }
+    }
+}
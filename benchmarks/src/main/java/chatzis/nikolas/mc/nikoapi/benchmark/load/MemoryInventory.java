@@ -0,0 +1,68 @@
+package chatzis.nikolas.mc.nikoapi.benchmark.load;
+
+import chatzis.nikolas.mc.nikoapi.benchmark.FakePlayers;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inventory, which only stores its items in an array.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class MemoryInventory {
+
+    private MemoryInventory() {
+        throw new UnsupportedOperationException("This is a util class.");
+    }
+
+    static Inventory create(int size) {
+        ItemStack[] items = new ItemStack[size];
+        return (Inventory) Proxy.newProxyInstance(MemoryInventory.class.getClassLoader(), new Class<?>[]{Inventory.class}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "getSize" -> size;
+                    case "getItem" -> items[(int) args[0]];
+                    case "setItem" -> {
+                        items[(int) args[0]] = (ItemStack) args[1];
+                        yield null;
+                    }
+                    case "getContents", "getStorageContents" -> Arrays.copyOf(items, size);
+                    case "addItem" -> addItems(items, (ItemStack[]) args[0]);
+                    case "clear" -> {
+                        if (args == null)
+                            Arrays.fill(items, null);
+                        else
+                            items[(int) args[0]] = null;
+                        yield null;
+                    }
+                    case "getViewers" -> Collections.emptyList();
+                    case "getType" -> InventoryType.CHEST;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "MemoryInventory{" + size + "}";
+                    default -> FakePlayers.defaultValue(method.getReturnType());
+                });
+    }
+
+    private static Map<Integer, ItemStack> addItems(ItemStack[] items, ItemStack[] added) {
+        Map<Integer, ItemStack> leftOver = new HashMap<>();
+        int slot = 0;
+        for (int i = 0; i < added.length; i++) {
+            while (slot < items.length && items[slot] != null && items[slot].getType() != Material.AIR)
+                slot++;
+            if (slot < items.length)
+                items[slot] = added[i];
+            else
+                leftOver.put(i, added[i]);
+        }
+        return leftOver;
+    }
+}
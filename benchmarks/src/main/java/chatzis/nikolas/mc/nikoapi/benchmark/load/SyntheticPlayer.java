@@ -0,0 +1,256 @@
+package chatzis.nikolas.mc.nikoapi.benchmark.load;
+
+import chatzis.nikolas.mc.nikoapi.NikoAPI;
+import chatzis.nikolas.mc.nikoapi.benchmark.FakePlayers;
+import chatzis.nikolas.mc.nikoapi.benchmark.PacketFactory;
+import chatzis.nikolas.mc.nikoapi.inventory.InventoryListener;
+import chatzis.nikolas.mc.nikoapi.player.APIPlayer;
+import chatzis.nikolas.mc.nikoapi.player.EmbeddedConnection;
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.game.ClientboundSetActionBarTextPacket;
+import net.minecraft.network.protocol.game.ClientboundSystemChatPacket;
+import org.bukkit.Location;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * A player without a client.
+ * The player is backed by an {@link EmbeddedConnection}, so everything NikoAPI sends to it passes the packet interceptor.
+ * The player moves through its world like the server sees it: it sends its position every tick
+ * and receives the chunk loads and unloads of its view distance, when it crosses a chunk border.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class SyntheticPlayer {
+
+    private static final InventoryListener INVENTORY_LISTENER = new InventoryListener();
+
+    private final String name;
+    private final UUID uuid;
+    private final SyntheticWorld world;
+    private final int viewDistance;
+    private final Player proxy;
+    private final Inventory playerInventory;
+    private EmbeddedConnection connection;
+    private InventoryView openView;
+    private double x;
+    private double z;
+    private int chunkX;
+    private int chunkZ;
+
+    SyntheticPlayer(String name, SyntheticWorld world, double x, double z, int viewDistance) {
+        this.name = name;
+        this.uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+        this.world = world;
+        this.viewDistance = viewDistance;
+        this.x = x;
+        this.z = z;
+        this.playerInventory = MemoryInventory.create(36);
+        Player.Spigot spigot = new Player.Spigot() {
+            @Override
+            public void sendMessage(ChatMessageType position, BaseComponent... components) {
+                SyntheticPlayer.this.sendMessage(position, components);
+            }
+
+            @Override
+            public void sendMessage(ChatMessageType position, BaseComponent component) {
+                SyntheticPlayer.this.sendMessage(position, component);
+            }
+        };
+        this.proxy = (Player) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Player.class}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "getName", "getDisplayName", "getPlayerListName" -> name;
+                    case "getUniqueId" -> uuid;
+                    case "getWorld" -> world.getProxy();
+                    case "getLocation" -> getLocation();
+                    case "isOnline", "isValid" -> connection != null;
+                    case "spigot" -> spigot;
+                    case "getOpenInventory" -> openView;
+                    case "openInventory" -> args[0] instanceof Inventory inventory ? openInventory(inventory) : null;
+                    case "closeInventory" -> {
+                        closeInventory();
+                        yield null;
+                    }
+                    case "hashCode" -> uuid.hashCode();
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "SyntheticPlayer{" + name + "}";
+                    default -> FakePlayers.defaultValue(method.getReturnType());
+                });
+    }
+
+    Player getPlayer() {
+        return proxy;
+    }
+
+    APIPlayer getApiPlayer() {
+        return NikoAPI.getInstance().getPlayerHandler().getPlayer(uuid);
+    }
+
+    EmbeddedConnection getConnection() {
+        return connection;
+    }
+
+    Location getLocation() {
+        return new Location(world.getProxy(), x, 64, z);
+    }
+
+    boolean hasInventoryOpen() {
+        return openView != null;
+    }
+
+    /**
+     * Joins the server like the login and join events do and receives the chunks around the player.
+     */
+    void join(HeadlessServer server) {
+        server.addPlayer(proxy);
+        NikoAPI.getInstance().getPlayerHandler().addPlayer(proxy);
+        this.connection = new EmbeddedConnection(proxy);
+        this.chunkX = (int) Math.floor(x) >> 4;
+        this.chunkZ = (int) Math.floor(z) >> 4;
+        for (int cx = chunkX - viewDistance; cx <= chunkX + viewDistance; cx++) {
+            for (int cz = chunkZ - viewDistance; cz <= chunkZ + viewDistance; cz++)
+                connection.write(PacketFactory.chunk(cx, cz));
+        }
+    }
+
+    /**
+     * Leaves the server like the quit event does.
+     */
+    void quit(HeadlessServer server) {
+        closeInventory();
+        NikoAPI.getInstance().getPlayerHandler().removePlayer(uuid);
+        server.removePlayer(proxy);
+        connection.close();
+        connection = null;
+    }
+
+    /**
+     * Moves the player and sends its position.
+     * If the player crosses a chunk border, the chunks entering the view are loaded and the chunks leaving it are unloaded.
+     */
+    void move(double dx, double dz) {
+        x += dx;
+        z += dz;
+        connection.read(PacketFactory.move(x, 64, z));
+
+        int newChunkX = (int) Math.floor(x) >> 4;
+        int newChunkZ = (int) Math.floor(z) >> 4;
+        if (newChunkX == chunkX && newChunkZ == chunkZ)
+            return;
+
+        for (int cx = chunkX - viewDistance; cx <= chunkX + viewDistance; cx++) {
+            for (int cz = chunkZ - viewDistance; cz <= chunkZ + viewDistance; cz++) {
+                if (Math.abs(cx - newChunkX) > viewDistance || Math.abs(cz - newChunkZ) > viewDistance)
+                    connection.write(PacketFactory.forgetChunk(cx, cz));
+            }
+        }
+        for (int cx = newChunkX - viewDistance; cx <= newChunkX + viewDistance; cx++) {
+            for (int cz = newChunkZ - viewDistance; cz <= newChunkZ + viewDistance; cz++) {
+                if (Math.abs(cx - chunkX) > viewDistance || Math.abs(cz - chunkZ) > viewDistance)
+                    connection.write(PacketFactory.chunk(cx, cz));
+            }
+        }
+        chunkX = newChunkX;
+        chunkZ = newChunkZ;
+    }
+
+    /**
+     * Clicks a slot of the open inventory like the server fires the click.
+     */
+    void click(int slot, ClickType clickType) {
+        if (openView == null)
+            return;
+        INVENTORY_LISTENER.onInventoryClick(new InventoryClickEvent(openView, InventoryType.SlotType.CONTAINER, slot, clickType, InventoryAction.PICKUP_ALL));
+    }
+
+    /**
+     * Flushes the packets written during the tick.
+     */
+    void flush() {
+        connection.flush();
+    }
+
+    private InventoryView openInventory(Inventory inventory) {
+        closeInventory();
+        this.openView = new SyntheticView(inventory);
+        return openView;
+    }
+
+    private void closeInventory() {
+        if (openView == null)
+            return;
+        InventoryView view = openView;
+        this.openView = null;
+        INVENTORY_LISTENER.onInventoryClose(new InventoryCloseEvent(view));
+    }
+
+    private void sendMessage(ChatMessageType position, BaseComponent... components) {
+        Component component = Component.literal(TextComponent.toLegacyText(components));
+        connection.write(position == ChatMessageType.ACTION_BAR ? new ClientboundSetActionBarTextPacket(component) : new ClientboundSystemChatPacket(component, false));
+        connection.flush();
+    }
+
+    /**
+     * View of an open inventory, the bottom is the inventory of the player.
+     */
+    private final class SyntheticView extends InventoryView {
+
+        private final Inventory top;
+        private String title;
+
+        private SyntheticView(Inventory top) {
+            this.top = top;
+            this.title = "Chest";
+        }
+
+        @Override
+        public Inventory getTopInventory() {
+            return top;
+        }
+
+        @Override
+        public Inventory getBottomInventory() {
+            return playerInventory;
+        }
+
+        @Override
+        public HumanEntity getPlayer() {
+            return proxy;
+        }
+
+        @Override
+        public InventoryType getType() {
+            return InventoryType.CHEST;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public String getOriginalTitle() {
+            return "Chest";
+        }
+
+        @Override
+        public void setTitle(String title) {
+            this.title = title;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package chatzis.nikolas.mc.nikoapi.benchmark.load;
+
+import chatzis.nikolas.mc.nikoapi.benchmark.FakePlayers;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * World without blocks, which only knows its name and hands out chunk handles.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class SyntheticWorld {
+
+    private final String name;
+    private final UUID uuid;
+    private final Map<Long, Chunk> chunks;
+    private final World proxy;
+
+    SyntheticWorld(String name) {
+        this.name = name;
+        this.uuid = UUID.nameUUIDFromBytes(("World:" + name).getBytes(StandardCharsets.UTF_8));
+        this.chunks = new HashMap<>();
+        this.proxy = (World) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{World.class}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "getName" -> name;
+                    case "getUID" -> uuid;
+                    case "getChunkAt" -> args[0] instanceof Location location ?
+                            getChunk(location.getBlockX() >> 4, location.getBlockZ() >> 4) : getChunk((int) args[0], (int) args[1]);
+                    case "getMinHeight" -> -64;
+                    case "getMaxHeight" -> 320;
+                    case "hashCode" -> uuid.hashCode();
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "SyntheticWorld{" + name + "}";
+                    default -> FakePlayers.defaultValue(method.getReturnType());
+                });
+    }
+
+    World getProxy() {
+        return proxy;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    private Chunk getChunk(int x, int z) {
+        return chunks.computeIfAbsent(((long) x << 32) | (z & 0xFFFFFFFFL), key ->
+                (Chunk) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Chunk.class}, (chunk, method, args) ->
+                        switch (method.getName()) {
+                            case "getX" -> x;
+                            case "getZ" -> z;
+                            case "getWorld" -> proxy;
+                            case "isLoaded" -> true;
+                            case "hashCode" -> Long.hashCode(key);
+                            case "equals" -> chunk == args[0];
+                            case "toString" -> "SyntheticChunk{" + x + ", " + z + "}";
+                            default -> FakePlayers.defaultValue(method.getReturnType());
+                        }));
+    }
+}
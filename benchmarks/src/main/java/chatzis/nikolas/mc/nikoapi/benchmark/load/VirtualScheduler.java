@@ -0,0 +1,164 @@
+package chatzis.nikolas.mc.nikoapi.benchmark.load;
+
+import chatzis.nikolas.mc.nikoapi.benchmark.FakePlayers;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Scheduler, which runs the tasks of the plugins on a virtual tick clock.
+ * A tick only passes, when {@link #tick()} is called, so a tick takes as long as its tasks need.
+ * Asynchronous tasks are run like synchronous ones on the next tick.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class VirtualScheduler implements InvocationHandler {
+
+    private final PriorityQueue<Task> queue;
+    private final BukkitScheduler proxy;
+    private long currentTick;
+    private int nextId;
+
+    VirtualScheduler() {
+        this.queue = new PriorityQueue<>(Comparator.comparingLong((Task task) -> task.due).thenComparingInt(task -> task.id));
+        this.proxy = (BukkitScheduler) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{BukkitScheduler.class}, this);
+    }
+
+    BukkitScheduler getProxy() {
+        return proxy;
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Advances the clock by one tick and runs the due tasks.
+     */
+    void tick() {
+        currentTick++;
+        List<Task> repeating = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().due <= currentTick) {
+            Task task = queue.poll();
+            if (task.cancelled)
+                continue;
+            task.run();
+            if (task.period > 0 && !task.cancelled) {
+                task.due = currentTick + task.period;
+                repeating.add(task);
+            }
+        }
+        queue.addAll(repeating);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        if (name.equals("cancelTask")) {
+            queue.removeIf(task -> task.id == (int) args[0]);
+            return null;
+        }
+        if (name.equals("cancelTasks")) {
+            queue.removeIf(task -> task.owner == args[0]);
+            return null;
+        }
+        if (name.startsWith("run") || name.startsWith("schedule")) {
+            Task task = schedule(args);
+            if (method.getReturnType() == int.class)
+                return task.id;
+            return method.getReturnType() == void.class ? null : task;
+        }
+        return switch (name) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "VirtualScheduler";
+            default -> FakePlayers.defaultValue(method.getReturnType());
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Task schedule(Object[] args) {
+        Plugin owner = null;
+        Object body = null;
+        List<Long> times = new ArrayList<>(2);
+        for (Object arg : args) {
+            if (arg instanceof Plugin plugin)
+                owner = plugin;
+            else if (arg instanceof Runnable || arg instanceof Consumer<?>)
+                body = arg;
+            else if (arg instanceof Long time)
+                times.add(time);
+        }
+
+        long delay = times.isEmpty() ? 0 : Math.max(0, times.get(0));
+        long period = times.size() < 2 ? 0 : Math.max(1, times.get(1));
+        Task task = new Task(++nextId, owner, body, currentTick + Math.max(1, delay), period);
+        queue.add(task);
+        return task;
+    }
+
+    /**
+     * A scheduled task.
+     */
+    private final class Task implements BukkitTask {
+
+        private final int id;
+        private final Plugin owner;
+        private final Object body;
+        private final long period;
+        private long due;
+        private boolean cancelled;
+
+        private Task(int id, Plugin owner, Object body, long due, long period) {
+            this.id = id;
+            this.owner = owner;
+            this.body = body;
+            this.due = due;
+            this.period = period;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void run() {
+            if (body instanceof Runnable runnable)
+                runnable.run();
+            else
+                ((Consumer<BukkitTask>) body).accept(this);
+        }
+
+        @Override
+        public int getTaskId() {
+            return id;
+        }
+
+        @Override
+        public Plugin getOwner() {
+            return owner;
+        }
+
+        @Override
+        public boolean isSync() {
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            queue.remove(this);
+        }
+    }
+}
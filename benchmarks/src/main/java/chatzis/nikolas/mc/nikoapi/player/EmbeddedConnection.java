@@ -0,0 +1,104 @@
+package chatzis.nikolas.mc.nikoapi.player;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.bukkit.entity.Player;
+
+/**
+ * A player connection on an {@link EmbeddedChannel} for the benchmarks.
+ * The {@link PacketInterceptor} is injected in front of a packet handler like on the server,
+ * inbound packets are consumed by the packet handler and outbound packets are discarded in place of the encoder.
+ * The player is bound to the channel like on login.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class EmbeddedConnection {
+
+    private final Player player;
+    private final EmbeddedChannel channel;
+    private long received;
+    private long sent;
+
+    /**
+     * Creates the connection.
+     *
+     * @param player Player - the player to bind or null, to stay in the login.
+     */
+    public EmbeddedConnection(Player player) {
+        this.player = player;
+        this.channel = new EmbeddedChannel();
+        channel.pipeline().addLast("encoder", new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                sent++;
+                ReferenceCountUtil.release(msg);
+                promise.trySuccess();
+            }
+        });
+        channel.pipeline().addLast("packet_handler", new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                received++;
+                ReferenceCountUtil.release(msg);
+            }
+        });
+        channel.pipeline().addBefore("packet_handler", PacketInterceptor.NAME, PacketInterceptor.INSTANCE);
+
+        if (player != null) {
+            PlayerPacketReader.loginStarted(channel, player.getName());
+            PlayerPacketReader.bind(player);
+        }
+    }
+
+    /**
+     * Passes a packet from the client to the server.
+     *
+     * @param packet Object - the decoded packet.
+     */
+    public void read(Object packet) {
+        channel.pipeline().fireChannelRead(packet);
+    }
+
+    /**
+     * Writes a packet to the client without flushing.
+     *
+     * @param packet Object - the packet.
+     */
+    public void write(Object packet) {
+        channel.write(packet, channel.voidPromise());
+    }
+
+    /**
+     * Flushes the written packets and runs the scheduled tasks of the channel.
+     */
+    public void flush() {
+        channel.flush();
+        channel.runPendingTasks();
+    }
+
+    public EmbeddedChannel getChannel() {
+        return channel;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    /**
+     * Unbinds the player and closes the channel.
+     */
+    public void close() {
+        if (player != null)
+            PlayerPacketReader.uninject(player);
+        channel.finishAndReleaseAll();
+    }
+}
@@ -1,8 +1,13 @@
 package chatzis.nikolas.mc.nikoapi;
 
+import chatzis.nikolas.mc.nikoapi.hologram.HologramVisibility;
 import chatzis.nikolas.mc.nikoapi.inventory.InventoryListener;
 import chatzis.nikolas.mc.nikoapi.listener.APIPlayerConnectionListener;
+import chatzis.nikolas.mc.nikoapi.packet.capture.PacketCapture;
+import chatzis.nikolas.mc.nikoapi.packet.reader.APIListenerManager;
+import chatzis.nikolas.mc.nikoapi.packet.sender.PacketSender;
 import chatzis.nikolas.mc.nikoapi.player.PlayerHandler;
+import chatzis.nikolas.mc.nikoapi.player.PlayerPacketReader;
 import chatzis.nikolas.mc.nikoapi.util.RegisterBuilderUtil;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -27,12 +32,26 @@ public final class NikoAPI extends JavaPlugin {
     @Override
     public void onEnable() {
         this.playerHandler = new PlayerHandler();
+        PacketSender.getInstance().start(this);
+        HologramVisibility.getInstance().start(this);
+        PacketCapture.getInstance().setDirectory(getDataFolder().toPath().resolve("captures"));
+        PlayerPacketReader.enable();
 
         new RegisterBuilderUtil(this)
-                .addListeners(new APIPlayerConnectionListener(), new InventoryListener())
+                .addListeners(new APIPlayerConnectionListener(), new InventoryListener(), HologramVisibility.getInstance())
                 .register();
     }
 
+    @Override
+    public void onDisable() {
+        PacketCapture.getInstance().stopAll();
+        PlayerPacketReader.disable();
+        APIListenerManager.getInstance().getAsyncExecutor().shutdown();
+        APIListenerManager.getInstance().getMainThreadDispatcher().shutdown();
+        HologramVisibility.getInstance().stop();
+        PacketSender.getInstance().stop();
+    }
+
     public PlayerHandler getPlayerHandler() {
         return playerHandler;
     }
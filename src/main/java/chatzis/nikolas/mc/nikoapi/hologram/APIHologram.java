@@ -2,17 +2,21 @@ package chatzis.nikolas.mc.nikoapi.hologram;
 
 import chatzis.nikolas.mc.nikoapi.packet.reader.APIListenerManager;
 import chatzis.nikolas.mc.nikoapi.util.Utils;
-import net.minecraft.network.chat.Component;
-import net.minecraft.server.level.ServerLevel;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
 import net.minecraft.world.entity.decoration.ArmorStand;
 import org.bukkit.Location;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Class to create holograms.
+ * A hologram is rendered with packet entities, by default all lines are shown by one text display, see {@link HologramStyle}.
  * @author HeyImDome
  * @since 0.0.1
  */
@@ -23,23 +27,66 @@ public class APIHologram {
         APIListenerManager.getInstance().registerListener(new HologramChunkListener());
     }
 
+    private static HologramStyle defaultStyle = HologramStyle.TEXT_DISPLAY;
+
     private final Location spawnLocation;
     private final int chunkID;
+    private final long chunkKey;
+    // Id in the HologramIndex, while the hologram has viewers
+    int indexId = -1;
 
-    private List<String> lines;
-    private final List<ArmorStand> armorStands;
+    private final HologramStyle style;
+    private final List<String> lines;
+    private HologramRenderer renderer;
+    private boolean changed;
+    private ClientboundBundlePacket spawnPacket;
+    private ClientboundRemoveEntitiesPacket destroyPacket;
 
     /**
-     * Create the hologram object.
+     * Sets the style of the holograms, which are created without a style.
+     * @param style {@link HologramStyle} - the style, {@link HologramStyle#TEXT_DISPLAY} by default.
+     * @since 1.0.3
+     */
+    public static void setDefaultStyle(HologramStyle style) {
+        if (style == null)
+            throw new IllegalArgumentException("Style must not be null");
+        defaultStyle = style;
+    }
+
+    /**
+     * Gets the style of the holograms, which are created without a style.
+     * @return {@link HologramStyle} - the style.
+     * @since 1.0.3
+     */
+    public static HologramStyle getDefaultStyle() {
+        return defaultStyle;
+    }
+
+    /**
+     * Create the hologram object with the default style.
      * @param location Location - the location to spawn the hologram.
      * @param lines List<String> - the text to display.
      * @since 0.0.1
      */
     public APIHologram(Location location, List<String> lines) {
+        this(location, lines, defaultStyle);
+    }
+
+    /**
+     * Create the hologram object.
+     * @param location Location - the location to spawn the hologram.
+     * @param lines List<String> - the text to display.
+     * @param style {@link HologramStyle} - the entities and options, which render the hologram.
+     * @since 1.0.3
+     */
+    public APIHologram(Location location, List<String> lines, HologramStyle style) {
+        if (style == null)
+            throw new IllegalArgumentException("Style must not be null");
         this.spawnLocation = location.clone();
         this.chunkID = Utils.getChunkId(location);
-        this.lines = lines;
-        this.armorStands = new ArrayList<>();
+        this.chunkKey = Utils.getChunkKey(location);
+        this.lines = new ArrayList<>(lines);
+        this.style = style;
     }
 
     /**
@@ -53,29 +100,53 @@ public class APIHologram {
 
     /**
      * Gets the lines which are displayed by the hologram.
+     * The list can't be modified, the lines are changed with {@link #setLines(List)}, {@link #setLine(int, String)} and {@link #addLine(String)}.
      * @return List<String> - the lines
      * @since 0.0.1
      */
     public List<String> getLines() {
-        return lines;
+        return Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * Gets the style, which renders the hologram.
+     * @return {@link HologramStyle} - the style.
+     * @since 1.0.3
+     */
+    public HologramStyle getStyle() {
+        return style;
     }
 
     /**
      * Gets the chunk id where the hologram is located.
      * @return int - the chunk id.
      * @since 0.0.1
+     * @deprecated the id collides in large worlds, use {@link #getChunkKey()}.
      */
+    @Deprecated
     public int getChunkID() {
         return chunkID;
     }
 
+    /**
+     * Gets the key of the chunk where the hologram is located.
+     * @return long - the chunk key, see {@link Utils#getChunkKey(int, int)}.
+     * @since 1.0.3
+     */
+    public long getChunkKey() {
+        return chunkKey;
+    }
+
     /**
      * Sets the lines which should be displayed by the hologram.
+     * The players, who see the hologram, receive the changed lines at the start of the next tick.
      * @param lines List<String> - the lines to display.
      * @since 0.0.1
      */
     public void setLines(List<String> lines) {
-        this.lines = lines;
+        this.lines.clear();
+        this.lines.addAll(lines);
+        linesChanged();
     }
 
     /**
@@ -94,19 +165,28 @@ public class APIHologram {
      */
     public void addLine(String line) {
         this.lines.add(line);
+        linesChanged();
+    }
+
+    /**
+     * Replaces a line, which is displayed.
+     * @param index int - the index of the line.
+     * @param line String - the new line.
+     * @since 1.0.3
+     */
+    public void setLine(int index, String line) {
+        if (!line.equals(this.lines.set(index, line)))
+            linesChanged();
     }
 
     /**
-     * Gets all armors stands which are stored in the hologram.
-     * If a new line was added, they will be re-created before.
+     * Gets all armors stands which are stored in the hologram, in the order of the lines.
+     * Holograms, which are rendered with a text display, have no armor stands.
      * @return List<EntityArmorStand> - the list of entity armor stands.
      * @since 0.0.1
      */
     public List<ArmorStand> getArmorStands() {
-        if (armorStands.size() != lines.size())
-            createArmorStands();
-
-        return armorStands;
+        return getRenderer() instanceof ArmorStandRenderer armorStandRenderer ? armorStandRenderer.getArmorStands() : List.of();
     }
 
     /**
@@ -115,36 +195,80 @@ public class APIHologram {
      * @since 1.0.2
      */
     public List<Integer> getEntityIds() {
-        List<Integer> ids = new ArrayList<>();
-        for (ArmorStand armorStand : getArmorStands()) {
-            ids.add(armorStand.getId());
-        }
-        return ids;
+        return new ArrayList<>(getDestroyPacket().getEntityIds());
     }
 
     /**
-     * Creates the armor stands for a given location with a Y difference of 0.25D for each line.
-     * @since 0.0.1
+     * Gets the packet, which spawns all entities of the hologram at once.
+     * The packet is built once and shared by all viewers, until the lines change, so it must not be modified.
+     * @return ClientboundBundlePacket - the spawn packet.
+     * @since 1.0.3
      */
-    private void createArmorStands() {
-        this.armorStands.clear();
+    public ClientboundBundlePacket getSpawnPacket() {
+        HologramRenderer current = getRenderer();
+        if (spawnPacket == null) {
+            List<Packet<ClientGamePacketListener>> packets = new ArrayList<>();
+            current.addSpawnPackets(packets);
+            spawnPacket = new ClientboundBundlePacket(packets);
+        }
+        return spawnPacket;
+    }
 
-        Location location = this.spawnLocation.clone().subtract(0, 1.975, 0);
-        for (int i = lines.size() - 1; i >= 0; i--) {
-            String currentLine = lines.get(i);
+    /**
+     * Gets the packet, which destroys all entities of the hologram.
+     * The packet is shared by all viewers like the {@link #getSpawnPacket()}.
+     * @return ClientboundRemoveEntitiesPacket - the destroy packet.
+     * @since 1.0.3
+     */
+    public ClientboundRemoveEntitiesPacket getDestroyPacket() {
+        HologramRenderer current = getRenderer();
+        if (destroyPacket == null)
+            destroyPacket = new ClientboundRemoveEntitiesPacket(current.getEntityIds());
+        return destroyPacket;
+    }
 
-            System.out.println(currentLine);
-            ServerLevel serverWorld = Utils.getServerWorld(location.getWorld());
+    /**
+     * Changes the entities to the current lines.
+     * Called by the {@link HologramVisibility} at the start of the tick after the lines changed.
+     * @return List<Packet> - the packets, which change the entities for every player, who sees the hologram.
+     */
+    List<Packet<ClientGamePacketListener>> applyLines() {
+        changed = false;
+        List<Packet<ClientGamePacketListener>> packets = new ArrayList<>();
+        if (renderer.update(lines, packets))
+            destroyPacket = null;
+        spawnPacket = null;
+        return packets;
+    }
 
-            ArmorStand entityArmorStand = new ArmorStand(serverWorld, location.getX(), location.getY(), location.getZ());
-            entityArmorStand.setInvisible(true); // invisible
-            entityArmorStand.setCustomNameVisible(true); // name visible
-            entityArmorStand.setCustomName(Component.literal(currentLine)); // current line
-            entityArmorStand.setNoGravity(true); // no gravity
+    /**
+     * Schedules the update of the entities.
+     * Until the next tick, new viewers receive the previous lines and the update afterward,
+     * so the changes of a tick are sent once. Without viewers, the entities are just created again on next use.
+     */
+    private void linesChanged() {
+        if (renderer == null || changed)
+            return;
+        if (indexId < 0) {
+            renderer = null;
+            spawnPacket = null;
+            destroyPacket = null;
+            return;
+        }
+        changed = true;
+        HologramVisibility.getInstance().linesChanged(this);
+    }
 
-            this.armorStands.add(entityArmorStand);
-            location.add(0.0D, 0.25D, 0.0D);
+    /**
+     * Gets the entities of the hologram, they are created on first use.
+     */
+    private HologramRenderer getRenderer() {
+        if (renderer == null) {
+            renderer = style.getType() == HologramStyle.Type.TEXT_DISPLAY
+                    ? new TextDisplayRenderer(spawnLocation, lines, style)
+                    : new ArmorStandRenderer(spawnLocation, lines);
         }
+        return renderer;
     }
 
 }
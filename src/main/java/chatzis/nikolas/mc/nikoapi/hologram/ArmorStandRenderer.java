@@ -0,0 +1,141 @@
+package chatzis.nikolas.mc.nikoapi.hologram;
+
+import chatzis.nikolas.mc.nikoapi.util.Utils;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
+import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
+import net.minecraft.network.protocol.game.ClientboundTeleportEntityPacket;
+import net.minecraft.network.syncher.SynchedEntityData;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.decoration.ArmorStand;
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders every line of a hologram with an invisible armor stand, which shows the line as its custom name.
+ * The last line is the lowest one, every line above has a Y difference of 0.25D.
+ * <p>
+ * The armor stands are never added to the level, so their dirty entity data only contains the changes of the renderer.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class ArmorStandRenderer implements HologramRenderer {
+
+    private static final double LINE_HEIGHT = 0.25D;
+
+    private final Location baseLocation;
+    private final ServerLevel serverWorld;
+    private final List<ArmorStand> armorStands;
+    private final List<String> lines;
+
+    /**
+     * Creates the armor stands for the lines.
+     *
+     * @param spawnLocation Location - the location of the hologram.
+     * @param lines         List<String> - the lines.
+     */
+    ArmorStandRenderer(Location spawnLocation, List<String> lines) {
+        this.baseLocation = spawnLocation.clone().subtract(0, 1.975, 0);
+        this.serverWorld = Utils.getServerWorld(spawnLocation.getWorld());
+        this.armorStands = new ArrayList<>();
+        this.lines = new ArrayList<>(lines);
+        for (int i = 0; i < lines.size(); i++) {
+            armorStands.add(createArmorStand(lines.get(i), getY(i, lines.size())));
+        }
+    }
+
+    /**
+     * Gets the armor stands in the order of the lines.
+     *
+     * @return List<ArmorStand> - the armor stands.
+     */
+    List<ArmorStand> getArmorStands() {
+        return armorStands;
+    }
+
+    @Override
+    public void addSpawnPackets(List<Packet<ClientGamePacketListener>> packets) {
+        for (ArmorStand armorStand : armorStands) {
+            packets.add(new ClientboundAddEntityPacket(armorStand));
+            packets.add(new ClientboundSetEntityDataPacket(armorStand.getId(), armorStand.getEntityData().getNonDefaultValues()));
+        }
+    }
+
+    @Override
+    public int[] getEntityIds() {
+        int[] ids = new int[armorStands.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = armorStands.get(i).getId();
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean update(List<String> lines, List<Packet<ClientGamePacketListener>> packets) {
+        int oldCount = this.lines.size();
+        int newCount = lines.size();
+        int kept = Math.min(oldCount, newCount);
+        for (int i = 0; i < kept; i++) {
+            String line = lines.get(i);
+            if (line.equals(this.lines.get(i)))
+                continue;
+            ArmorStand armorStand = armorStands.get(i);
+            armorStand.setCustomName(Component.literal(line));
+            List<SynchedEntityData.DataValue<?>> changed = armorStand.getEntityData().packDirty();
+            if (changed != null)
+                packets.add(new ClientboundSetEntityDataPacket(armorStand.getId(), changed));
+        }
+        if (oldCount == newCount) {
+            this.lines.clear();
+            this.lines.addAll(lines);
+            return false;
+        }
+
+        // The lowest line is anchored, so the kept lines move, if lines were added or removed
+        for (int i = 0; i < kept; i++) {
+            ArmorStand armorStand = armorStands.get(i);
+            armorStand.setPos(baseLocation.getX(), getY(i, newCount), baseLocation.getZ());
+            packets.add(new ClientboundTeleportEntityPacket(armorStand));
+        }
+        if (newCount < oldCount) {
+            List<ArmorStand> removed = armorStands.subList(newCount, oldCount);
+            int[] ids = new int[removed.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = removed.get(i).getId();
+            }
+            packets.add(new ClientboundRemoveEntitiesPacket(ids));
+            removed.clear();
+        } else {
+            for (int i = oldCount; i < newCount; i++) {
+                ArmorStand armorStand = createArmorStand(lines.get(i), getY(i, newCount));
+                armorStands.add(armorStand);
+                packets.add(new ClientboundAddEntityPacket(armorStand));
+                packets.add(new ClientboundSetEntityDataPacket(armorStand.getId(), armorStand.getEntityData().getNonDefaultValues()));
+            }
+        }
+        this.lines.clear();
+        this.lines.addAll(lines);
+        return true;
+    }
+
+    private double getY(int line, int lineCount) {
+        return baseLocation.getY() + (lineCount - 1 - line) * LINE_HEIGHT;
+    }
+
+    private ArmorStand createArmorStand(String line, double y) {
+        ArmorStand entityArmorStand = new ArmorStand(serverWorld, baseLocation.getX(), y, baseLocation.getZ());
+        entityArmorStand.setInvisible(true); // invisible
+        entityArmorStand.setCustomNameVisible(true); // name visible
+        entityArmorStand.setCustomName(Component.literal(line)); // current line
+        entityArmorStand.setNoGravity(true); // no gravity
+        // The initial values are sent with the spawn packet
+        entityArmorStand.getEntityData().packDirty();
+        return entityArmorStand;
+    }
+}
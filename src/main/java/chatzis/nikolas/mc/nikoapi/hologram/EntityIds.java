@@ -0,0 +1,53 @@
+package chatzis.nikolas.mc.nikoapi.hologram;
+
+import net.minecraft.world.entity.Entity;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Allocates the ids of entities, which only exist on the client, without creating an entity.
+ * The ids are taken from the counter of the server, so they never collide with the ids of real entities.
+ * The counter is the only static {@link AtomicInteger} of {@link Entity}, so it is found with spigot and mojang mappings alike.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class EntityIds {
+
+    private static final Logger LOG = Logger.getLogger(EntityIds.class.getSimpleName());
+    private static final AtomicInteger COUNTER = resolveCounter();
+    // Counting down from the top keeps the own ids apart from the ones of the server
+    private static final AtomicInteger FALLBACK = new AtomicInteger(Integer.MAX_VALUE);
+
+    private EntityIds() {
+        throw new UnsupportedOperationException("This is a util class.");
+    }
+
+    /**
+     * Allocates the next entity id.
+     *
+     * @return int - the entity id.
+     */
+    static int next() {
+        return COUNTER != null ? COUNTER.incrementAndGet() : FALLBACK.getAndDecrement();
+    }
+
+    private static AtomicInteger resolveCounter() {
+        try {
+            for (Field field : Entity.class.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && field.getType() == AtomicInteger.class) {
+                    field.setAccessible(true);
+                    return (AtomicInteger) field.get(null);
+                }
+            }
+            throw new IllegalStateException("Entity counter not found");
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            LOG.log(Level.WARNING, "Could not resolve the entity counter, using own ids: {0}", exception.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package chatzis.nikolas.mc.nikoapi.hologram;
+
+import chatzis.nikolas.mc.nikoapi.util.LongObjectHashMap;
+import chatzis.nikolas.mc.nikoapi.util.Utils;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Index of all holograms, which are shown to at least one player, by world and chunk.
+ * Every indexed hologram has a small id, players store the ids of the holograms they see,
+ * so the memory grows with the holograms and the viewers, but not with holograms times viewers.
+ * A hologram is indexed with its first viewer and removed with its last one, its id is reused afterward.
+ * <p>
+ * The index is only accessed by the main thread.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class HologramIndex {
+
+    private static final APIHologram[] NO_HOLOGRAMS = new APIHologram[0];
+    private static final HologramIndex instance = new HologramIndex();
+
+    /**
+     * Get the instance of this class
+     *
+     * @return HologramIndex - A instance of {@link HologramIndex}
+     */
+    public static HologramIndex getInstance() {
+        return instance;
+    }
+
+    private final Map<UUID, LongObjectHashMap<APIHologram[]>> worlds;
+    private APIHologram[] holograms;
+    private int[] viewers;
+    private int[] freeIds;
+    private int freeCount;
+    private int nextId;
+    private int size;
+
+    private HologramIndex() {
+        this.worlds = new HashMap<>();
+        this.holograms = new APIHologram[64];
+        this.viewers = new int[64];
+        this.freeIds = new int[16];
+    }
+
+    /**
+     * Adds a viewer to a hologram and indexes the hologram, if it is its first viewer.
+     *
+     * @param hologram {@link APIHologram} - the hologram.
+     * @return int - the id of the hologram.
+     * @since 1.0.3
+     */
+    public int addViewer(APIHologram hologram) {
+        if (hologram.indexId < 0)
+            index(hologram);
+        viewers[hologram.indexId]++;
+        return hologram.indexId;
+    }
+
+    /**
+     * Removes a viewer from a hologram and removes the hologram from the index, if it was its last viewer.
+     *
+     * @param hologram {@link APIHologram} - the hologram.
+     * @since 1.0.3
+     */
+    public void removeViewer(APIHologram hologram) {
+        int id = hologram.indexId;
+        if (id < 0 || --viewers[id] > 0)
+            return;
+        unindex(hologram);
+    }
+
+    /**
+     * Gets the id of a hologram.
+     *
+     * @param hologram {@link APIHologram} - the hologram.
+     * @return int - the id or -1, if the hologram has no viewers.
+     * @since 1.0.3
+     */
+    public int getId(APIHologram hologram) {
+        return hologram.indexId;
+    }
+
+    /**
+     * Gets a hologram by its id.
+     *
+     * @param id int - the id.
+     * @return {@link APIHologram} - the hologram or null, if no hologram has the id.
+     * @since 1.0.3
+     */
+    public APIHologram get(int id) {
+        return id >= 0 && id < nextId ? holograms[id] : null;
+    }
+
+    /**
+     * Gets the holograms in a chunk.
+     * The array is shared and must not be modified.
+     *
+     * @param world    World - the world.
+     * @param chunkKey long - the key of the chunk, see {@link Utils#getChunkKey(int, int)}.
+     * @return APIHologram[] - the holograms, an empty array if there are none.
+     * @since 1.0.3
+     */
+    public APIHologram[] getHolograms(World world, long chunkKey) {
+        LongObjectHashMap<APIHologram[]> chunks = worlds.get(world.getUID());
+        if (chunks == null)
+            return NO_HOLOGRAMS;
+        APIHologram[] bucket = chunks.get(chunkKey);
+        return bucket == null ? NO_HOLOGRAMS : bucket;
+    }
+
+    /**
+     * Gets the number of indexed holograms.
+     *
+     * @return int - the holograms with at least one viewer.
+     * @since 1.0.3
+     */
+    public int size() {
+        return size;
+    }
+
+    private void index(APIHologram hologram) {
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if (id >= holograms.length) {
+            holograms = Arrays.copyOf(holograms, holograms.length << 1);
+            viewers = Arrays.copyOf(viewers, viewers.length << 1);
+        }
+        holograms[id] = hologram;
+        viewers[id] = 0;
+        hologram.indexId = id;
+        size++;
+
+        LongObjectHashMap<APIHologram[]> chunks = worlds.computeIfAbsent(hologram.getLocation().getWorld().getUID(), uuid -> new LongObjectHashMap<>());
+        long chunkKey = hologram.getChunkKey();
+        APIHologram[] bucket = chunks.get(chunkKey);
+        if (bucket == null) {
+            chunks.put(chunkKey, new APIHologram[]{hologram});
+        } else {
+            bucket = Arrays.copyOf(bucket, bucket.length + 1);
+            bucket[bucket.length - 1] = hologram;
+            chunks.put(chunkKey, bucket);
+        }
+    }
+
+    private void unindex(APIHologram hologram) {
+        int id = hologram.indexId;
+        holograms[id] = null;
+        hologram.indexId = -1;
+        if (freeCount == freeIds.length)
+            freeIds = Arrays.copyOf(freeIds, freeIds.length << 1);
+        freeIds[freeCount++] = id;
+        size--;
+
+        UUID worldId = hologram.getLocation().getWorld().getUID();
+        LongObjectHashMap<APIHologram[]> chunks = worlds.get(worldId);
+        long chunkKey = hologram.getChunkKey();
+        APIHologram[] bucket = chunks.get(chunkKey);
+        if (bucket.length == 1) {
+            chunks.remove(chunkKey);
+            if (chunks.isEmpty())
+                worlds.remove(worldId);
+            return;
+        }
+
+        APIHologram[] remaining = new APIHologram[bucket.length - 1];
+        int i = 0;
+        for (APIHologram other : bucket) {
+            if (other != hologram)
+                remaining[i++] = other;
+        }
+        chunks.put(chunkKey, remaining);
+    }
+}
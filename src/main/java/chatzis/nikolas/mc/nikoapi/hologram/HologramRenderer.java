@@ -0,0 +1,39 @@
+package chatzis.nikolas.mc.nikoapi.hologram;
+
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+
+import java.util.List;
+
+/**
+ * The packet entities, which render the lines of a hologram.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+interface HologramRenderer {
+
+    /**
+     * Adds the packets, which spawn the entities for a player, to the list.
+     *
+     * @param packets List<Packet> - the packets to send.
+     */
+    void addSpawnPackets(List<Packet<ClientGamePacketListener>> packets);
+
+    /**
+     * Gets the ids of the entities.
+     *
+     * @return int[] - the ids.
+     */
+    int[] getEntityIds();
+
+    /**
+     * Changes the entities to the lines and adds the packets, which change them for a player, to the list.
+     * Only the changed values of the entities are sent, entities are only spawned or destroyed for added or removed lines.
+     *
+     * @param lines   List<String> - the new lines.
+     * @param packets List<Packet> - the packets to send to every player, who sees the entities.
+     * @return boolean - whatever entities were spawned or destroyed.
+     */
+    boolean update(List<String> lines, List<Packet<ClientGamePacketListener>> packets);
+}
@@ -0,0 +1,259 @@
+package chatzis.nikolas.mc.nikoapi.hologram;
+
+import org.bukkit.Color;
+import org.bukkit.entity.Display;
+
+/**
+ * An immutable description of how a hologram is rendered.
+ * <p>
+ * {@link Type#TEXT_DISPLAY} renders all lines with a single text display entity,
+ * {@link Type#ARMOR_STANDS} uses one invisible armor stand per line, like older versions of the api.
+ * The options of the builder only apply to text displays.
+ *
+ * <pre>{@code
+ * HologramStyle leaderboard = HologramStyle.textDisplay()
+ *         .billboard(Display.Billboard.VERTICAL)
+ *         .scale(1.5F)
+ *         .background(Color.fromARGB(0x80, 0, 0, 0))
+ *         .build();
+ * }</pre>
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class HologramStyle {
+
+    /**
+     * The style of a text display with the default options.
+     */
+    public static final HologramStyle TEXT_DISPLAY = textDisplay().build();
+
+    /**
+     * The style with one armor stand per line.
+     */
+    public static final HologramStyle ARMOR_STANDS = new HologramStyle(Type.ARMOR_STANDS, Display.Billboard.CENTER,
+            1F, null, false, false, 200);
+
+    /**
+     * Creates a builder for the style of a text display.
+     *
+     * @return {@link Builder} - the builder with the default options.
+     * @since 1.0.3
+     */
+    public static Builder textDisplay() {
+        return new Builder();
+    }
+
+    private final Type type;
+    private final Display.Billboard billboard;
+    private final float scale;
+    private final Color background;
+    private final boolean shadowed;
+    private final boolean seeThrough;
+    private final int lineWidth;
+
+    private HologramStyle(Type type, Display.Billboard billboard, float scale, Color background,
+                          boolean shadowed, boolean seeThrough, int lineWidth) {
+        this.type = type;
+        this.billboard = billboard;
+        this.scale = scale;
+        this.background = background;
+        this.shadowed = shadowed;
+        this.seeThrough = seeThrough;
+        this.lineWidth = lineWidth;
+    }
+
+    /**
+     * Gets the entities, which render the hologram.
+     *
+     * @return {@link Type} - the type.
+     * @since 1.0.3
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets how the text display faces the player.
+     *
+     * @return Display.Billboard - the billboard.
+     * @since 1.0.3
+     */
+    public Display.Billboard getBillboard() {
+        return billboard;
+    }
+
+    /**
+     * Gets the scale of the text display.
+     *
+     * @return float - the scale, 1 is the size of a name tag.
+     * @since 1.0.3
+     */
+    public float getScale() {
+        return scale;
+    }
+
+    /**
+     * Gets the background of the text display.
+     *
+     * @return Color - the color with alpha or null, if the default background of the client is used.
+     * @since 1.0.3
+     */
+    public Color getBackground() {
+        return background;
+    }
+
+    /**
+     * Gets if the text of the text display has a shadow.
+     *
+     * @return boolean - whatever the text is shadowed.
+     * @since 1.0.3
+     */
+    public boolean isShadowed() {
+        return shadowed;
+    }
+
+    /**
+     * Gets if the text display is visible through blocks.
+     *
+     * @return boolean - whatever the text is visible through blocks.
+     * @since 1.0.3
+     */
+    public boolean isSeeThrough() {
+        return seeThrough;
+    }
+
+    /**
+     * Gets the width in pixels, after which a line of the text display wraps.
+     *
+     * @return int - the line width.
+     * @since 1.0.3
+     */
+    public int getLineWidth() {
+        return lineWidth;
+    }
+
+    /**
+     * The entities, which render a hologram.
+     *
+     * @author Niko
+     * @since 1.0.3
+     */
+    public enum Type {
+        /**
+         * One text display for all lines.
+         */
+        TEXT_DISPLAY,
+        /**
+         * One invisible armor stand with a custom name per line.
+         */
+        ARMOR_STANDS
+    }
+
+    /**
+     * Builder of the {@link HologramStyle} of a text display.
+     *
+     * @author Niko
+     * @since 1.0.3
+     */
+    public static final class Builder {
+
+        private Display.Billboard billboard = Display.Billboard.CENTER;
+        private float scale = 1F;
+        private Color background;
+        private boolean shadowed;
+        private boolean seeThrough;
+        private int lineWidth = 200;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets how the text display faces the player.
+         *
+         * @param billboard Display.Billboard - the billboard, {@link Display.Billboard#CENTER} by default.
+         * @return {@link Builder} - this builder.
+         * @since 1.0.3
+         */
+        public Builder billboard(Display.Billboard billboard) {
+            if (billboard == null)
+                throw new IllegalArgumentException("Billboard must not be null");
+            this.billboard = billboard;
+            return this;
+        }
+
+        /**
+         * Sets the scale of the text display.
+         *
+         * @param scale float - the scale, 1 by default.
+         * @return {@link Builder} - this builder.
+         * @since 1.0.3
+         */
+        public Builder scale(float scale) {
+            if (scale <= 0)
+                throw new IllegalArgumentException("Scale must be positive");
+            this.scale = scale;
+            return this;
+        }
+
+        /**
+         * Sets the background of the text display.
+         *
+         * @param background Color - the color with alpha or null, to use the default background of the client.
+         * @return {@link Builder} - this builder.
+         * @since 1.0.3
+         */
+        public Builder background(Color background) {
+            this.background = background;
+            return this;
+        }
+
+        /**
+         * Sets if the text has a shadow.
+         *
+         * @param shadowed boolean - whatever the text is shadowed, false by default.
+         * @return {@link Builder} - this builder.
+         * @since 1.0.3
+         */
+        public Builder shadowed(boolean shadowed) {
+            this.shadowed = shadowed;
+            return this;
+        }
+
+        /**
+         * Sets if the text display is visible through blocks.
+         *
+         * @param seeThrough boolean - whatever the text is visible through blocks, false by default.
+         * @return {@link Builder} - this builder.
+         * @since 1.0.3
+         */
+        public Builder seeThrough(boolean seeThrough) {
+            this.seeThrough = seeThrough;
+            return this;
+        }
+
+        /**
+         * Sets the width in pixels, after which a line wraps.
+         *
+         * @param lineWidth int - the line width, 200 by default.
+         * @return {@link Builder} - this builder.
+         * @since 1.0.3
+         */
+        public Builder lineWidth(int lineWidth) {
+            if (lineWidth <= 0)
+                throw new IllegalArgumentException("Line width must be positive");
+            this.lineWidth = lineWidth;
+            return this;
+        }
+
+        /**
+         * Builds the style.
+         *
+         * @return {@link HologramStyle} - the style.
+         * @since 1.0.3
+         */
+        public HologramStyle build() {
+            return new HologramStyle(Type.TEXT_DISPLAY, billboard, scale, background, shadowed, seeThrough, lineWidth);
+        }
+    }
+}
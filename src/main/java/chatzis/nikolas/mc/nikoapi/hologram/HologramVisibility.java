@@ -0,0 +1,446 @@
+package chatzis.nikolas.mc.nikoapi.hologram;
+
+import chatzis.nikolas.mc.nikoapi.packet.sender.PacketSender;
+import chatzis.nikolas.mc.nikoapi.player.APIPlayer;
+import chatzis.nikolas.mc.nikoapi.player.ChunkViewTracker;
+import chatzis.nikolas.mc.nikoapi.util.IntHashSet;
+import chatzis.nikolas.mc.nikoapi.util.Utils;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Decides which of the shown holograms are spawned for a player.
+ * A hologram is shown with {@link APIPlayer#showHologram(APIHologram)}, but only spawned,
+ * while it is within the render distance of the player, so the client only keeps the entities nearby.
+ * <p>
+ * The player is tracked in cells of 8x8 blocks. When the player enters another cell, the spawned holograms are compared
+ * with the holograms in range and only the difference is sent at the start of the next tick,
+ * with the spawn and destroy packets, which every hologram shares between its viewers.
+ * Holograms are destroyed a cell beyond the render distance, so walking along the border does not respawn them.
+ * With a render distance of 0, a hologram is spawned while its chunk is loaded by the player.
+ * <p>
+ * Changed lines of holograms are collected during the tick and sent once at the start of the next tick,
+ * every player receives the changes of all its spawned holograms in a single bundle.
+ * <p>
+ * The visibility is only accessed by the main thread.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class HologramVisibility implements Listener {
+
+    /**
+     * The default render distance in blocks.
+     */
+    public static final double DEFAULT_RENDER_DISTANCE = 48;
+    private static final int CELL_SHIFT = 3;
+    private static final double HYSTERESIS = 1 << CELL_SHIFT;
+
+    private static final HologramVisibility instance = new HologramVisibility();
+
+    /**
+     * Get the instance of this class
+     *
+     * @return HologramVisibility - A instance of {@link HologramVisibility}
+     */
+    public static HologramVisibility getInstance() {
+        return instance;
+    }
+
+    private final Map<UUID, Viewer> viewers;
+    private final List<APIHologram> changedHolograms;
+    private double renderDistance;
+    private BukkitTask updateTask;
+
+    private HologramVisibility() {
+        this.viewers = new HashMap<>();
+        this.changedHolograms = new ArrayList<>();
+        this.renderDistance = DEFAULT_RENDER_DISTANCE;
+    }
+
+    /**
+     * Starts the task, which updates the spawned holograms every tick.
+     *
+     * @param plugin JavaPlugin - the plugin to run the task for.
+     * @since 1.0.3
+     */
+    public void start(JavaPlugin plugin) {
+        if (updateTask == null)
+            updateTask = Bukkit.getScheduler().runTaskTimer(plugin, this::update, 1L, 1L);
+    }
+
+    /**
+     * Stops the update task.
+     *
+     * @since 1.0.3
+     */
+    public void stop() {
+        if (updateTask != null) {
+            updateTask.cancel();
+            updateTask = null;
+        }
+    }
+
+    /**
+     * Sets the render distance of all players, which have no own render distance.
+     *
+     * @param renderDistance double - the distance in blocks, 0 to spawn the holograms of all loaded chunks.
+     * @since 1.0.3
+     */
+    public void setRenderDistance(double renderDistance) {
+        if (renderDistance < 0)
+            throw new IllegalArgumentException("Render distance must not be negative");
+        this.renderDistance = renderDistance;
+        viewers.values().forEach(viewer -> viewer.dirty = true);
+    }
+
+    /**
+     * Gets the render distance of all players, which have no own render distance.
+     *
+     * @return double - the distance in blocks, 0 if the holograms of all loaded chunks are spawned.
+     * @since 1.0.3
+     */
+    public double getRenderDistance() {
+        return renderDistance;
+    }
+
+    /**
+     * Sets the render distance of a player.
+     *
+     * @param apiPlayer      {@link APIPlayer} - the player.
+     * @param renderDistance double - the distance in blocks, 0 to spawn the holograms of all loaded chunks
+     *                       or -1 to use the default render distance.
+     * @since 1.0.3
+     */
+    public void setRenderDistance(APIPlayer apiPlayer, double renderDistance) {
+        if (renderDistance < -1)
+            throw new IllegalArgumentException("Render distance must be -1 or not negative");
+        Viewer viewer = getViewer(apiPlayer);
+        viewer.renderDistance = renderDistance;
+        viewer.dirty = true;
+    }
+
+    /**
+     * Gets the render distance of a player.
+     *
+     * @param player Player - the player.
+     * @return double - the distance in blocks, 0 if the holograms of all loaded chunks are spawned.
+     * @since 1.0.3
+     */
+    public double getRenderDistance(Player player) {
+        Viewer viewer = viewers.get(player.getUniqueId());
+        return viewer == null ? renderDistance : viewer.getRenderDistance();
+    }
+
+    /**
+     * Checks if a hologram is spawned for a player.
+     *
+     * @param player   Player - the player.
+     * @param hologram {@link APIHologram} - the hologram.
+     * @return boolean - whatever the entities of the hologram were sent to the player.
+     * @since 1.0.3
+     */
+    public boolean isSpawned(Player player, APIHologram hologram) {
+        Viewer viewer = viewers.get(player.getUniqueId());
+        return viewer != null && hologram.indexId >= 0 && viewer.spawned.contains(hologram.indexId);
+    }
+
+    /**
+     * Gets the number of holograms spawned for a player.
+     *
+     * @param player Player - the player.
+     * @return int - the spawned holograms.
+     * @since 1.0.3
+     */
+    public int getSpawnedCount(Player player) {
+        Viewer viewer = viewers.get(player.getUniqueId());
+        return viewer == null ? 0 : viewer.spawned.size();
+    }
+
+    /**
+     * Spawns a hologram, which was shown to the player, if it is visible.
+     * Called by {@link APIPlayer#showHologram(APIHologram)} after the hologram is indexed.
+     *
+     * @param apiPlayer {@link APIPlayer} - the player.
+     * @param hologram  {@link APIHologram} - the shown hologram.
+     * @since 1.0.3
+     */
+    public void show(APIPlayer apiPlayer, APIHologram hologram) {
+        Viewer viewer = getViewer(apiPlayer);
+        Player player = apiPlayer.getPlayer();
+        double distance = viewer.getRenderDistance();
+        boolean visible = distance == 0 ? player.getWorld().equals(hologram.getLocation().getWorld())
+                : isInRange(hologram, player.getLocation(), distance * distance);
+        if (visible && viewer.spawned.add(hologram.indexId))
+            PacketSender.getInstance().send(player, hologram.getSpawnPacket());
+    }
+
+    /**
+     * Destroys the holograms, which are hidden from the player, if they are spawned.
+     * Called by {@link APIPlayer} before the holograms are removed from the index.
+     *
+     * @param apiPlayer {@link APIPlayer} - the player.
+     * @param holograms Collection of {@link APIHologram} - the hidden holograms.
+     * @since 1.0.3
+     */
+    public void hide(APIPlayer apiPlayer, Collection<APIHologram> holograms) {
+        Viewer viewer = viewers.get(apiPlayer.getPlayer().getUniqueId());
+        if (viewer == null)
+            return;
+        List<Packet<?>> packets = new ArrayList<>();
+        for (APIHologram hologram : holograms) {
+            if (hologram.indexId >= 0 && viewer.spawned.remove(hologram.indexId))
+                packets.add(hologram.getDestroyPacket());
+        }
+        send(apiPlayer.getPlayer(), packets);
+    }
+
+    /**
+     * Forgets the holograms spawned for the player, because the client removed all entities.
+     * The visible holograms are spawned again in the next tick.
+     *
+     * @param player Player - the player.
+     * @since 1.0.3
+     */
+    public void resync(Player player) {
+        Viewer viewer = viewers.get(player.getUniqueId());
+        if (viewer == null)
+            return;
+        viewer.spawned.clear();
+        viewer.dirty = true;
+    }
+
+    /**
+     * Removes the player without sending packets.
+     *
+     * @param uuid UUID - the uuid of the player.
+     * @since 1.0.3
+     */
+    public void remove(UUID uuid) {
+        viewers.remove(uuid);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        resync(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        resync(event.getPlayer());
+    }
+
+    /**
+     * Spawns and destroys the holograms of the chunks, which the player loaded and unloaded.
+     * Only used for players with a render distance of 0, otherwise the chunks are ignored.
+     */
+    void chunksChanged(APIPlayer apiPlayer, long[] loaded, long[] unloaded) {
+        Viewer viewer = viewers.get(apiPlayer.getPlayer().getUniqueId());
+        if (viewer == null || viewer.getRenderDistance() != 0)
+            return;
+
+        HologramIndex index = HologramIndex.getInstance();
+        World world = apiPlayer.getPlayer().getWorld();
+        List<Packet<?>> packets = new ArrayList<>();
+        for (long chunkKey : loaded) {
+            for (APIHologram hologram : index.getHolograms(world, chunkKey)) {
+                if (apiPlayer.isShowingHologram(hologram) && viewer.spawned.add(hologram.indexId))
+                    packets.add(hologram.getSpawnPacket());
+            }
+        }
+        for (long chunkKey : unloaded) {
+            for (APIHologram hologram : index.getHolograms(world, chunkKey)) {
+                if (apiPlayer.isShowingHologram(hologram) && viewer.spawned.remove(hologram.indexId))
+                    packets.add(hologram.getDestroyPacket());
+            }
+        }
+        send(apiPlayer.getPlayer(), packets);
+    }
+
+    /**
+     * Remembers a hologram, whose lines changed, so the changes of a tick are sent at once.
+     */
+    void linesChanged(APIHologram hologram) {
+        changedHolograms.add(hologram);
+    }
+
+    /**
+     * Sends the changes of the holograms, whose lines changed in this tick,
+     * as one bundle to every player, for whom at least one of them is spawned.
+     */
+    private void sendChanges() {
+        if (changedHolograms.isEmpty())
+            return;
+
+        int count = changedHolograms.size();
+        int[] ids = new int[count];
+        List<List<Packet<ClientGamePacketListener>>> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            APIHologram hologram = changedHolograms.get(i);
+            changes.add(hologram.applyLines());
+            ids[i] = hologram.indexId;
+        }
+        changedHolograms.clear();
+
+        for (Viewer viewer : viewers.values()) {
+            if (viewer.spawned.isEmpty())
+                continue;
+            List<Packet<ClientGamePacketListener>> packets = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                if (ids[i] >= 0 && viewer.spawned.contains(ids[i]))
+                    packets.addAll(changes.get(i));
+            }
+            PacketSender.getInstance().sendBundle(Utils.getChannel(viewer.apiPlayer.getPlayer()), packets);
+        }
+    }
+
+    /**
+     * Sends the changed lines and checks every player, which sees holograms, and refreshes it, if it entered another cell.
+     */
+    private void update() {
+        sendChanges();
+        for (Viewer viewer : viewers.values()) {
+            if (viewer.spawned.isEmpty() && viewer.apiPlayer.getShownHologramCount() == 0)
+                continue;
+
+            Location location = viewer.apiPlayer.getPlayer().getLocation();
+            UUID world = location.getWorld().getUID();
+            int cellX = location.getBlockX() >> CELL_SHIFT;
+            int cellZ = location.getBlockZ() >> CELL_SHIFT;
+            boolean moved = cellX != viewer.cellX || cellZ != viewer.cellZ || !world.equals(viewer.world);
+            if (!viewer.dirty && (!moved || viewer.getRenderDistance() == 0))
+                continue;
+
+            viewer.cellX = cellX;
+            viewer.cellZ = cellZ;
+            viewer.world = world;
+            viewer.dirty = false;
+            refresh(viewer, location);
+        }
+    }
+
+    /**
+     * Destroys the spawned holograms, which are not visible anymore, and spawns the visible ones, which are missing.
+     * If the player sees fewer holograms than chunks are in range, the shown holograms are checked,
+     * otherwise the chunks in range are looked up in the {@link HologramIndex}.
+     */
+    private void refresh(Viewer viewer, Location location) {
+        APIPlayer apiPlayer = viewer.apiPlayer;
+        Player player = apiPlayer.getPlayer();
+        double distance = viewer.getRenderDistance();
+        HologramIndex index = HologramIndex.getInstance();
+
+        double maxSquared = (distance + HYSTERESIS) * (distance + HYSTERESIS);
+        List<Packet<?>> packets = new ArrayList<>();
+        List<APIHologram> destroyed = new ArrayList<>();
+        viewer.spawned.forEach(id -> {
+            APIHologram hologram = index.get(id);
+            if (!isVisible(player, hologram, location, distance, maxSquared))
+                destroyed.add(hologram);
+        });
+        for (APIHologram hologram : destroyed) {
+            viewer.spawned.remove(hologram.indexId);
+            packets.add(hologram.getDestroyPacket());
+        }
+
+        double rangeSquared = distance * distance;
+        if (distance == 0 || apiPlayer.getShownHologramCount() <= getChunkCount(distance)) {
+            apiPlayer.forEachShownHologram(hologram -> {
+                if (!viewer.spawned.contains(hologram.indexId) && isVisible(player, hologram, location, distance, rangeSquared)) {
+                    viewer.spawned.add(hologram.indexId);
+                    packets.add(hologram.getSpawnPacket());
+                }
+            });
+        } else {
+            int minX = (int) Math.floor(location.getX() - distance) >> 4;
+            int maxX = (int) Math.floor(location.getX() + distance) >> 4;
+            int minZ = (int) Math.floor(location.getZ() - distance) >> 4;
+            int maxZ = (int) Math.floor(location.getZ() + distance) >> 4;
+            for (int chunkX = minX; chunkX <= maxX; chunkX++) {
+                for (int chunkZ = minZ; chunkZ <= maxZ; chunkZ++) {
+                    for (APIHologram hologram : index.getHolograms(location.getWorld(), Utils.getChunkKey(chunkX, chunkZ))) {
+                        if (apiPlayer.isShowingHologram(hologram) && !viewer.spawned.contains(hologram.indexId)
+                                && isInRange(hologram, location, rangeSquared)) {
+                            viewer.spawned.add(hologram.indexId);
+                            packets.add(hologram.getSpawnPacket());
+                        }
+                    }
+                }
+            }
+        }
+        send(player, packets);
+    }
+
+    private Viewer getViewer(APIPlayer apiPlayer) {
+        return viewers.computeIfAbsent(apiPlayer.getPlayer().getUniqueId(), uuid -> new Viewer(apiPlayer));
+    }
+
+    private static boolean isVisible(Player player, APIHologram hologram, Location location, double distance, double maxSquared) {
+        if (distance == 0)
+            return player.getWorld().equals(hologram.getLocation().getWorld())
+                    && ChunkViewTracker.getInstance().isChunkVisible(player, hologram.getChunkKey());
+        return isInRange(hologram, location, maxSquared);
+    }
+
+    private static boolean isInRange(APIHologram hologram, Location location, double maxSquared) {
+        Location hologramLocation = hologram.getLocation();
+        if (!location.getWorld().equals(hologramLocation.getWorld()))
+            return false;
+        double x = hologramLocation.getX() - location.getX();
+        double z = hologramLocation.getZ() - location.getZ();
+        return x * x + z * z <= maxSquared;
+    }
+
+    private static int getChunkCount(double distance) {
+        int chunks = ((int) Math.ceil(distance) >> 4) * 2 + 2;
+        return chunks * chunks;
+    }
+
+    private static void send(Player player, List<Packet<?>> packets) {
+        if (!packets.isEmpty())
+            PacketSender.getInstance().send(player, packets.toArray(new Packet<?>[0]));
+    }
+
+    /**
+     * The holograms spawned for a player and the cell, in which they were computed.
+     */
+    private final class Viewer {
+
+        private final APIPlayer apiPlayer;
+        private final IntHashSet spawned;
+        private UUID world;
+        private int cellX;
+        private int cellZ;
+        private double renderDistance;
+        private boolean dirty;
+
+        private Viewer(APIPlayer apiPlayer) {
+            this.apiPlayer = apiPlayer;
+            this.spawned = new IntHashSet();
+            this.renderDistance = -1;
+            this.dirty = true;
+        }
+
+        private double getRenderDistance() {
+            return renderDistance < 0 ? HologramVisibility.this.renderDistance : renderDistance;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package chatzis.nikolas.mc.nikoapi.hologram;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
+import net.minecraft.network.syncher.EntityDataSerializers;
+import net.minecraft.network.syncher.SynchedEntityData;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.phys.Vec3;
+import org.bukkit.Location;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Renders all lines of a hologram with a single text display, the lines are joined with line breaks.
+ * Changed lines only resend the text, the entity stays the same.
+ * The entity only exists on the client, no entity or level is created on the server:
+ * its id is allocated by {@link EntityIds} and its data is sent with the entity data indices of 1.20.1,
+ * so the setters of the display, which are not accessible, are not needed.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class TextDisplayRenderer implements HologramRenderer {
+
+    // The name of the lowest armor stand is shown half a block above the location of the hologram
+    private static final double NAME_TAG_OFFSET = 0.5;
+
+    private static final int DATA_SCALE = 11;
+    private static final int DATA_BILLBOARD = 14;
+    private static final int DATA_TEXT = 22;
+    private static final int DATA_LINE_WIDTH = 23;
+    private static final int DATA_BACKGROUND = 24;
+    private static final int DATA_STYLE_FLAGS = 26;
+
+    private static final byte FLAG_SHADOW = 0x01;
+    private static final byte FLAG_SEE_THROUGH = 0x02;
+
+    private final int entityId;
+    private final UUID uuid;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final HologramStyle style;
+    private final List<String> lines;
+    private Component text;
+
+    /**
+     * Creates the text display for the lines.
+     *
+     * @param spawnLocation Location - the location of the hologram.
+     * @param lines         List<String> - the lines.
+     * @param style         {@link HologramStyle} - the style of the text display.
+     */
+    TextDisplayRenderer(Location spawnLocation, List<String> lines, HologramStyle style) {
+        this.entityId = EntityIds.next();
+        this.uuid = UUID.randomUUID();
+        this.x = spawnLocation.getX();
+        this.y = spawnLocation.getY() + NAME_TAG_OFFSET;
+        this.z = spawnLocation.getZ();
+        this.style = style;
+        this.lines = new ArrayList<>(lines);
+        this.text = joinLines(lines);
+    }
+
+    @Override
+    public void addSpawnPackets(List<Packet<ClientGamePacketListener>> packets) {
+        packets.add(new ClientboundAddEntityPacket(entityId, uuid, x, y, z, 0F, 0F, EntityType.TEXT_DISPLAY, 0, Vec3.ZERO, 0D));
+        packets.add(new ClientboundSetEntityDataPacket(entityId, getEntityData()));
+    }
+
+    @Override
+    public int[] getEntityIds() {
+        return new int[]{entityId};
+    }
+
+    @Override
+    public boolean update(List<String> lines, List<Packet<ClientGamePacketListener>> packets) {
+        if (lines.equals(this.lines))
+            return false;
+        this.lines.clear();
+        this.lines.addAll(lines);
+        this.text = joinLines(lines);
+        packets.add(new ClientboundSetEntityDataPacket(entityId,
+                List.of(new SynchedEntityData.DataValue<>(DATA_TEXT, EntityDataSerializers.COMPONENT, text))));
+        return false;
+    }
+
+    private List<SynchedEntityData.DataValue<?>> getEntityData() {
+        List<SynchedEntityData.DataValue<?>> values = new ArrayList<>();
+        if (style.getScale() != 1F) {
+            float scale = style.getScale();
+            values.add(new SynchedEntityData.DataValue<>(DATA_SCALE, EntityDataSerializers.VECTOR3, new Vector3f(scale, scale, scale)));
+        }
+        // The billboards of bukkit are declared in the order of their ids
+        values.add(new SynchedEntityData.DataValue<>(DATA_BILLBOARD, EntityDataSerializers.BYTE, (byte) style.getBillboard().ordinal()));
+        values.add(new SynchedEntityData.DataValue<>(DATA_TEXT, EntityDataSerializers.COMPONENT, text));
+        if (style.getLineWidth() != 200)
+            values.add(new SynchedEntityData.DataValue<>(DATA_LINE_WIDTH, EntityDataSerializers.INT, style.getLineWidth()));
+        if (style.getBackground() != null)
+            values.add(new SynchedEntityData.DataValue<>(DATA_BACKGROUND, EntityDataSerializers.INT, style.getBackground().asARGB()));
+
+        byte flags = 0;
+        if (style.isShadowed())
+            flags |= FLAG_SHADOW;
+        if (style.isSeeThrough())
+            flags |= FLAG_SEE_THROUGH;
+        if (flags != 0)
+            values.add(new SynchedEntityData.DataValue<>(DATA_STYLE_FLAGS, EntityDataSerializers.BYTE, flags));
+        return values;
+    }
+
+    private static Component joinLines(List<String> lines) {
+        MutableComponent text = Component.empty();
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0)
+                text.append("\n");
+            text.append(Component.literal(lines.get(i)));
+        }
+        return text;
+    }
+}
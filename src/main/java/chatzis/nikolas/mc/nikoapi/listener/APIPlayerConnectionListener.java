@@ -1,6 +1,11 @@
 package chatzis.nikolas.mc.nikoapi.listener;
 
 import chatzis.nikolas.mc.nikoapi.NikoAPI;
+import chatzis.nikolas.mc.nikoapi.packet.chunk.ChunkSubstitutions;
+import chatzis.nikolas.mc.nikoapi.packet.limiter.PacketRateLimiter;
+import chatzis.nikolas.mc.nikoapi.packet.metrics.PacketMetrics;
+import chatzis.nikolas.mc.nikoapi.packet.reader.APIListenerManager;
+import chatzis.nikolas.mc.nikoapi.player.ChunkViewTracker;
 import chatzis.nikolas.mc.nikoapi.player.PlayerPacketReader;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -25,6 +30,21 @@ public class APIPlayerConnectionListener implements Listener {
     @EventHandler(priority = EventPriority.LOWEST)
     public void onLogin(PlayerLoginEvent event) {
         NikoAPI.getInstance().getPlayerHandler().addPlayer(event.getPlayer());
+        if (PlayerPacketReader.isEnabled())
+            PlayerPacketReader.bind(event.getPlayer());
+    }
+
+    /**
+     * Releases the pending binding of a player, whose login was disallowed, because no quit follows.
+     *
+     * @param event PlayerLoginEvent - the login event.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLoginResult(PlayerLoginEvent event) {
+        if (event.getResult() == PlayerLoginEvent.Result.ALLOWED)
+            return;
+        PlayerPacketReader.uninject(event.getPlayer());
+        ChunkViewTracker.getInstance().remove(event.getPlayer().getUniqueId());
     }
 
     @EventHandler
@@ -41,6 +61,11 @@ public class APIPlayerConnectionListener implements Listener {
     @EventHandler(priority = EventPriority.LOWEST)
     public void onLogout(PlayerQuitEvent event) {
         PlayerPacketReader.uninject(event.getPlayer());
+        APIListenerManager.getInstance().getAsyncExecutor().remove(event.getPlayer().getUniqueId());
+        PacketMetrics.getInstance().remove(event.getPlayer().getUniqueId());
+        PacketRateLimiter.getInstance().remove(event.getPlayer().getUniqueId());
+        ChunkViewTracker.getInstance().remove(event.getPlayer().getUniqueId());
+        ChunkSubstitutions.getInstance().remove(event.getPlayer().getUniqueId());
         NikoAPI.getInstance().getPlayerHandler().removePlayer(event.getPlayer().getUniqueId());
     }
 
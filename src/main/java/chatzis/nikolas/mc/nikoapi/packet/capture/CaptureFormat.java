@@ -0,0 +1,37 @@
+package chatzis.nikolas.mc.nikoapi.packet.capture;
+
+/**
+ * Layout of the capture segment files.
+ * <p>
+ * A segment starts with a header of {@value #HEADER_SIZE} bytes:
+ * magic, version, the start of the capture in nanoseconds since the epoch and the name of the player.
+ * It is followed by the records, every record has a header of {@value #RECORD_HEADER_SIZE} bytes:
+ * length of the frame, nanoseconds since the start of the capture, direction, protocol id and flags.
+ * The segment ends with a record length of zero.
+ * <p>
+ * The frames are stored without the length prefix, compressed if the connection is compressed and unencrypted.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class CaptureFormat {
+
+    static final int MAGIC = 0x4E4B4350; // NKCP
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int MAX_NAME_LENGTH = HEADER_SIZE - 18;
+    static final int RECORD_HEADER_SIZE = 15;
+    static final String SEGMENT_SUFFIX = ".nkcap";
+
+    static final byte INBOUND = 0;
+    static final byte OUTBOUND = 1;
+    static final byte FLAG_COMPRESSED = 1;
+
+    private CaptureFormat() {
+        throw new UnsupportedOperationException("This is a util class.");
+    }
+
+    static String segmentName(int index) {
+        return String.format("segment-%05d%s", index, SEGMENT_SUFFIX);
+    }
+}
@@ -0,0 +1,179 @@
+package chatzis.nikolas.mc.nikoapi.packet.capture;
+
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketDirection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the frames of a capture written by the {@link PacketCapture} in order.
+ * The segments of the capture are mapped one after another.
+ *
+ * <pre>
+ * try (CaptureReader reader = new CaptureReader(directory)) {
+ *     while (reader.next())
+ *         handle(reader.getDirection(), reader.getFrame());
+ * }
+ * </pre>
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public class CaptureReader implements Closeable {
+
+    private final Path directory;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private String name;
+    private long startEpochNanos;
+
+    private long timestamp;
+    private PacketDirection direction;
+    private int protocolId;
+    private boolean compressed;
+    private ByteBuffer frame;
+
+    /**
+     * Opens the capture.
+     *
+     * @param directory Path - the directory of the capture.
+     * @throws IOException if the first segment could not be read.
+     * @since 1.0.3
+     */
+    public CaptureReader(Path directory) throws IOException {
+        this.directory = directory;
+        if (!open(0))
+            throw new IOException("No capture segment found in " + directory);
+    }
+
+    /**
+     * Moves to the next frame.
+     *
+     * @return boolean - whatever a frame was read.
+     * @throws IOException if the next segment could not be read.
+     * @since 1.0.3
+     */
+    public boolean next() throws IOException {
+        while (segment != null) {
+            if (segment.remaining() >= Integer.BYTES) {
+                int length = segment.getInt();
+                if (length > 0) {
+                    timestamp = segment.getLong();
+                    direction = segment.get() == CaptureFormat.INBOUND ? PacketDirection.INBOUND : PacketDirection.OUTBOUND;
+                    protocolId = segment.get();
+                    compressed = (segment.get() & CaptureFormat.FLAG_COMPRESSED) != 0;
+                    frame = segment.slice(segment.position(), length);
+                    segment.position(segment.position() + length);
+                    return true;
+                }
+            }
+            if (!open(segmentIndex + 1))
+                segment = null;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the name of the captured player.
+     *
+     * @return String - the name.
+     * @since 1.0.3
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the start of the capture.
+     *
+     * @return long - nanoseconds since the epoch.
+     * @since 1.0.3
+     */
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    /**
+     * Gets the time of the current frame.
+     *
+     * @return long - nanoseconds since the start of the capture.
+     * @since 1.0.3
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the direction of the current frame.
+     *
+     * @return {@link PacketDirection} - the direction.
+     * @since 1.0.3
+     */
+    public PacketDirection getDirection() {
+        return direction;
+    }
+
+    /**
+     * Gets the id of the connection protocol the current frame was sent in.
+     *
+     * @return int - the protocol id.
+     * @since 1.0.3
+     */
+    public int getProtocolId() {
+        return protocolId;
+    }
+
+    /**
+     * Gets if the current frame is in the compressed format.
+     *
+     * @return boolean - whatever the connection was compressed.
+     * @since 1.0.3
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Gets the current frame without the length prefix.
+     * The buffer is a view of the mapped segment and only valid until the reader is closed.
+     *
+     * @return ByteBuffer - the frame.
+     * @since 1.0.3
+     */
+    public ByteBuffer getFrame() {
+        return frame;
+    }
+
+    @Override
+    public void close() {
+        segment = null;
+        frame = null;
+    }
+
+    private boolean open(int index) throws IOException {
+        Path file = directory.resolve(CaptureFormat.segmentName(index));
+        if (!Files.exists(file))
+            return false;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != CaptureFormat.MAGIC || buffer.getInt() != CaptureFormat.VERSION)
+                throw new IOException("Not a capture segment: " + file);
+            this.startEpochNanos = buffer.getLong();
+            byte[] nameBytes = new byte[buffer.getShort()];
+            buffer.get(nameBytes);
+            this.name = new String(nameBytes, StandardCharsets.UTF_8);
+            buffer.position(CaptureFormat.HEADER_SIZE);
+            this.segment = buffer;
+            this.segmentIndex = index;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package chatzis.nikolas.mc.nikoapi.packet.capture;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Appends the frames of one connection to memory-mapped segment files.
+ * A writer is only used by the event loop of its connection, so it is not synchronized.
+ * The frames are copied from the netty buffer into the mapping without allocating.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class CaptureWriter {
+
+    private static final Logger LOG = Logger.getLogger(CaptureWriter.class.getSimpleName());
+
+    private final Path directory;
+    private final String name;
+    private final int segmentSize;
+    private final long startEpochNanos;
+    private final long startNanoTime;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private long frames;
+    private long droppedFrames;
+    private boolean closed;
+
+    CaptureWriter(Path directory, String name, int segmentSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.startEpochNanos = System.currentTimeMillis() * 1_000_000L;
+        this.startNanoTime = System.nanoTime();
+        this.segment = map(segmentIndex);
+    }
+
+    /**
+     * Appends a frame.
+     *
+     * @param direction byte - {@link CaptureFormat#INBOUND} or {@link CaptureFormat#OUTBOUND}.
+     * @param protocol  int - the id of the connection protocol.
+     * @param flags     byte - the flags of the frame.
+     * @param frame     ByteBuf - the frame.
+     * @param index     int - the index of the frame in the buffer.
+     * @param length    int - the length of the frame.
+     */
+    void write(byte direction, int protocol, byte flags, ByteBuf frame, int index, int length) {
+        if (closed || length <= 0) return;
+
+        int required = CaptureFormat.RECORD_HEADER_SIZE + length + Integer.BYTES;
+        if (required > segmentSize - CaptureFormat.HEADER_SIZE) {
+            droppedFrames++;
+            return;
+        }
+        if (segment.remaining() < required && !roll())
+            return;
+
+        segment.putInt(length);
+        segment.putLong(System.nanoTime() - startNanoTime);
+        segment.put(direction);
+        segment.put((byte) protocol);
+        segment.put(flags);
+
+        int limit = segment.limit();
+        segment.limit(segment.position() + length);
+        frame.getBytes(index, segment);
+        segment.limit(limit);
+        frames++;
+    }
+
+    long getFrames() {
+        return frames;
+    }
+
+    long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Writes the end mark and flushes the mapping.
+     */
+    void close() {
+        if (closed) return;
+        closed = true;
+        finish();
+    }
+
+    private boolean roll() {
+        finish();
+        try {
+            segment = map(++segmentIndex);
+            return true;
+        } catch (IOException exception) {
+            LOG.log(Level.WARNING, "Could not create capture segment of {0}: {1}", new String[]{name, exception.getMessage()});
+            closed = true;
+            return false;
+        }
+    }
+
+    private void finish() {
+        if (segment.remaining() >= Integer.BYTES)
+            segment.putInt(0);
+        segment.force();
+    }
+
+    private MappedByteBuffer map(int index) throws IOException {
+        Path file = directory.resolve(CaptureFormat.segmentName(index));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            int nameLength = Math.min(nameBytes.length, CaptureFormat.MAX_NAME_LENGTH);
+            buffer.putInt(CaptureFormat.MAGIC);
+            buffer.putInt(CaptureFormat.VERSION);
+            buffer.putLong(startEpochNanos);
+            buffer.putShort((short) nameLength);
+            buffer.put(nameBytes, 0, nameLength);
+            buffer.position(CaptureFormat.HEADER_SIZE);
+            return buffer;
+        }
+    }
+}
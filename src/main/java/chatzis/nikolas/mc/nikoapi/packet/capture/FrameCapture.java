@@ -0,0 +1,100 @@
+package chatzis.nikolas.mc.nikoapi.packet.capture;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import net.minecraft.network.Connection;
+import net.minecraft.network.ConnectionProtocol;
+
+/**
+ * The handlers, which capture the frames of a connection.
+ * The inbound handler sits behind the splitter and the outbound handler behind the prepender,
+ * because the vanilla connection adds the cipher in front of and the compression behind those handlers.
+ * So both handlers see whole frames without the length prefix, compressed and unencrypted.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class FrameCapture {
+
+    static final String INBOUND_NAME = "nikoapi_capture_in";
+    static final String OUTBOUND_NAME = "nikoapi_capture_out";
+    private static final String SPLITTER = "splitter";
+    private static final String PREPENDER = "prepender";
+    private static final String DECOMPRESS = "decompress";
+    private static final String COMPRESS = "compress";
+
+    private FrameCapture() {
+        throw new UnsupportedOperationException("This is a util class.");
+    }
+
+    /**
+     * Adds the handlers to the channel, has to be called on the event loop of the channel.
+     *
+     * @return boolean - whatever the handlers were added.
+     */
+    static boolean install(Channel channel, CaptureWriter writer) {
+        ChannelPipeline pipeline = channel.pipeline();
+        if (pipeline.get(SPLITTER) == null || pipeline.get(PREPENDER) == null || pipeline.get(INBOUND_NAME) != null)
+            return false;
+        pipeline.addAfter(SPLITTER, INBOUND_NAME, new Inbound(writer));
+        pipeline.addAfter(PREPENDER, OUTBOUND_NAME, new Outbound(writer));
+        return true;
+    }
+
+    /**
+     * Removes the handlers from the channel, has to be called on the event loop of the channel.
+     */
+    static void uninstall(Channel channel) {
+        ChannelPipeline pipeline = channel.pipeline();
+        if (pipeline.get(INBOUND_NAME) != null)
+            pipeline.remove(INBOUND_NAME);
+        if (pipeline.get(OUTBOUND_NAME) != null)
+            pipeline.remove(OUTBOUND_NAME);
+    }
+
+    private static int getProtocolId(Channel channel) {
+        ConnectionProtocol protocol = channel.attr(Connection.ATTRIBUTE_PROTOCOL).get();
+        return protocol == null ? ConnectionProtocol.HANDSHAKING.getId() : protocol.getId();
+    }
+
+    private static final class Inbound extends ChannelInboundHandlerAdapter {
+
+        private final CaptureWriter writer;
+
+        private Inbound(CaptureWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (msg instanceof ByteBuf buf) {
+                byte flags = ctx.pipeline().get(DECOMPRESS) != null ? CaptureFormat.FLAG_COMPRESSED : 0;
+                writer.write(CaptureFormat.INBOUND, getProtocolId(ctx.channel()), flags, buf, buf.readerIndex(), buf.readableBytes());
+            }
+            super.channelRead(ctx, msg);
+        }
+    }
+
+    private static final class Outbound extends ChannelOutboundHandlerAdapter {
+
+        private final CaptureWriter writer;
+
+        private Outbound(CaptureWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (msg instanceof ByteBuf buf) {
+                byte flags = ctx.pipeline().get(COMPRESS) != null ? CaptureFormat.FLAG_COMPRESSED : 0;
+                writer.write(CaptureFormat.OUTBOUND, getProtocolId(ctx.channel()), flags, buf, buf.readerIndex(), buf.readableBytes());
+            }
+            super.write(ctx, msg, promise);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package chatzis.nikolas.mc.nikoapi.packet.capture;
+
+import chatzis.nikolas.mc.nikoapi.util.Utils;
+import io.netty.channel.Channel;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Captures the raw frames of selected connections into memory-mapped segment files.
+ * A capture is either started for an online player or selected by name, so it starts with the login of the player.
+ * Every capture is written into an own directory, which can be read with the {@link CaptureReader}
+ * and replayed by the replay tool of the benchmarks.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public class PacketCapture {
+
+    private static final Logger LOG = Logger.getLogger(PacketCapture.class.getSimpleName());
+    private static final DateTimeFormatter DIRECTORY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    // The name is sent by the client, so everything outside of valid player names is replaced
+    private static final Pattern UNSAFE_NAME_CHARS = Pattern.compile("[^A-Za-z0-9_]");
+    private static final int MAX_DIRECTORY_NAME_LENGTH = 16;
+    private static final PacketCapture instance = new PacketCapture();
+
+    /**
+     * Get the instance of this class
+     *
+     * @return PacketCapture - A instance of {@link PacketCapture}
+     */
+    public static PacketCapture getInstance() {
+        return instance;
+    }
+
+    private final Map<Channel, CaptureWriter> captures;
+    private final Set<String> selectedNames;
+    private volatile boolean captureAll;
+    private volatile Path directory;
+    private volatile int segmentSize;
+
+    private PacketCapture() {
+        this.captures = new ConcurrentHashMap<>();
+        this.selectedNames = ConcurrentHashMap.newKeySet();
+        this.directory = Paths.get("captures");
+        this.segmentSize = 64 * 1024 * 1024;
+    }
+
+    /**
+     * Sets the directory, the captures are written to.
+     *
+     * @param directory Path - the directory.
+     * @since 1.0.3
+     */
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the directory, the captures are written to.
+     *
+     * @return Path - the directory.
+     * @since 1.0.3
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets the size of a segment file.
+     * Frames larger than a segment are not captured.
+     *
+     * @param segmentSize int - the size in bytes.
+     * @since 1.0.3
+     */
+    public void setSegmentSize(int segmentSize) {
+        if (segmentSize < 1024 * 1024)
+            throw new IllegalArgumentException("A segment must have at least 1 MiB");
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Gets the size of a segment file.
+     *
+     * @return int - the size in bytes.
+     * @since 1.0.3
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Selects a player, whose connection is captured from the next login on.
+     *
+     * @param name String - the name of the player.
+     * @since 1.0.3
+     */
+    public void select(String name) {
+        selectedNames.add(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Removes the selection of a player, a running capture is not stopped.
+     *
+     * @param name String - the name of the player.
+     * @since 1.0.3
+     */
+    public void deselect(String name) {
+        selectedNames.remove(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Captures the connection of every player, who logs in.
+     *
+     * @param captureAll boolean - whatever every login is captured.
+     * @since 1.0.3
+     */
+    public void setCaptureAll(boolean captureAll) {
+        this.captureAll = captureAll;
+    }
+
+    /**
+     * Starts the capture of an online player.
+     *
+     * @param player Player - the player.
+     * @return boolean - whatever the capture was started.
+     * @since 1.0.3
+     */
+    public boolean start(Player player) {
+        Channel channel = Utils.getChannel(player);
+        return channel != null && start(channel, player.getName());
+    }
+
+    /**
+     * Stops the capture of a player.
+     *
+     * @param player Player - the player.
+     * @since 1.0.3
+     */
+    public void stop(Player player) {
+        Channel channel = Utils.getChannel(player);
+        if (channel != null)
+            stop(channel);
+    }
+
+    /**
+     * Stops every capture.
+     *
+     * @since 1.0.3
+     */
+    public void stopAll() {
+        captures.keySet().forEach(this::stop);
+    }
+
+    /**
+     * Checks if the connection of a player is captured.
+     *
+     * @param player Player - the player.
+     * @return boolean - whatever the player is captured.
+     * @since 1.0.3
+     */
+    public boolean isCapturing(Player player) {
+        Channel channel = Utils.getChannel(player);
+        return channel != null && captures.containsKey(channel);
+    }
+
+    /**
+     * Starts the capture of a connection, which started the login, if the player is selected.
+     * Called by the packet reader on the event loop of the channel.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @param name    String - the name of the player.
+     * @since 1.0.3
+     */
+    public void loginStarted(Channel channel, String name) {
+        if (captureAll || (!selectedNames.isEmpty() && selectedNames.contains(name.toLowerCase(Locale.ROOT))))
+            start(channel, name);
+    }
+
+    private boolean start(Channel channel, String name) {
+        if (captures.containsKey(channel))
+            return false;
+
+        String safeName = UNSAFE_NAME_CHARS.matcher(name).replaceAll("_");
+        if (safeName.length() > MAX_DIRECTORY_NAME_LENGTH)
+            safeName = safeName.substring(0, MAX_DIRECTORY_NAME_LENGTH);
+
+        CaptureWriter writer;
+        try {
+            writer = new CaptureWriter(directory.resolve(safeName + "-" + LocalDateTime.now().format(DIRECTORY_FORMAT) + "-" + channel.id().asShortText()),
+                    name, segmentSize);
+        } catch (IOException exception) {
+            LOG.log(Level.WARNING, "Could not start capture of {0}: {1}", new String[]{name, exception.getMessage()});
+            return false;
+        }
+
+        captures.put(channel, writer);
+        channel.closeFuture().addListener(future -> stop(channel));
+        channel.eventLoop().execute(() -> {
+            if (!FrameCapture.install(channel, writer)) {
+                LOG.log(Level.WARNING, "Could not start capture of {0}: the pipeline has no frame handlers", name);
+                stop(channel);
+            }
+        });
+        return true;
+    }
+
+    private void stop(Channel channel) {
+        CaptureWriter writer = captures.remove(channel);
+        if (writer == null)
+            return;
+
+        channel.eventLoop().execute(() -> {
+            FrameCapture.uninstall(channel);
+            writer.close();
+            LOG.log(Level.INFO, "Stopped capture with {0} frames, {1} dropped",
+                    new Object[]{writer.getFrames(), writer.getDroppedFrames()});
+        });
+    }
+}
@@ -0,0 +1,223 @@
+package chatzis.nikolas.mc.nikoapi.packet.chunk;
+
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.craftbukkit.v1_20_R1.block.data.CraftBlockData;
+import org.bukkit.craftbukkit.v1_20_R1.util.CraftMagicNumbers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable set of rules, which replace block states in the chunks sent to a player.
+ * Every rule replaces block states in an optional range of heights and chunks,
+ * if several rules match a block, the first one wins.
+ * <p>
+ * Players, which have the same instance, share the rewritten chunks, so a rule set should be reused,
+ * e.g. one instance per team, see {@link ChunkSubstitutions}.
+ *
+ * <pre>{@code
+ * BlockSubstitution hiddenOres = BlockSubstitution.builder()
+ *         .replace(Material.DIAMOND_ORE, Material.STONE)
+ *         .replace(Material.DEEPSLATE_DIAMOND_ORE, Material.DEEPSLATE)
+ *         .between(-64, 16)
+ *         .build();
+ * }</pre>
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class BlockSubstitution {
+
+    /**
+     * Creates a builder for a rule set.
+     *
+     * @return {@link Builder} - the builder with an empty first rule.
+     * @since 1.0.3
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final Rule[] rules;
+
+    private BlockSubstitution(Rule[] rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Checks if a rule applies to the section.
+     */
+    boolean affects(int chunkX, int sectionY, int chunkZ) {
+        for (Rule rule : rules) {
+            if (rule.applies(chunkX, sectionY, chunkZ))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the replacement of a block state in the section.
+     *
+     * @return int - the id of the replacement or the id itself, if no rule replaces it.
+     */
+    int remap(int chunkX, int sectionY, int chunkZ, int stateId) {
+        for (Rule rule : rules) {
+            if (stateId < rule.replacements.length && rule.replacements[stateId] != stateId
+                    && rule.applies(chunkX, sectionY, chunkZ))
+                return rule.replacements[stateId];
+        }
+        return stateId;
+    }
+
+    /**
+     * A rule with its replacements by block state id.
+     */
+    private record Rule(int[] replacements, int minSectionY, int maxSectionY,
+                        int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+
+        private boolean applies(int chunkX, int sectionY, int chunkZ) {
+            return sectionY >= minSectionY && sectionY <= maxSectionY
+                    && chunkX >= minChunkX && chunkX <= maxChunkX && chunkZ >= minChunkZ && chunkZ <= maxChunkZ;
+        }
+    }
+
+    /**
+     * Builder of a {@link BlockSubstitution}.
+     * The replacements and bounds apply to the current rule, {@link #then()} starts the next one.
+     *
+     * @author Niko
+     * @since 1.0.3
+     */
+    public static final class Builder {
+
+        private final List<Rule> rules;
+        private int[] replacements;
+        private int minSectionY;
+        private int maxSectionY;
+        private int minChunkX;
+        private int minChunkZ;
+        private int maxChunkX;
+        private int maxChunkZ;
+
+        private Builder() {
+            this.rules = new ArrayList<>();
+            reset();
+        }
+
+        /**
+         * Replaces every state of a block with the default state of another block.
+         *
+         * @param from Material - the block to replace.
+         * @param to   Material - the replacement.
+         * @return {@link Builder} - this builder.
+         * @since 1.0.3
+         */
+        public Builder replace(Material from, Material to) {
+            BlockState replacement = getBlock(to).defaultBlockState();
+            for (BlockState state : getBlock(from).getStateDefinition().getPossibleStates())
+                put(state, replacement);
+            return this;
+        }
+
+        /**
+         * Replaces a block state with another one.
+         *
+         * @param from BlockData - the state to replace.
+         * @param to   BlockData - the replacement.
+         * @return {@link Builder} - this builder.
+         * @since 1.0.3
+         */
+        public Builder replace(BlockData from, BlockData to) {
+            put(((CraftBlockData) from).getState(), ((CraftBlockData) to).getState());
+            return this;
+        }
+
+        /**
+         * Limits the current rule to the sections between the heights.
+         * The rule applies to whole sections, so the heights are rounded to multiples of 16.
+         *
+         * @param minY int - the lowest block height.
+         * @param maxY int - the highest block height.
+         * @return {@link Builder} - this builder.
+         * @since 1.0.3
+         */
+        public Builder between(int minY, int maxY) {
+            this.minSectionY = Math.min(minY, maxY) >> 4;
+            this.maxSectionY = Math.max(minY, maxY) >> 4;
+            return this;
+        }
+
+        /**
+         * Limits the current rule to the chunks in the area.
+         *
+         * @param minChunkX int - the lowest chunk x.
+         * @param minChunkZ int - the lowest chunk z.
+         * @param maxChunkX int - the highest chunk x.
+         * @param maxChunkZ int - the highest chunk z.
+         * @return {@link Builder} - this builder.
+         * @since 1.0.3
+         */
+        public Builder inChunks(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+            this.minChunkX = Math.min(minChunkX, maxChunkX);
+            this.minChunkZ = Math.min(minChunkZ, maxChunkZ);
+            this.maxChunkX = Math.max(minChunkX, maxChunkX);
+            this.maxChunkZ = Math.max(minChunkZ, maxChunkZ);
+            return this;
+        }
+
+        /**
+         * Finishes the current rule and starts the next one.
+         *
+         * @return {@link Builder} - this builder.
+         * @since 1.0.3
+         */
+        public Builder then() {
+            if (replacements.length > 0)
+                rules.add(new Rule(replacements, minSectionY, maxSectionY, minChunkX, minChunkZ, maxChunkX, maxChunkZ));
+            reset();
+            return this;
+        }
+
+        /**
+         * Builds the rule set.
+         *
+         * @return {@link BlockSubstitution} - the rule set.
+         * @since 1.0.3
+         */
+        public BlockSubstitution build() {
+            then();
+            return new BlockSubstitution(rules.toArray(new Rule[0]));
+        }
+
+        private void put(BlockState from, BlockState to) {
+            int fromId = Block.getId(from);
+            if (fromId >= replacements.length) {
+                int length = replacements.length;
+                replacements = Arrays.copyOf(replacements, fromId + 1);
+                for (int id = length; id < replacements.length; id++)
+                    replacements[id] = id;
+            }
+            replacements[fromId] = Block.getId(to);
+        }
+
+        private void reset() {
+            this.replacements = new int[0];
+            this.minSectionY = Integer.MIN_VALUE;
+            this.maxSectionY = Integer.MAX_VALUE;
+            this.minChunkX = Integer.MIN_VALUE;
+            this.minChunkZ = Integer.MIN_VALUE;
+            this.maxChunkX = Integer.MAX_VALUE;
+            this.maxChunkZ = Integer.MAX_VALUE;
+        }
+
+        private static Block getBlock(Material material) {
+            if (!material.isBlock())
+                throw new IllegalArgumentException(material + " is not a block");
+            return CraftMagicNumbers.getBlock(material);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package chatzis.nikolas.mc.nikoapi.packet.chunk;
+
+import chatzis.nikolas.mc.nikoapi.util.ReflectionHelper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkPacketData;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.network.protocol.game.ClientboundLightUpdatePacketData;
+import net.minecraft.world.level.block.Block;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * Rewrites the block states of the sections in a chunk packet.
+ * The serialized sections are copied once, only the palettes of the affected sections are rewritten:
+ * single value and indirect palettes by their entries, global palettes by the packed states.
+ * Heightmaps, block entities and light of the original packet are shared by the rewritten packet.
+ * <p>
+ * A section is encoded as its non-air block count, the block state container and the biome container.
+ * A container is encoded as the bits per entry, the palette and the packed entries.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class ChunkPaletteRewriter {
+
+    private static final int SECTION_SIZE = 4096;
+    private static final int MAX_INDIRECT_STATE_BITS = 8;
+    private static final int MAX_INDIRECT_BIOME_BITS = 3;
+    private static final int MAX_PALETTE_SIZE = 1 << MAX_INDIRECT_STATE_BITS;
+    // The light is read by the constructor of the packet and replaced afterward, an unread trailing byte is ignored
+    private static final int EMPTY_LIGHT_BYTES = 7;
+    private static final CompoundTag EMPTY_HEIGHTMAPS = new CompoundTag();
+    private static final Field LIGHT_FIELD = ReflectionHelper.findFieldByType(ClientboundLevelChunkWithLightPacket.class, ClientboundLightUpdatePacketData.class);
+    private static final Field HEIGHTMAPS_FIELD = ReflectionHelper.findFieldByType(ClientboundLevelChunkPacketData.class, CompoundTag.class);
+    private static final Field BLOCK_ENTITIES_FIELD = ReflectionHelper.findFieldByType(ClientboundLevelChunkPacketData.class, List.class);
+
+    /**
+     * This class is a util class, so it's not needed to instantiate it.
+     */
+    private ChunkPaletteRewriter() {
+        throw new UnsupportedOperationException("This is a util class.");
+    }
+
+    /**
+     * Checks if the rewriter can create packets, the fields of the packets are found by their type.
+     *
+     * @return boolean - whatever every field was found.
+     */
+    static boolean isAvailable() {
+        return LIGHT_FIELD != null && HEIGHTMAPS_FIELD != null && BLOCK_ENTITIES_FIELD != null;
+    }
+
+    /**
+     * Rewrites the chunk packet with the rules.
+     *
+     * @return ClientboundLevelChunkWithLightPacket - the rewritten packet or null, if no block state is replaced.
+     */
+    static ClientboundLevelChunkWithLightPacket rewrite(ClientboundLevelChunkWithLightPacket packet, BlockSubstitution substitution,
+                                                        int minSectionY, ByteBufAllocator allocator) throws IllegalAccessException {
+        int chunkX = packet.getX();
+        int chunkZ = packet.getZ();
+        FriendlyByteBuf in = packet.getChunkData().getReadBuffer();
+        int[] palette = new int[MAX_PALETTE_SIZE];
+        if (!isAffected(in, substitution, chunkX, chunkZ, minSectionY, palette))
+            return null;
+
+        in.readerIndex(0);
+        FriendlyByteBuf out = new FriendlyByteBuf(allocator.heapBuffer(in.readableBytes() + 64));
+        try {
+            out.writeInt(chunkX);
+            out.writeInt(chunkZ);
+            out.writeNbt(EMPTY_HEIGHTMAPS);
+            int lengthIndex = out.writerIndex();
+            out.writeInt(0);
+            int sectionsIndex = out.writerIndex();
+            for (int sectionY = minSectionY; in.isReadable(); sectionY++) {
+                if (substitution.affects(chunkX, sectionY, chunkZ))
+                    rewriteSection(in, out, substitution, chunkX, sectionY, chunkZ, palette);
+                else
+                    copySection(in, out);
+            }
+            setPaddedVarInt(out, lengthIndex, out.writerIndex() - sectionsIndex);
+            out.writeVarInt(0);
+            out.writeZero(EMPTY_LIGHT_BYTES);
+
+            ClientboundLevelChunkWithLightPacket rewritten = new ClientboundLevelChunkWithLightPacket(out);
+            HEIGHTMAPS_FIELD.set(rewritten.getChunkData(), HEIGHTMAPS_FIELD.get(packet.getChunkData()));
+            BLOCK_ENTITIES_FIELD.set(rewritten.getChunkData(), BLOCK_ENTITIES_FIELD.get(packet.getChunkData()));
+            LIGHT_FIELD.set(rewritten, packet.getLightData());
+            return rewritten;
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * Checks if a rule replaces a block state, which is in a section of the chunk.
+     */
+    private static boolean isAffected(FriendlyByteBuf in, BlockSubstitution substitution, int chunkX, int chunkZ, int minSectionY, int[] palette) {
+        for (int sectionY = minSectionY; in.isReadable(); sectionY++) {
+            in.skipBytes(Short.BYTES);
+            if (!substitution.affects(chunkX, sectionY, chunkZ)) {
+                skipContainer(in, MAX_INDIRECT_STATE_BITS);
+                skipContainer(in, MAX_INDIRECT_BIOME_BITS);
+                continue;
+            }
+
+            int bits = in.readUnsignedByte();
+            int size = readPalette(in, bits, palette);
+            if (size > 0) {
+                for (int i = 0; i < size; i++) {
+                    if (substitution.remap(chunkX, sectionY, chunkZ, palette[i]) != palette[i])
+                        return true;
+                }
+                skipLongs(in);
+            } else {
+                int length = in.readVarInt();
+                int valuesPerLong = 64 / bits;
+                long mask = (1L << bits) - 1;
+                for (int i = 0; i < length; i++) {
+                    long word = in.readLong();
+                    for (int j = 0; j < valuesPerLong; j++) {
+                        int stateId = (int) ((word >>> (j * bits)) & mask);
+                        if (substitution.remap(chunkX, sectionY, chunkZ, stateId) != stateId)
+                            return true;
+                    }
+                }
+            }
+            skipContainer(in, MAX_INDIRECT_BIOME_BITS);
+        }
+        return false;
+    }
+
+    private static void rewriteSection(FriendlyByteBuf in, FriendlyByteBuf out, BlockSubstitution substitution,
+                                       int chunkX, int sectionY, int chunkZ, int[] palette) {
+        short blockCount = in.readShort();
+        int countIndex = out.writerIndex();
+        out.writeShort(blockCount);
+
+        int bits = in.readUnsignedByte();
+        out.writeByte(bits);
+        int size = readPalette(in, bits, palette);
+        if (size > 0) {
+            boolean airChanged = false;
+            if (bits > 0)
+                out.writeVarInt(size);
+            for (int i = 0; i < size; i++) {
+                int stateId = substitution.remap(chunkX, sectionY, chunkZ, palette[i]);
+                airChanged |= isAir(stateId) != isAir(palette[i]);
+                palette[i] = stateId;
+                out.writeVarInt(stateId);
+            }
+
+            int dataIndex = in.readerIndex();
+            skipLongs(in);
+            out.writeBytes(in, dataIndex, in.readerIndex() - dataIndex);
+            if (airChanged)
+                out.setShort(countIndex, countBlocks(in, dataIndex, bits, palette));
+        } else {
+            int length = in.readVarInt();
+            out.writeVarInt(length);
+            int valuesPerLong = 64 / bits;
+            long mask = (1L << bits) - 1;
+            int nonAir = 0;
+            for (int i = 0, entry = 0; i < length; i++) {
+                long word = in.readLong();
+                long rewritten = 0;
+                for (int j = 0; j < valuesPerLong && entry < SECTION_SIZE; j++, entry++) {
+                    int shift = j * bits;
+                    int stateId = substitution.remap(chunkX, sectionY, chunkZ, (int) ((word >>> shift) & mask));
+                    if (!isAir(stateId))
+                        nonAir++;
+                    rewritten |= (long) stateId << shift;
+                }
+                out.writeLong(rewritten);
+            }
+            out.setShort(countIndex, nonAir);
+        }
+
+        int biomesIndex = in.readerIndex();
+        skipContainer(in, MAX_INDIRECT_BIOME_BITS);
+        out.writeBytes(in, biomesIndex, in.readerIndex() - biomesIndex);
+    }
+
+    private static void copySection(FriendlyByteBuf in, FriendlyByteBuf out) {
+        int start = in.readerIndex();
+        in.skipBytes(Short.BYTES);
+        skipContainer(in, MAX_INDIRECT_STATE_BITS);
+        skipContainer(in, MAX_INDIRECT_BIOME_BITS);
+        out.writeBytes(in, start, in.readerIndex() - start);
+    }
+
+    /**
+     * Counts the blocks of an indirect or single value container, which are not air.
+     */
+    private static int countBlocks(ByteBuf in, int dataIndex, int bits, int[] palette) {
+        if (bits == 0)
+            return isAir(palette[0]) ? 0 : SECTION_SIZE;
+
+        // The packed entries start behind the length of the long array
+        FriendlyByteBuf data = new FriendlyByteBuf(in.duplicate().readerIndex(dataIndex));
+        int length = data.readVarInt();
+        int valuesPerLong = 64 / bits;
+        long mask = (1L << bits) - 1;
+        int nonAir = 0;
+        for (int i = 0, entry = 0; i < length; i++) {
+            long word = data.readLong();
+            for (int j = 0; j < valuesPerLong && entry < SECTION_SIZE; j++, entry++) {
+                if (!isAir(palette[(int) ((word >>> (j * bits)) & mask)]))
+                    nonAir++;
+            }
+        }
+        return nonAir;
+    }
+
+    /**
+     * Reads the palette of a block state container.
+     *
+     * @return int - the size of the palette or 0, if the container uses the global palette.
+     */
+    private static int readPalette(FriendlyByteBuf in, int bits, int[] palette) {
+        if (bits == 0) {
+            palette[0] = in.readVarInt();
+            return 1;
+        }
+        if (bits > MAX_INDIRECT_STATE_BITS)
+            return 0;
+
+        int size = in.readVarInt();
+        if (size > MAX_PALETTE_SIZE)
+            throw new IllegalStateException("Palette with " + size + " entries");
+        for (int i = 0; i < size; i++)
+            palette[i] = in.readVarInt();
+        return size;
+    }
+
+    private static void skipContainer(FriendlyByteBuf in, int maxIndirectBits) {
+        int bits = in.readUnsignedByte();
+        if (bits == 0) {
+            in.readVarInt();
+        } else if (bits <= maxIndirectBits) {
+            int size = in.readVarInt();
+            for (int i = 0; i < size; i++)
+                in.readVarInt();
+        }
+        skipLongs(in);
+    }
+
+    private static void skipLongs(FriendlyByteBuf in) {
+        in.skipBytes(in.readVarInt() * Long.BYTES);
+    }
+
+    /**
+     * Writes a varint with the fixed size of 4 bytes, so it can be written after the data behind it.
+     */
+    private static void setPaddedVarInt(ByteBuf buf, int index, int value) {
+        buf.setByte(index, (value & 0x7F) | 0x80);
+        buf.setByte(index + 1, ((value >>> 7) & 0x7F) | 0x80);
+        buf.setByte(index + 2, ((value >>> 14) & 0x7F) | 0x80);
+        buf.setByte(index + 3, (value >>> 21) & 0x7F);
+    }
+
+    private static boolean isAir(int stateId) {
+        return Block.stateById(stateId).isAir();
+    }
+}
@@ -0,0 +1,206 @@
+package chatzis.nikolas.mc.nikoapi.packet.chunk;
+
+import chatzis.nikolas.mc.nikoapi.packet.reader.APIListenerManager;
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketDirection;
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketEvent;
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketSubscription;
+import chatzis.nikolas.mc.nikoapi.player.ChunkViewTracker;
+import io.netty.buffer.ByteBufAllocator;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkPacketData;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import org.bukkit.entity.Player;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Replaces block states in the chunks sent to players, e.g. for team colored walls, hidden ores or previews of builds.
+ * Every player has at most one {@link BlockSubstitution}, its rules are applied to the chunk packets
+ * by a subscription to the {@link APIListenerManager} on the event loop of the player.
+ * The subscription only exists while a player has a rule set.
+ * <p>
+ * A rewritten chunk is cached by the original packet and the rule set,
+ * so players, who receive the same chunk packet with the same rule set, share the rewritten packet.
+ * The rules apply to the chunks sent afterward, chunks the player already received are not changed.
+ * Block entities and block updates after the chunk packet are not rewritten.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public class ChunkSubstitutions {
+
+    private static final Logger LOG = Logger.getLogger(ChunkSubstitutions.class.getSimpleName());
+    private static final int CACHE_SIZE = 256;
+    private static final ChunkSubstitutions instance = new ChunkSubstitutions();
+
+    /**
+     * Get the instance of this class
+     *
+     * @return ChunkSubstitutions - A instance of {@link ChunkSubstitutions}
+     */
+    public static ChunkSubstitutions getInstance() {
+        return instance;
+    }
+
+    private final Map<UUID, BlockSubstitution> substitutions;
+    private final Map<CacheKey, ClientboundLevelChunkWithLightPacket> cache;
+    private final LongAdder rewritten;
+    private final LongAdder shared;
+    private final LongAdder unchanged;
+    private PacketSubscription subscription;
+
+    private ChunkSubstitutions() {
+        this.substitutions = new ConcurrentHashMap<>();
+        this.cache = new LinkedHashMap<>(CACHE_SIZE, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, ClientboundLevelChunkWithLightPacket> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+        this.rewritten = new LongAdder();
+        this.shared = new LongAdder();
+        this.unchanged = new LongAdder();
+    }
+
+    /**
+     * Sets the rule set of a player.
+     *
+     * @param player       Player - the player.
+     * @param substitution {@link BlockSubstitution} - the rule set or null, to send the chunks unchanged.
+     * @since 1.0.3
+     */
+    public synchronized void setSubstitution(Player player, BlockSubstitution substitution) {
+        if (substitution == null) {
+            remove(player.getUniqueId());
+            return;
+        }
+        if (!ChunkPaletteRewriter.isAvailable()) {
+            LOG.warning("Chunk packets can't be rewritten in this version, the block substitution is ignored");
+            return;
+        }
+        substitutions.put(player.getUniqueId(), substitution);
+        if (subscription == null)
+            subscription = APIListenerManager.getInstance().subscribe(ClientboundLevelChunkWithLightPacket.class, PacketDirection.OUTBOUND, this::onChunk);
+    }
+
+    /**
+     * Gets the rule set of a player.
+     *
+     * @param player Player - the player.
+     * @return {@link BlockSubstitution} - the rule set or null, if the chunks are sent unchanged.
+     * @since 1.0.3
+     */
+    public BlockSubstitution getSubstitution(Player player) {
+        return substitutions.get(player.getUniqueId());
+    }
+
+    /**
+     * Removes the rule set of a player.
+     *
+     * @param uuid UUID - the uuid of the player.
+     * @since 1.0.3
+     */
+    public synchronized void remove(UUID uuid) {
+        if (substitutions.remove(uuid) == null || !substitutions.isEmpty())
+            return;
+        if (subscription != null) {
+            APIListenerManager.getInstance().unsubscribe(subscription);
+            subscription = null;
+        }
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Gets the number of chunk packets, which were rewritten.
+     *
+     * @return long - the rewritten chunks.
+     * @since 1.0.3
+     */
+    public long getRewrittenChunks() {
+        return rewritten.sum();
+    }
+
+    /**
+     * Gets the number of chunk packets, which were taken from the cache instead of being rewritten again.
+     *
+     * @return long - the shared chunks.
+     * @since 1.0.3
+     */
+    public long getSharedChunks() {
+        return shared.sum();
+    }
+
+    /**
+     * Gets the number of chunk packets of players with a rule set, which did not contain a replaced block.
+     *
+     * @return long - the unchanged chunks.
+     * @since 1.0.3
+     */
+    public long getUnchangedChunks() {
+        return unchanged.sum();
+    }
+
+    private void onChunk(PacketEvent<ClientboundLevelChunkWithLightPacket> event) {
+        Player player = event.getPlayer();
+        BlockSubstitution substitution = player == null ? null : substitutions.get(player.getUniqueId());
+        if (substitution == null)
+            return;
+
+        // The world of the player is not read by the event loop, the dimension comes from the packets sent before
+        int minSection = ChunkViewTracker.getInstance().getMinSection(player);
+        if (minSection == ChunkViewTracker.UNKNOWN_SECTION)
+            return;
+
+        ClientboundLevelChunkWithLightPacket packet = event.getPacket();
+        CacheKey key = new CacheKey(packet.getChunkData(), substitution);
+        ClientboundLevelChunkWithLightPacket result;
+        synchronized (cache) {
+            result = cache.get(key);
+        }
+        if (result != null) {
+            shared.increment();
+        } else {
+            result = rewrite(packet, substitution, minSection);
+            synchronized (cache) {
+                cache.put(key, result);
+            }
+        }
+
+        if (result != packet)
+            event.setPacket(result);
+    }
+
+    /**
+     * Rewrites the packet.
+     *
+     * @return ClientboundLevelChunkWithLightPacket - the rewritten packet or the packet itself, if no block is replaced.
+     */
+    private ClientboundLevelChunkWithLightPacket rewrite(ClientboundLevelChunkWithLightPacket packet, BlockSubstitution substitution, int minSectionY) {
+        try {
+            ClientboundLevelChunkWithLightPacket result = ChunkPaletteRewriter.rewrite(packet, substitution, minSectionY, ByteBufAllocator.DEFAULT);
+            if (result == null) {
+                unchanged.increment();
+                return packet;
+            }
+            rewritten.increment();
+            return result;
+        } catch (IllegalAccessException | RuntimeException exception) {
+            LOG.log(Level.WARNING, "Could not rewrite the chunk {0}: {1}",
+                    new String[]{packet.getX() + ", " + packet.getZ(), String.valueOf(exception.getMessage())});
+            return packet;
+        }
+    }
+
+    /**
+     * Key of a rewritten chunk, both parts are compared by identity.
+     */
+    private record CacheKey(ClientboundLevelChunkPacketData chunkData, BlockSubstitution substitution) {
+    }
+}
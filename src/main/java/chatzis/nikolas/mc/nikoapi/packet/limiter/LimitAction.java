@@ -0,0 +1,23 @@
+package chatzis.nikolas.mc.nikoapi.packet.limiter;
+
+/**
+ * Defines what the {@link PacketRateLimiter} does with packets, which exceed the limit.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public enum LimitAction {
+
+    /**
+     * The packet is discarded before it is decoded.
+     */
+    DROP,
+
+    /**
+     * Only the latest excess packet is kept and passed on, when the limit allows it again.
+     * The packets before it are discarded.
+     * This fits packets, where only the last one matters.
+     */
+    COALESCE
+
+}
@@ -0,0 +1,66 @@
+package chatzis.nikolas.mc.nikoapi.packet.limiter;
+
+/**
+ * The limit of a packet type as a token bucket.
+ * The bucket holds up to {@code burst} packets and is refilled with {@code permitsPerSecond} packets per second.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class PacketRateLimit {
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final LimitAction action;
+
+    /**
+     * Creates the limit of a packet type.
+     *
+     * @param permitsPerSecond double - the packets per second, which are passed on permanently.
+     * @param burst            int - the packets, which are passed on at once.
+     * @param action           {@link LimitAction} - what happens to packets over the limit.
+     * @since 1.0.3
+     */
+    public PacketRateLimit(double permitsPerSecond, int burst, LimitAction action) {
+        if (permitsPerSecond <= 0 || burst < 1)
+            throw new IllegalArgumentException("The limit must allow at least one packet");
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.action = action;
+    }
+
+    /**
+     * Gets the packets per second, which are passed on permanently.
+     *
+     * @return double - the packets per second.
+     * @since 1.0.3
+     */
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * Gets the packets, which are passed on at once.
+     *
+     * @return int - the size of the bucket.
+     * @since 1.0.3
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Gets what happens to packets over the limit.
+     *
+     * @return {@link LimitAction} - the action.
+     * @since 1.0.3
+     */
+    public LimitAction getAction() {
+        return action;
+    }
+
+    @Override
+    public String toString() {
+        return "PacketRateLimit{" + permitsPerSecond + "/s, burst " + burst + ", " + action + "}";
+    }
+}
@@ -0,0 +1,256 @@
+package chatzis.nikolas.mc.nikoapi.packet.limiter;
+
+import net.minecraft.network.ConnectionProtocol;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.PacketFlow;
+import net.minecraft.network.protocol.game.ServerboundInteractPacket;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Limits the packets a player sends per packet type.
+ * The {@link RateLimitHandler} checks the packets of the play protocol by their id in front of the decoder,
+ * so packets over the limit cost neither decoding nor listener work on the event loop or the main thread.
+ * <p>
+ * Every limit is a token bucket per player and packet type, see {@link PacketRateLimit}.
+ * By default, only interactions with entities are dropped over 20 packets per second with a burst of 40.
+ * Players exceeding a limit are counted as offenders.
+ * <p>
+ * Other packet types are opt-in, because the client does not expect its packets to be lost.
+ * A dropped container click leaves the container of the client out of sync until the server resends it,
+ * and a coalesced arm swing is delayed until the bucket has a token again.
+ *
+ * <pre>{@code
+ * PacketRateLimiter.getInstance().setLimit(ServerboundSwingPacket.class, new PacketRateLimit(20, 40, LimitAction.COALESCE));
+ * }</pre>
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public class PacketRateLimiter {
+
+    private static final Logger LOG = Logger.getLogger(PacketRateLimiter.class.getSimpleName());
+    private static final PacketRateLimiter instance = new PacketRateLimiter();
+
+    /**
+     * Get the instance of this class
+     *
+     * @return PacketRateLimiter - A instance of {@link PacketRateLimiter}
+     */
+    public static PacketRateLimiter getInstance() {
+        return instance;
+    }
+
+    private final Map<Class<?>, Integer> packetIds;
+    private final Map<Class<?>, PacketRateLimit> limits;
+    private final ConcurrentMap<UUID, Offender> offenders;
+    private final LongAdder dropped;
+    private final LongAdder coalesced;
+    private volatile PacketRateLimit[] limitsById;
+    private volatile Class<?>[] typesById;
+
+    private PacketRateLimiter() {
+        this.packetIds = resolvePacketIds();
+        this.limits = new HashMap<>();
+        this.offenders = new ConcurrentHashMap<>();
+        this.dropped = new LongAdder();
+        this.coalesced = new LongAdder();
+        this.limitsById = new PacketRateLimit[0];
+        this.typesById = new Class<?>[0];
+
+        setLimit(ServerboundInteractPacket.class, new PacketRateLimit(20, 40, LimitAction.DROP));
+    }
+
+    /**
+     * Sets the limit of a packet type.
+     * The buckets of the players are reset with the next packet of the type.
+     *
+     * @param packetClass Class<? extends Packet<?>> - the class of a serverbound packet of the play protocol.
+     * @param limit       {@link PacketRateLimit} - the limit.
+     * @since 1.0.3
+     */
+    public synchronized void setLimit(Class<? extends Packet<?>> packetClass, PacketRateLimit limit) {
+        if (!packetIds.containsKey(packetClass))
+            throw new IllegalArgumentException(packetClass.getSimpleName() + " is not a serverbound packet of the play protocol");
+        limits.put(packetClass, limit);
+        rebuild();
+    }
+
+    /**
+     * Removes the limit of a packet type.
+     *
+     * @param packetClass Class<? extends Packet<?>> - the class of the packet.
+     * @since 1.0.3
+     */
+    public synchronized void removeLimit(Class<? extends Packet<?>> packetClass) {
+        if (limits.remove(packetClass) != null)
+            rebuild();
+    }
+
+    /**
+     * Gets the limit of a packet type.
+     *
+     * @param packetClass Class<? extends Packet<?>> - the class of the packet.
+     * @return {@link PacketRateLimit} - the limit or null, if the packet type is not limited.
+     * @since 1.0.3
+     */
+    public synchronized PacketRateLimit getLimit(Class<? extends Packet<?>> packetClass) {
+        return limits.get(packetClass);
+    }
+
+    /**
+     * Gets the packets, which were dropped.
+     *
+     * @return long - the dropped packets.
+     * @since 1.0.3
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets the packets, which were replaced by a later one.
+     *
+     * @return long - the coalesced packets.
+     * @since 1.0.3
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Gets the offenses of all players, who exceeded a limit, the worst first.
+     *
+     * @return List<RateLimitOffense> - the offenses per player and packet type.
+     * @since 1.0.3
+     */
+    public List<RateLimitOffense> getOffenses() {
+        List<RateLimitOffense> offenses = new ArrayList<>();
+        offenders.forEach((uuid, offender) -> offender.collect(uuid, offenses));
+        offenses.sort(Comparator.comparingLong((RateLimitOffense offense) -> offense.dropped() + offense.coalesced()).reversed());
+        return offenses;
+    }
+
+    /**
+     * Gets the offenses of a player.
+     *
+     * @param uuid UUID - the uuid of the player.
+     * @return List<RateLimitOffense> - the offenses per packet type, empty if the player did not exceed a limit.
+     * @since 1.0.3
+     */
+    public List<RateLimitOffense> getOffenses(UUID uuid) {
+        List<RateLimitOffense> offenses = new ArrayList<>();
+        Offender offender = offenders.get(uuid);
+        if (offender != null)
+            offender.collect(uuid, offenses);
+        return offenses;
+    }
+
+    /**
+     * Removes the offenses of a player, called on quit.
+     *
+     * @param uuid UUID - the uuid of the player.
+     * @since 1.0.3
+     */
+    public void remove(UUID uuid) {
+        offenders.remove(uuid);
+    }
+
+    /**
+     * Resets all counters.
+     *
+     * @since 1.0.3
+     */
+    public void reset() {
+        offenders.clear();
+        dropped.reset();
+        coalesced.reset();
+    }
+
+    PacketRateLimit[] getLimitsById() {
+        return limitsById;
+    }
+
+    Class<?> getType(int packetId) {
+        Class<?>[] types = typesById;
+        return packetId < types.length ? types[packetId] : null;
+    }
+
+    /**
+     * Counts a packet over the limit.
+     * Packets of connections without a player are only counted in the totals.
+     */
+    void recordOffense(Player player, int packetId, boolean coalesce) {
+        (coalesce ? coalesced : dropped).increment();
+        Class<?>[] types = typesById;
+        if (player == null || packetId >= types.length)
+            return;
+
+        Offender offender = offenders.computeIfAbsent(player.getUniqueId(), uuid -> new Offender(player.getName()));
+        OffenseCounter counter = offender.counters.computeIfAbsent(types[packetId], type -> new OffenseCounter());
+        (coalesce ? counter.coalesced : counter.dropped).increment();
+        counter.lastOffense = System.nanoTime();
+    }
+
+    private void rebuild() {
+        int size = 0;
+        for (Class<?> packetClass : limits.keySet())
+            size = Math.max(size, packetIds.get(packetClass) + 1);
+
+        PacketRateLimit[] newLimits = new PacketRateLimit[size];
+        Class<?>[] newTypes = new Class<?>[size];
+        limits.forEach((packetClass, limit) -> {
+            int packetId = packetIds.get(packetClass);
+            newLimits[packetId] = limit;
+            newTypes[packetId] = packetClass;
+        });
+        this.typesById = newTypes;
+        this.limitsById = newLimits;
+    }
+
+    private static Map<Class<?>, Integer> resolvePacketIds() {
+        Map<Class<?>, Integer> packetIds = new HashMap<>();
+        try {
+            ConnectionProtocol.PLAY.getPacketsByIds(PacketFlow.SERVERBOUND).forEach((id, packetClass) -> packetIds.put(packetClass, id));
+        } catch (RuntimeException exception) {
+            LOG.log(Level.WARNING, "Could not resolve the packet ids, packets won't be limited: {0}", exception.getMessage());
+        }
+        return packetIds;
+    }
+
+    /**
+     * Counters of a player, who exceeded a limit.
+     */
+    private static final class Offender {
+
+        private final String name;
+        private final ConcurrentMap<Class<?>, OffenseCounter> counters;
+
+        private Offender(String name) {
+            this.name = name;
+            this.counters = new ConcurrentHashMap<>();
+        }
+
+        private void collect(UUID uuid, List<RateLimitOffense> offenses) {
+            counters.forEach((type, counter) -> offenses.add(new RateLimitOffense(uuid, name, type.getSimpleName(),
+                    counter.dropped.sum(), counter.coalesced.sum(), counter.lastOffense)));
+        }
+    }
+
+    private static final class OffenseCounter {
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private volatile long lastOffense;
+    }
+}
@@ -0,0 +1,219 @@
+package chatzis.nikolas.mc.nikoapi.packet.limiter;
+
+import chatzis.nikolas.mc.nikoapi.packet.metrics.TrafficMeter;
+import chatzis.nikolas.mc.nikoapi.player.PlayerPacketReader;
+import chatzis.nikolas.mc.nikoapi.util.Utils;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.AttributeKey;
+import net.minecraft.network.Connection;
+import net.minecraft.network.ConnectionProtocol;
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the limits of the {@link PacketRateLimiter} to the frames of a connection.
+ * The handler sits behind the frame splitter and in front of the decompressor,
+ * it only reads the packet id of a frame without decoding the packet.
+ * Packets below the compression threshold are never compressed, so small packets like interactions are always readable,
+ * compressed frames are passed on.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+@ChannelHandler.Sharable
+public final class RateLimitHandler extends ChannelInboundHandlerAdapter {
+
+    /**
+     * The name of the handler in the pipeline.
+     */
+    public static final String NAME = "nikoapi_rate_limiter";
+    private static final String SPLITTER = "splitter";
+    private static final String DECOMPRESS = "decompress";
+    private static final AttributeKey<ChannelBuckets> BUCKETS_KEY = AttributeKey.valueOf("nikoapi_rate_limit");
+    private static final RateLimitHandler INSTANCE = new RateLimitHandler();
+    private static final PacketRateLimiter LIMITER = PacketRateLimiter.getInstance();
+
+    private RateLimitHandler() {
+    }
+
+    /**
+     * Adds the limiter behind the frame splitter of the channel.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @since 1.0.3
+     */
+    public static void install(Channel channel) {
+        if (channel.pipeline().get(NAME) != null || channel.pipeline().get(SPLITTER) == null)
+            return;
+        channel.attr(BUCKETS_KEY).setIfAbsent(new ChannelBuckets());
+        channel.pipeline().addAfter(SPLITTER, NAME, INSTANCE);
+    }
+
+    /**
+     * Removes the limiter from the channel.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @since 1.0.3
+     */
+    public static void uninstall(Channel channel) {
+        if (channel.pipeline().get(NAME) != null)
+            channel.pipeline().remove(NAME);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        ChannelBuckets buckets = ctx.channel().attr(BUCKETS_KEY).get();
+        if (buckets == null || !(msg instanceof ByteBuf frame)
+                || ctx.channel().attr(Connection.ATTRIBUTE_PROTOCOL).get() != ConnectionProtocol.PLAY) {
+            super.channelRead(ctx, msg);
+            return;
+        }
+
+        // Compression is never switched off again, so the pipeline is only searched until it is on
+        if (!buckets.compressed)
+            buckets.compressed = ctx.pipeline().get(DECOMPRESS) != null;
+        PacketRateLimit[] limits = LIMITER.getLimitsById();
+        long peeked = Utils.peekPacketId(frame, buckets.compressed);
+        int packetId = peeked == -1 ? -1 : (int) peeked;
+        if (packetId < 0 || packetId >= limits.length || limits[packetId] == null) {
+            super.channelRead(ctx, msg);
+            return;
+        }
+
+        TokenBucket bucket = buckets.getBucket(packetId, limits[packetId]);
+        if (bucket.pending == null && bucket.tryAcquire(System.nanoTime())) {
+            super.channelRead(ctx, msg);
+            return;
+        }
+
+        Player player = buckets.getPlayer(ctx.channel());
+        if (bucket.limit.getAction() == LimitAction.DROP) {
+            TrafficMeter.frameConsumed(player, LIMITER.getType(packetId), frame);
+            frame.release();
+            LIMITER.recordOffense(player, packetId, false);
+            return;
+        }
+
+        if (bucket.pending != null) {
+            TrafficMeter.frameConsumed(player, LIMITER.getType(packetId), bucket.pending);
+            bucket.pending.release();
+            LIMITER.recordOffense(player, packetId, true);
+        }
+        bucket.pending = frame;
+        if (!bucket.scheduled)
+            schedule(ctx, bucket);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        releasePending(ctx.channel());
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        releasePending(ctx.channel());
+    }
+
+    /**
+     * Passes the coalesced frame on, as soon as the bucket has a token again.
+     */
+    private static void schedule(ChannelHandlerContext ctx, TokenBucket bucket) {
+        bucket.scheduled = true;
+        ctx.executor().schedule(() -> {
+            bucket.scheduled = false;
+            ByteBuf pending = bucket.pending;
+            if (pending == null)
+                return;
+            if (ctx.isRemoved() || !ctx.channel().isActive()) {
+                bucket.pending = null;
+                pending.release();
+            } else if (bucket.tryAcquire(System.nanoTime())) {
+                bucket.pending = null;
+                TrafficMeter.frameResumed(ctx.channel(), pending);
+                ctx.fireChannelRead(pending);
+            } else {
+                schedule(ctx, bucket);
+            }
+        }, bucket.getNanosUntilToken(), TimeUnit.NANOSECONDS);
+    }
+
+    private static void releasePending(Channel channel) {
+        ChannelBuckets buckets = channel.attr(BUCKETS_KEY).getAndSet(null);
+        if (buckets == null)
+            return;
+        for (TokenBucket bucket : buckets.buckets) {
+            if (bucket != null && bucket.pending != null) {
+                bucket.pending.release();
+                bucket.pending = null;
+            }
+        }
+    }
+
+    /**
+     * State of the limiter for one channel, only accessed by the event loop of the channel.
+     */
+    private static final class ChannelBuckets {
+
+        private TokenBucket[] buckets = new TokenBucket[0];
+        private Player player;
+        private boolean compressed;
+
+        private TokenBucket getBucket(int packetId, PacketRateLimit limit) {
+            if (packetId >= buckets.length) {
+                TokenBucket[] grown = new TokenBucket[packetId + 1];
+                System.arraycopy(buckets, 0, grown, 0, buckets.length);
+                buckets = grown;
+            }
+            TokenBucket bucket = buckets[packetId];
+            // A replaced bucket keeps its coalesced frame, its scheduled task still passes it on
+            if (bucket == null || bucket.limit != limit) {
+                bucket = new TokenBucket(limit);
+                buckets[packetId] = bucket;
+            }
+            return bucket;
+        }
+
+        private Player getPlayer(Channel channel) {
+            if (player == null)
+                player = PlayerPacketReader.getPlayer(channel);
+            return player;
+        }
+    }
+
+    /**
+     * Token bucket of one packet type of a channel.
+     */
+    private static final class TokenBucket {
+
+        private final PacketRateLimit limit;
+        private double tokens;
+        private long lastRefill;
+        private ByteBuf pending;
+        private boolean scheduled;
+
+        private TokenBucket(PacketRateLimit limit) {
+            this.limit = limit;
+            this.tokens = limit.getBurst();
+            this.lastRefill = System.nanoTime();
+        }
+
+        private boolean tryAcquire(long now) {
+            tokens = Math.min(limit.getBurst(), tokens + (now - lastRefill) * limit.getPermitsPerSecond() / 1e9);
+            lastRefill = now;
+            if (tokens < 1)
+                return false;
+            tokens--;
+            return true;
+        }
+
+        private long getNanosUntilToken() {
+            return Math.max(0, (long) Math.ceil((1 - tokens) * 1e9 / limit.getPermitsPerSecond()));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package chatzis.nikolas.mc.nikoapi.packet.limiter;
+
+import java.util.UUID;
+
+/**
+ * The packets of one type, which the {@link PacketRateLimiter} did not pass on for a player.
+ *
+ * @param player      UUID - the uuid of the player.
+ * @param name        String - the name of the player.
+ * @param packetType  String - the simple name of the packet class.
+ * @param dropped     long - the dropped packets.
+ * @param coalesced   long - the packets, which were replaced by a later one.
+ * @param lastOffense long - the time of the last excess packet in {@link System#nanoTime()}.
+ * @author Niko
+ * @since 1.0.3
+ */
+public record RateLimitOffense(UUID player, String name, String packetType, long dropped, long coalesced, long lastOffense) {
+}
@@ -0,0 +1,61 @@
+package chatzis.nikolas.mc.nikoapi.packet.metrics;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram of a listener.
+ * Bucket {@code i} counts the calls, which took less than {@code 2^i} nanoseconds,
+ * but at least as long as the upper bound of the bucket before.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class ListenerLatency {
+
+    static final int BUCKETS = 40;
+
+    private final String listener;
+    private final String plugin;
+    private final LongAdder[] buckets;
+    private final LongAdder totalNanos;
+    private final LongAccumulator maxNanos;
+
+    ListenerLatency(Class<?> listenerClass) {
+        this.listener = listenerClass.getName();
+        this.plugin = getPluginName(listenerClass);
+        this.buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            buckets[i] = new LongAdder();
+        this.totalNanos = new LongAdder();
+        this.maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))].increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    PacketMetricsSnapshot.ListenerEntry snapshot() {
+        long[] counts = new long[BUCKETS];
+        long calls = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            calls += counts[i];
+        }
+        return new PacketMetricsSnapshot.ListenerEntry(listener, plugin, calls, totalNanos.sum(), maxNanos.get(), counts);
+    }
+
+    private static String getPluginName(Class<?> listenerClass) {
+        try {
+            return JavaPlugin.getProvidingPlugin(listenerClass).getName();
+        } catch (RuntimeException exception) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package chatzis.nikolas.mc.nikoapi.packet.metrics;
+
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketDirection;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collects the packets and bytes of every packet type per direction and per player,
+ * and the latency of every packet listener.
+ * The metrics are disabled by default and can be switched on at runtime.
+ * While disabled, the packet handlers only read a volatile flag.
+ * <p>
+ * The counters are striped, so the netty event loops don't contend on them.
+ * A {@link PacketMetricsSnapshot} can be queried with {@link #snapshot()} or written to a file with {@link #dump(Path)}.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public class PacketMetrics {
+
+    private static final PacketMetrics instance = new PacketMetrics();
+
+    /**
+     * Get the instance of this class
+     *
+     * @return PacketMetrics - A instance of {@link PacketMetrics}
+     */
+    public static PacketMetrics getInstance() {
+        return instance;
+    }
+
+    private final TrafficTable traffic;
+    private final ConcurrentMap<UUID, TrafficTable> playerTraffic;
+    private final ConcurrentMap<Class<?>, ListenerLatency> listeners;
+    private volatile boolean enabled;
+
+    private PacketMetrics() {
+        this.traffic = new TrafficTable();
+        this.playerTraffic = new ConcurrentHashMap<>();
+        this.listeners = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Check if the metrics are collected.
+     *
+     * @return boolean - enabled metrics.
+     * @since 1.0.3
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches the collection of the metrics on or off.
+     * The collected metrics are kept, when the collection is switched off.
+     *
+     * @param enabled boolean - whatever the metrics should be collected.
+     * @since 1.0.3
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Counts a packet.
+     *
+     * @param player    Player - the player of the connection or null, if the connection is still logging in.
+     * @param direction {@link PacketDirection} - the direction of the packet.
+     * @param type      Class<?> - the class of the packet.
+     * @param size      int - the size on the wire in bytes.
+     * @since 1.0.3
+     */
+    public void recordPacket(Player player, PacketDirection direction, Class<?> type, int size) {
+        if (enabled)
+            record(player, direction, type, size, true);
+    }
+
+    void record(Player player, PacketDirection direction, Class<?> type, int size, boolean packet) {
+        traffic.record(direction, type, size, packet);
+        if (player != null) {
+            TrafficTable table = playerTraffic.get(player.getUniqueId());
+            if (table == null)
+                table = playerTraffic.computeIfAbsent(player.getUniqueId(), uuid -> new TrafficTable());
+            table.record(direction, type, size, packet);
+        }
+    }
+
+    /**
+     * Starts the time measurement of a listener call.
+     *
+     * @return long - the start time for {@link #stopTimer(Class, long)} or 0, if the metrics are disabled.
+     * @since 1.0.3
+     */
+    public long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time of a listener call.
+     *
+     * @param listenerClass Class<?> - the class of the listener.
+     * @param start         long - the start time returned by {@link #startTimer()}.
+     * @since 1.0.3
+     */
+    public void stopTimer(Class<?> listenerClass, long start) {
+        if (start == 0) return;
+
+        long nanos = System.nanoTime() - start;
+        ListenerLatency latency = listeners.get(listenerClass);
+        if (latency == null)
+            latency = listeners.computeIfAbsent(listenerClass, ListenerLatency::new);
+        latency.record(nanos);
+    }
+
+    /**
+     * Removes the traffic of a player.
+     * Called when the player leaves, the traffic stays in the totals of the server.
+     *
+     * @param uuid UUID - the player.
+     * @since 1.0.3
+     */
+    public void remove(UUID uuid) {
+        playerTraffic.remove(uuid);
+    }
+
+    /**
+     * Removes all collected metrics.
+     *
+     * @since 1.0.3
+     */
+    public void reset() {
+        traffic.clear();
+        playerTraffic.clear();
+        listeners.clear();
+    }
+
+    /**
+     * Takes a snapshot of the collected metrics.
+     *
+     * @return {@link PacketMetricsSnapshot} - the snapshot.
+     * @since 1.0.3
+     */
+    public PacketMetricsSnapshot snapshot() {
+        List<PacketMetricsSnapshot.TrafficEntry> trafficEntries = new ArrayList<>();
+        traffic.snapshot(null, trafficEntries);
+        playerTraffic.forEach((uuid, table) -> table.snapshot(uuid, trafficEntries));
+
+        List<PacketMetricsSnapshot.ListenerEntry> listenerEntries = new ArrayList<>(listeners.size());
+        for (ListenerLatency latency : listeners.values())
+            listenerEntries.add(latency.snapshot());
+        return new PacketMetricsSnapshot(Instant.now(), trafficEntries, listenerEntries);
+    }
+
+    /**
+     * Writes a snapshot of the collected metrics to a file.
+     * An existing file is overwritten.
+     *
+     * @param file Path - the file to write to.
+     * @throws IOException if the file could not be written.
+     * @since 1.0.3
+     */
+    public void dump(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            snapshot().write(writer);
+        }
+    }
+}
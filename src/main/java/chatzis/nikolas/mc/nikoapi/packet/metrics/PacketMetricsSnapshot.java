@@ -0,0 +1,154 @@
+package chatzis.nikolas.mc.nikoapi.packet.metrics;
+
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketDirection;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable copy of the {@link PacketMetrics} at a point in time.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class PacketMetricsSnapshot {
+
+    private final Instant time;
+    private final List<TrafficEntry> traffic;
+    private final List<ListenerEntry> listeners;
+
+    PacketMetricsSnapshot(Instant time, List<TrafficEntry> traffic, List<ListenerEntry> listeners) {
+        this.time = time;
+        this.traffic = List.copyOf(traffic);
+        this.listeners = List.copyOf(listeners);
+    }
+
+    /**
+     * Gets the time the snapshot was taken.
+     *
+     * @return Instant - the time.
+     * @since 1.0.3
+     */
+    public Instant getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the traffic of every packet type.
+     * Entries without a player are the totals of the server.
+     *
+     * @return List<TrafficEntry> - the traffic entries.
+     * @since 1.0.3
+     */
+    public List<TrafficEntry> getTraffic() {
+        return traffic;
+    }
+
+    /**
+     * Gets the traffic of one player.
+     *
+     * @param player UUID - the player or null, for the totals of the server.
+     * @return List<TrafficEntry> - the traffic entries of the player.
+     * @since 1.0.3
+     */
+    public List<TrafficEntry> getTraffic(UUID player) {
+        return traffic.stream().filter(entry -> player == null ? entry.player() == null : player.equals(entry.player())).toList();
+    }
+
+    /**
+     * Gets the latency of every listener.
+     *
+     * @return List<ListenerEntry> - the listener entries.
+     * @since 1.0.3
+     */
+    public List<ListenerEntry> getListeners() {
+        return listeners;
+    }
+
+    /**
+     * Writes the snapshot as a human-readable report.
+     * The traffic of the server and the listeners are sorted by the most expensive first.
+     *
+     * @param writer Writer - the writer to write to.
+     * @since 1.0.3
+     */
+    public void write(Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        out.println("# NikoAPI packet metrics " + time);
+        out.println();
+        out.println("## Listeners (plugin, listener, calls, avg ns, p50 ns, p99 ns, max ns, total ms)");
+        listeners.stream().sorted(Comparator.comparingLong(ListenerEntry::totalNanos).reversed()).forEach(entry ->
+                out.printf("%s\t%s\t%d\t%d\t%d\t%d\t%d\t%d%n", entry.plugin(), entry.listener(), entry.calls(),
+                        entry.getAverageNanos(), entry.getPercentileNanos(0.5), entry.getPercentileNanos(0.99),
+                        entry.maxNanos(), entry.totalNanos() / 1_000_000));
+        out.println();
+        out.println("## Traffic (player, direction, packet, packets, bytes)");
+        traffic.stream().sorted(Comparator.comparing((TrafficEntry entry) -> entry.player() != null)
+                        .thenComparing(entry -> String.valueOf(entry.player()))
+                        .thenComparing(Comparator.comparingLong(TrafficEntry::bytes).reversed()))
+                .forEach(entry -> out.printf("%s\t%s\t%s\t%d\t%d%n", entry.player() == null ? "*" : entry.player(),
+                        entry.direction(), entry.packetType(), entry.packets(), entry.bytes()));
+        out.flush();
+    }
+
+    /**
+     * Traffic of a packet type.
+     * The bytes are counted on the wire, after compression and before encryption.
+     *
+     * @param player     UUID - the player or null, for the totals of the server.
+     * @param direction  {@link PacketDirection} - the direction of the packets.
+     * @param packetType String - the simple name of the packet class.
+     * @param packets    long - the number of packets.
+     * @param bytes      long - the number of bytes.
+     * @since 1.0.3
+     */
+    public record TrafficEntry(UUID player, PacketDirection direction, String packetType, long packets, long bytes) {
+    }
+
+    /**
+     * Latency histogram of a listener.
+     * Bucket {@code i} counts the calls, which took less than {@code 2^i} nanoseconds.
+     *
+     * @param listener   String - the class name of the listener.
+     * @param plugin     String - the name of the plugin providing the listener or "unknown".
+     * @param calls      long - the number of calls.
+     * @param totalNanos long - the summed up time of all calls.
+     * @param maxNanos   long - the slowest call.
+     * @param buckets    long[] - the histogram buckets.
+     * @since 1.0.3
+     */
+    public record ListenerEntry(String listener, String plugin, long calls, long totalNanos, long maxNanos, long[] buckets) {
+
+        /**
+         * Gets the average time of a call.
+         *
+         * @return long - the average in nanoseconds.
+         * @since 1.0.3
+         */
+        public long getAverageNanos() {
+            return calls == 0 ? 0 : totalNanos / calls;
+        }
+
+        /**
+         * Gets the upper bound of the bucket, which contains the percentile.
+         *
+         * @param percentile double - the percentile between 0 and 1.
+         * @return long - the upper bound in nanoseconds.
+         * @since 1.0.3
+         */
+        public long getPercentileNanos(double percentile) {
+            long rank = (long) Math.ceil(calls * percentile);
+            long count = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                count += buckets[i];
+                if (count >= rank && count > 0)
+                    return i == buckets.length - 1 ? maxNanos : Math.min(maxNanos, 1L << i);
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package chatzis.nikolas.mc.nikoapi.packet.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Striped counter of the packets and bytes of one packet type.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class TrafficCounter {
+
+    private final LongAdder packets = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    void record(int size, boolean packet) {
+        if (packet)
+            packets.increment();
+        if (size > 0)
+            bytes.add(size);
+    }
+
+    long getPackets() {
+        return packets.sum();
+    }
+
+    long getBytes() {
+        return bytes.sum();
+    }
+}
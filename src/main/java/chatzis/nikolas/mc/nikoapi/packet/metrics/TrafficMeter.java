@@ -0,0 +1,193 @@
+package chatzis.nikolas.mc.nikoapi.packet.metrics;
+
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketDirection;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.AttributeKey;
+import org.bukkit.entity.Player;
+
+/**
+ * Measures the size of the frames of a connection.
+ * The handler sits behind the frame splitter, so it sees the frames on the wire,
+ * after compression and before encryption.
+ * <p>
+ * The packet handler passes the packet class to the meter, the encoder and decoder run synchronously in between:
+ * an inbound frame is measured before it is decoded and counted, when the decoded packet arrives at the packet handler.
+ * An outbound packet is marked by the packet handler and counted, when its encoded frame arrives at the meter.
+ * Frames written past the packet handler, like broadcasts, are counted as {@link ByteBuf}.
+ * Inbound frames, which are dropped or consumed in front of the decoder, are counted by their handler with {@link #frameConsumed(Player, Class, ByteBuf)}.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+@ChannelHandler.Sharable
+public final class TrafficMeter extends ChannelDuplexHandler {
+
+    /**
+     * The name of the handler in the pipeline.
+     */
+    public static final String NAME = "nikoapi_traffic_meter";
+    private static final String SPLITTER = "splitter";
+    private static final AttributeKey<ChannelTraffic> TRAFFIC_KEY = AttributeKey.valueOf("nikoapi_traffic");
+    private static final TrafficMeter INSTANCE = new TrafficMeter();
+    private static final PacketMetrics METRICS = PacketMetrics.getInstance();
+
+    private TrafficMeter() {
+    }
+
+    /**
+     * Adds the meter behind the frame splitter of the channel.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @since 1.0.3
+     */
+    public static void install(Channel channel) {
+        if (channel.pipeline().get(NAME) != null || channel.pipeline().get(SPLITTER) == null)
+            return;
+        channel.attr(TRAFFIC_KEY).setIfAbsent(new ChannelTraffic());
+        channel.pipeline().addAfter(SPLITTER, NAME, INSTANCE);
+    }
+
+    /**
+     * Removes the meter from the channel.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @since 1.0.3
+     */
+    public static void uninstall(Channel channel) {
+        if (channel.pipeline().get(NAME) != null)
+            channel.pipeline().remove(NAME);
+        channel.attr(TRAFFIC_KEY).set(null);
+    }
+
+    /**
+     * Counts a decoded packet with the size of its frame.
+     * Called by the packet handler on the event loop of the channel.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @param player  Player - the player or null, if the connection is still logging in.
+     * @param packet  Object - the decoded packet.
+     * @since 1.0.3
+     */
+    public static void packetRead(Channel channel, Player player, Object packet) {
+        if (!METRICS.isEnabled()) return;
+
+        ChannelTraffic traffic = channel.attr(TRAFFIC_KEY).get();
+        int size = 0;
+        if (traffic != null) {
+            size = traffic.inboundBytes;
+            traffic.inboundBytes = 0;
+        }
+        METRICS.recordPacket(player, PacketDirection.INBOUND, packet.getClass(), size);
+    }
+
+    /**
+     * Counts an inbound frame, which never reaches the packet handler, because a handler in front of the decoder
+     * dropped or consumed it. Has to be called before the frame is released.
+     *
+     * @param player Player - the player or null, if the connection is still logging in.
+     * @param type   Class<?> - the class of the packet in the frame or null, if it is unknown.
+     * @param frame  ByteBuf - the frame.
+     * @since 1.0.3
+     */
+    public static void frameConsumed(Player player, Class<?> type, ByteBuf frame) {
+        if (METRICS.isEnabled())
+            METRICS.record(player, PacketDirection.INBOUND, type == null ? ByteBuf.class : type, frame.readableBytes(), true);
+    }
+
+    /**
+     * Measures an inbound frame again, which was held back and is passed on later,
+     * so the packet handler counts it with its own size instead of the size of the last frame.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @param frame   ByteBuf - the frame, which is passed on.
+     * @since 1.0.3
+     */
+    public static void frameResumed(Channel channel, ByteBuf frame) {
+        if (!METRICS.isEnabled()) return;
+
+        ChannelTraffic traffic = channel.attr(TRAFFIC_KEY).get();
+        if (traffic != null)
+            traffic.inboundBytes = frame.readableBytes();
+    }
+
+    /**
+     * Marks the packet, which is about to be encoded.
+     * Called by the packet handler on the event loop of the channel, before the packet is written.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @param player  Player - the player or null, if the connection is still logging in.
+     * @param packet  Object - the packet.
+     * @return boolean - whatever the packet was marked and {@link #endWrite(Channel)} has to be called.
+     * @since 1.0.3
+     */
+    public static boolean beginWrite(Channel channel, Player player, Object packet) {
+        if (!METRICS.isEnabled()) return false;
+
+        ChannelTraffic traffic = channel.attr(TRAFFIC_KEY).get();
+        if (traffic == null) {
+            METRICS.recordPacket(player, PacketDirection.OUTBOUND, packet.getClass(), 0);
+            return false;
+        }
+        traffic.outboundType = packet.getClass();
+        traffic.outboundPlayer = player;
+        traffic.outboundCounted = false;
+        return true;
+    }
+
+    /**
+     * Removes the mark of the written packet.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @since 1.0.3
+     */
+    public static void endWrite(Channel channel) {
+        ChannelTraffic traffic = channel.attr(TRAFFIC_KEY).get();
+        if (traffic != null && traffic.outboundType != null) {
+            // The packet did not reach the encoder, count it without bytes
+            if (!traffic.outboundCounted)
+                METRICS.record(traffic.outboundPlayer, PacketDirection.OUTBOUND, traffic.outboundType, 0, true);
+            traffic.outboundType = null;
+            traffic.outboundPlayer = null;
+        }
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (METRICS.isEnabled() && msg instanceof ByteBuf buf) {
+            ChannelTraffic traffic = ctx.channel().attr(TRAFFIC_KEY).get();
+            if (traffic != null)
+                traffic.inboundBytes = buf.readableBytes();
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (METRICS.isEnabled() && msg instanceof ByteBuf buf) {
+            ChannelTraffic traffic = ctx.channel().attr(TRAFFIC_KEY).get();
+            if (traffic != null && traffic.outboundType != null) {
+                // A bundle is split into several frames, all of them are counted as one bundle
+                METRICS.record(traffic.outboundPlayer, PacketDirection.OUTBOUND, traffic.outboundType, buf.readableBytes(), !traffic.outboundCounted);
+                traffic.outboundCounted = true;
+            } else {
+                METRICS.recordPacket(null, PacketDirection.OUTBOUND, ByteBuf.class, buf.readableBytes());
+            }
+        }
+        super.write(ctx, msg, promise);
+    }
+
+    /**
+     * State of the meter for one channel, only accessed by the event loop of the channel.
+     */
+    private static final class ChannelTraffic {
+        private int inboundBytes;
+        private Class<?> outboundType;
+        private Player outboundPlayer;
+        private boolean outboundCounted;
+    }
+}
@@ -0,0 +1,45 @@
+package chatzis.nikolas.mc.nikoapi.packet.metrics;
+
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketDirection;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Traffic counters of every packet type, split by direction.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class TrafficTable {
+
+    private final Map<PacketDirection, ConcurrentMap<Class<?>, TrafficCounter>> counters;
+
+    TrafficTable() {
+        this.counters = new EnumMap<>(PacketDirection.class);
+        for (PacketDirection direction : PacketDirection.values())
+            counters.put(direction, new ConcurrentHashMap<>());
+    }
+
+    void record(PacketDirection direction, Class<?> type, int size, boolean packet) {
+        ConcurrentMap<Class<?>, TrafficCounter> typeCounters = counters.get(direction);
+        TrafficCounter counter = typeCounters.get(type);
+        if (counter == null)
+            counter = typeCounters.computeIfAbsent(type, t -> new TrafficCounter());
+        counter.record(size, packet);
+    }
+
+    void clear() {
+        counters.values().forEach(Map::clear);
+    }
+
+    void snapshot(UUID player, List<PacketMetricsSnapshot.TrafficEntry> entries) {
+        counters.forEach((direction, typeCounters) -> typeCounters.forEach((type, counter) ->
+                entries.add(new PacketMetricsSnapshot.TrafficEntry(player, direction, type.getSimpleName(),
+                        counter.getPackets(), counter.getBytes()))));
+    }
+}
@@ -0,0 +1,96 @@
+package chatzis.nikolas.mc.nikoapi.packet.payload;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable lookup table of the registered plugin channels.
+ * The channels are looked up by the encoded identifier in the received frame,
+ * so no string is created for a payload.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class PayloadChannelTable {
+
+    static final PayloadChannelTable EMPTY = new PayloadChannelTable(new Entry[0]);
+
+    private final Entry[] slots;
+    private final int mask;
+    private final Map<String, Entry> byName;
+
+    PayloadChannelTable(Entry[] entries) {
+        int capacity = Integer.highestOneBit(Math.max(1, entries.length * 2 - 1)) << 1;
+        this.slots = new Entry[capacity];
+        this.mask = capacity - 1;
+        this.byName = new HashMap<>();
+        for (Entry entry : entries) {
+            int slot = entry.hash & mask;
+            while (slots[slot] != null)
+                slot = (slot + 1) & mask;
+            slots[slot] = entry;
+            byName.put(entry.channel, entry);
+        }
+    }
+
+    /**
+     * Gets the entry of the identifier, which is encoded in the buffer.
+     *
+     * @return {@link Entry} - the entry or null, if the channel is not registered.
+     */
+    Entry get(ByteBuf buf, int index, int length) {
+        int hash = 1;
+        for (int i = index; i < index + length; i++)
+            hash = 31 * hash + buf.getByte(i);
+
+        for (int slot = hash & mask; slots[slot] != null; slot = (slot + 1) & mask) {
+            Entry entry = slots[slot];
+            if (entry.hash == hash && entry.name.length == length && matches(entry.name, buf, index))
+                return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the entry of a namespaced channel.
+     *
+     * @return {@link Entry} - the entry or null, if the channel is not registered.
+     */
+    Entry get(String channel) {
+        return byName.get(channel);
+    }
+
+    private static boolean matches(byte[] name, ByteBuf buf, int index) {
+        for (int i = 0; i < name.length; i++) {
+            if (name[i] != buf.getByte(index + i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * A registered channel with its listeners and the encoded header of its clientbound packet.
+     */
+    static final class Entry {
+
+        final String channel;
+        final byte[] name;
+        final int hash;
+        final byte[] header;
+        final PayloadListener[] listeners;
+        final boolean passOn;
+
+        Entry(String channel, byte[] header, PayloadListener[] listeners, boolean passOn) {
+            this.channel = channel;
+            this.name = channel.getBytes(StandardCharsets.UTF_8);
+            this.hash = Arrays.hashCode(name);
+            this.header = header;
+            this.listeners = listeners;
+            this.passOn = passOn;
+        }
+    }
+}
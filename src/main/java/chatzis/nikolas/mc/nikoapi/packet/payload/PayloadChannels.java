@@ -0,0 +1,318 @@
+package chatzis.nikolas.mc.nikoapi.packet.payload;
+
+import chatzis.nikolas.mc.nikoapi.util.Utils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import net.minecraft.network.Connection;
+import net.minecraft.network.ConnectionProtocol;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.PacketFlow;
+import net.minecraft.network.protocol.game.ClientboundCustomPayloadPacket;
+import net.minecraft.network.protocol.game.ServerboundCustomPayloadPacket;
+import net.minecraft.resources.ResourceLocation;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Receives and sends custom payloads of plugin channels without copying them.
+ * <p>
+ * Bukkit copies every payload into a byte array and passes it on the main thread.
+ * The {@link PayloadHandler} instead reads the payloads of the registered channels from the received frame
+ * in front of the decoder and passes them as read-only slices to the {@link PayloadListener}s on the event loop.
+ * Those payloads are neither decoded nor passed to Bukkit, unless a listener is registered with pass on.
+ * Channels are looked up in a table, which is rebuilt on every registration.
+ * <p>
+ * {@link #send(Player, String, ByteBuf)} writes the payload behind the encoder,
+ * only the packet id and the channel are encoded in front of it.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public class PayloadChannels {
+
+    /**
+     * The maximum size of a payload sent to the client.
+     */
+    public static final int MAX_PAYLOAD_SIZE = 1048576;
+    private static final Logger LOG = Logger.getLogger(PayloadChannels.class.getSimpleName());
+    private static final String ENCODER = "encoder";
+    private static final PayloadChannels instance = new PayloadChannels();
+
+    /**
+     * Get the instance of this class
+     *
+     * @return PayloadChannels - A instance of {@link PayloadChannels}
+     */
+    public static PayloadChannels getInstance() {
+        return instance;
+    }
+
+    private final int serverboundId;
+    private final int clientboundId;
+    private final Map<String, List<Registration>> registrations;
+    private final LongAdder received;
+    private final LongAdder receivedBytes;
+    private final LongAdder sent;
+    private final LongAdder sentBytes;
+    private volatile PayloadChannelTable table;
+
+    private PayloadChannels() {
+        this.serverboundId = resolveServerboundId();
+        this.clientboundId = resolveClientboundId();
+        this.registrations = new LinkedHashMap<>();
+        this.received = new LongAdder();
+        this.receivedBytes = new LongAdder();
+        this.sent = new LongAdder();
+        this.sentBytes = new LongAdder();
+        this.table = PayloadChannelTable.EMPTY;
+    }
+
+    /**
+     * Registers a listener for a channel.
+     * The payloads of the channel are not passed to Bukkit anymore.
+     *
+     * @param channel  String - the namespaced channel, like "myplugin:telemetry".
+     * @param listener {@link PayloadListener} - the listener.
+     * @since 1.0.3
+     */
+    public void register(String channel, PayloadListener listener) {
+        register(channel, listener, false);
+    }
+
+    /**
+     * Registers a listener for a channel.
+     *
+     * @param channel  String - the namespaced channel, like "myplugin:telemetry".
+     * @param listener {@link PayloadListener} - the listener.
+     * @param passOn   boolean - whatever the payloads are still passed to Bukkit afterward.
+     * @since 1.0.3
+     */
+    public synchronized void register(String channel, PayloadListener listener, boolean passOn) {
+        registrations.computeIfAbsent(normalize(channel), key -> new ArrayList<>()).add(new Registration(listener, passOn));
+        rebuild();
+    }
+
+    /**
+     * Unregisters a listener of a channel.
+     *
+     * @param channel  String - the namespaced channel.
+     * @param listener {@link PayloadListener} - the listener.
+     * @since 1.0.3
+     */
+    public synchronized void unregister(String channel, PayloadListener listener) {
+        String name = normalize(channel);
+        List<Registration> channelRegistrations = registrations.get(name);
+        if (channelRegistrations == null)
+            return;
+        channelRegistrations.removeIf(registration -> registration.listener == listener);
+        if (channelRegistrations.isEmpty())
+            registrations.remove(name);
+        rebuild();
+    }
+
+    /**
+     * Checks if a listener is registered for a channel.
+     *
+     * @param channel String - the namespaced channel.
+     * @return boolean - whatever the channel is registered.
+     * @since 1.0.3
+     */
+    public boolean isRegistered(String channel) {
+        ResourceLocation location = ResourceLocation.tryParse(channel);
+        return location != null && table.get(location.toString()) != null;
+    }
+
+    /**
+     * Sends a payload to the player and flushes the channel.
+     * The payload is released, after it is written.
+     * May be called from any thread.
+     *
+     * @param player  Player - the player.
+     * @param channel String - the namespaced channel.
+     * @param payload ByteBuf - the payload.
+     * @return boolean - whatever the payload is sent, false if the player is not playing.
+     * @since 1.0.3
+     */
+    public boolean send(Player player, String channel, ByteBuf payload) {
+        return send(Utils.getChannel(player), channel, payload);
+    }
+
+    /**
+     * Sends a payload to the channel of a player and flushes it.
+     * The payload is released, after it is written.
+     * May be called from any thread.
+     *
+     * @param nettyChannel Channel - the channel of the player.
+     * @param channel      String - the namespaced channel.
+     * @param payload      ByteBuf - the payload.
+     * @return boolean - whatever the payload is sent, false if the channel is not in the play protocol.
+     * @since 1.0.3
+     */
+    public boolean send(Channel nettyChannel, String channel, ByteBuf payload) {
+        ChannelHandlerContext encoderContext = getEncoderContext(nettyChannel);
+        if (encoderContext == null || clientboundId < 0) {
+            payload.release();
+            return false;
+        }
+        if (payload.readableBytes() > MAX_PAYLOAD_SIZE) {
+            int size = payload.readableBytes();
+            payload.release();
+            throw new IllegalArgumentException("Payload may not be larger than " + MAX_PAYLOAD_SIZE + " bytes, but is " + size);
+        }
+
+        PayloadChannelTable.Entry entry = table.get(normalize(channel));
+        byte[] header = entry != null ? entry.header : encodeHeader(clientboundId, normalize(channel));
+        CompositeByteBuf frame = encoderContext.alloc().compositeBuffer(2);
+        frame.addComponents(true, Unpooled.wrappedBuffer(header), payload);
+        sent.increment();
+        sentBytes.add(payload.readableBytes());
+        encoderContext.writeAndFlush(frame, encoderContext.voidPromise());
+        return true;
+    }
+
+    /**
+     * Gets the number of payloads, which were passed to the listeners.
+     *
+     * @return long - the received payloads.
+     * @since 1.0.3
+     */
+    public long getReceived() {
+        return received.sum();
+    }
+
+    /**
+     * Gets the number of bytes of the payloads, which were passed to the listeners.
+     *
+     * @return long - the received bytes.
+     * @since 1.0.3
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.sum();
+    }
+
+    /**
+     * Gets the number of payloads, which were sent.
+     *
+     * @return long - the sent payloads.
+     * @since 1.0.3
+     */
+    public long getSent() {
+        return sent.sum();
+    }
+
+    /**
+     * Gets the number of bytes of the payloads, which were sent.
+     *
+     * @return long - the sent bytes.
+     * @since 1.0.3
+     */
+    public long getSentBytes() {
+        return sentBytes.sum();
+    }
+
+    PayloadChannelTable getTable() {
+        return table;
+    }
+
+    int getServerboundId() {
+        return serverboundId;
+    }
+
+    /**
+     * Passes a payload to the listeners of the channel.
+     *
+     * @return boolean - whatever the payload has to be passed on.
+     */
+    boolean dispatch(PayloadChannelTable.Entry entry, Player player, ByteBuf payload) {
+        received.increment();
+        receivedBytes.add(payload.readableBytes());
+        for (PayloadListener listener : entry.listeners) {
+            try {
+                listener.payloadReceived(player, entry.channel, payload);
+            } catch (RuntimeException exception) {
+                LOG.log(Level.WARNING, "Error in payload listener of {0}: {1}",
+                        new String[]{entry.channel, String.valueOf(exception.getMessage())});
+            } finally {
+                payload.readerIndex(0);
+            }
+        }
+        return entry.passOn;
+    }
+
+    private void rebuild() {
+        List<PayloadChannelTable.Entry> entries = new ArrayList<>(registrations.size());
+        registrations.forEach((channel, channelRegistrations) -> {
+            PayloadListener[] listeners = new PayloadListener[channelRegistrations.size()];
+            boolean passOn = false;
+            for (int i = 0; i < listeners.length; i++) {
+                listeners[i] = channelRegistrations.get(i).listener;
+                passOn |= channelRegistrations.get(i).passOn;
+            }
+            entries.add(new PayloadChannelTable.Entry(channel, encodeHeader(clientboundId, channel), listeners, passOn));
+        });
+        this.table = new PayloadChannelTable(entries.toArray(new PayloadChannelTable.Entry[0]));
+    }
+
+    private static ChannelHandlerContext getEncoderContext(Channel channel) {
+        if (channel == null || !channel.isOpen()
+                || channel.attr(Connection.ATTRIBUTE_PROTOCOL).get() != ConnectionProtocol.PLAY)
+            return null;
+        return channel.pipeline().context(ENCODER);
+    }
+
+    /**
+     * Encodes the packet id and the channel, like the vanilla encoder does in front of the payload.
+     */
+    private static byte[] encodeHeader(int packetId, String channel) {
+        FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.buffer());
+        try {
+            buffer.writeVarInt(packetId);
+            buffer.writeUtf(channel);
+            return ByteBufUtil.getBytes(buffer);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private static String normalize(String channel) {
+        ResourceLocation location = ResourceLocation.tryParse(channel);
+        if (location == null)
+            throw new IllegalArgumentException("Invalid channel: " + channel);
+        return location.toString();
+    }
+
+    private static int resolveServerboundId() {
+        Map<Class<?>, Integer> packetIds = new HashMap<>();
+        try {
+            ConnectionProtocol.PLAY.getPacketsByIds(PacketFlow.SERVERBOUND).forEach((id, packetClass) -> packetIds.put(packetClass, id));
+        } catch (RuntimeException exception) {
+            LOG.log(Level.WARNING, "Could not resolve the serverbound payload id: {0}", exception.getMessage());
+        }
+        return packetIds.getOrDefault(ServerboundCustomPayloadPacket.class, -1);
+    }
+
+    private static int resolveClientboundId() {
+        try {
+            return ConnectionProtocol.PLAY.getPacketId(PacketFlow.CLIENTBOUND,
+                    new ClientboundCustomPayloadPacket(ClientboundCustomPayloadPacket.BRAND, new FriendlyByteBuf(Unpooled.EMPTY_BUFFER)));
+        } catch (RuntimeException exception) {
+            LOG.log(Level.WARNING, "Could not resolve the clientbound payload id: {0}", exception.getMessage());
+            return -1;
+        }
+    }
+
+    private record Registration(PayloadListener listener, boolean passOn) {
+    }
+}
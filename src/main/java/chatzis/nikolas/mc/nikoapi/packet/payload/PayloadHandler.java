@@ -0,0 +1,160 @@
+package chatzis.nikolas.mc.nikoapi.packet.payload;
+
+import chatzis.nikolas.mc.nikoapi.packet.metrics.TrafficMeter;
+import chatzis.nikolas.mc.nikoapi.player.PlayerPacketReader;
+import chatzis.nikolas.mc.nikoapi.util.Utils;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.AttributeKey;
+import net.minecraft.network.Connection;
+import net.minecraft.network.ConnectionProtocol;
+import net.minecraft.network.protocol.game.ServerboundCustomPayloadPacket;
+import org.bukkit.entity.Player;
+
+/**
+ * Passes the custom payloads of the registered channels to the {@link PayloadChannels}.
+ * The handler sits behind the frame splitter and in front of the decompressor like the rate limiter,
+ * so payloads below the compression threshold are read from the frame without decoding it.
+ * Compressed payloads are passed to the listeners by the packet handler after decoding, see {@link #packetRead(Channel, Player, Object)}.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+@ChannelHandler.Sharable
+public final class PayloadHandler extends ChannelInboundHandlerAdapter {
+
+    /**
+     * The name of the handler in the pipeline.
+     */
+    public static final String NAME = "nikoapi_payload";
+    private static final String SPLITTER = "splitter";
+    private static final String DECOMPRESS = "decompress";
+    private static final AttributeKey<ChannelPayloads> PAYLOADS_KEY = AttributeKey.valueOf("nikoapi_payloads");
+    private static final PayloadHandler INSTANCE = new PayloadHandler();
+    private static final PayloadChannels CHANNELS = PayloadChannels.getInstance();
+
+    private PayloadHandler() {
+    }
+
+    /**
+     * Adds the handler behind the frame splitter of the channel.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @since 1.0.3
+     */
+    public static void install(Channel channel) {
+        if (channel.pipeline().get(NAME) != null || channel.pipeline().get(SPLITTER) == null)
+            return;
+        channel.attr(PAYLOADS_KEY).setIfAbsent(new ChannelPayloads());
+        channel.pipeline().addAfter(SPLITTER, NAME, INSTANCE);
+    }
+
+    /**
+     * Removes the handler from the channel.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @since 1.0.3
+     */
+    public static void uninstall(Channel channel) {
+        if (channel.pipeline().get(NAME) != null)
+            channel.pipeline().remove(NAME);
+        channel.attr(PAYLOADS_KEY).set(null);
+    }
+
+    /**
+     * Passes a decoded payload of a registered channel to the listeners.
+     * Called by the packet handler on the event loop of the channel for payloads, which were compressed.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @param player  Player - the player or null, if the connection is still logging in.
+     * @param packet  Object - the decoded packet.
+     * @return boolean - whatever the packet was consumed and must not be passed on.
+     * @since 1.0.3
+     */
+    public static boolean packetRead(Channel channel, Player player, Object packet) {
+        if (!(packet instanceof ServerboundCustomPayloadPacket payloadPacket))
+            return false;
+        // The payload was already passed to the listeners from its frame
+        ChannelPayloads payloads = channel.attr(PAYLOADS_KEY).get();
+        if (payloads != null && payloads.dispatched) {
+            payloads.dispatched = false;
+            return false;
+        }
+        PayloadChannelTable table = CHANNELS.getTable();
+        PayloadChannelTable.Entry entry = table.get(payloadPacket.getIdentifier().toString());
+        if (entry == null)
+            return false;
+
+        ByteBuf data = payloadPacket.getData();
+        if (CHANNELS.dispatch(entry, player, data.slice().asReadOnly()))
+            return false;
+        data.release();
+        return true;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        ChannelPayloads payloads = ctx.channel().attr(PAYLOADS_KEY).get();
+        if (payloads == null || !(msg instanceof ByteBuf frame)
+                || ctx.channel().attr(Connection.ATTRIBUTE_PROTOCOL).get() != ConnectionProtocol.PLAY) {
+            super.channelRead(ctx, msg);
+            return;
+        }
+
+        // Compression is never switched off again, so the pipeline is only searched until it is on
+        if (!payloads.compressed)
+            payloads.compressed = ctx.pipeline().get(DECOMPRESS) != null;
+        if (!readPayload(ctx.channel(), payloads, frame))
+            super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        ctx.channel().attr(PAYLOADS_KEY).set(null);
+        super.channelInactive(ctx);
+    }
+
+    /**
+     * Reads the payload of a registered channel from an uncompressed frame and passes it to the listeners.
+     *
+     * @return boolean - whatever the frame was consumed and released.
+     */
+    private static boolean readPayload(Channel channel, ChannelPayloads payloads, ByteBuf frame) {
+        long packetId = Utils.peekPacketId(frame, payloads.compressed);
+        if (packetId == -1 || (int) packetId != CHANNELS.getServerboundId())
+            return false;
+        long nameLength = Utils.peekVarInt(frame, (int) (packetId >>> 32));
+        if (nameLength == -1)
+            return false;
+        int nameIndex = (int) (nameLength >>> 32);
+        int payloadIndex = nameIndex + (int) nameLength;
+        if ((int) nameLength < 0 || payloadIndex > frame.writerIndex())
+            return false;
+
+        PayloadChannelTable.Entry entry = CHANNELS.getTable().get(frame, nameIndex, (int) nameLength);
+        if (entry == null)
+            return false;
+        if (payloads.player == null)
+            payloads.player = PlayerPacketReader.getPlayer(channel);
+        ByteBuf payload = frame.slice(payloadIndex, frame.writerIndex() - payloadIndex).asReadOnly();
+        if (CHANNELS.dispatch(entry, payloads.player, payload)) {
+            payloads.dispatched = true;
+            return false;
+        }
+        TrafficMeter.frameConsumed(payloads.player, ServerboundCustomPayloadPacket.class, frame);
+        frame.release();
+        return true;
+    }
+
+    /**
+     * State of the handler for one channel, only accessed by the event loop of the channel.
+     */
+    private static final class ChannelPayloads {
+        private Player player;
+        private boolean compressed;
+        private boolean dispatched;
+    }
+}
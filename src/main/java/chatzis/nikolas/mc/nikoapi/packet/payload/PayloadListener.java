@@ -0,0 +1,27 @@
+package chatzis.nikolas.mc.nikoapi.packet.payload;
+
+import io.netty.buffer.ByteBuf;
+import org.bukkit.entity.Player;
+
+/**
+ * Listener for the custom payloads of a plugin channel, see {@link PayloadChannels}.
+ * The listener is called on the event loop of the player, so it must not block.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+@FunctionalInterface
+public interface PayloadListener {
+
+    /**
+     * Will be called, if the player sent a payload on the channel.
+     * The payload is a read-only slice of the received frame and only valid during the call,
+     * use {@link ByteBuf#retainedSlice()} or copy it to keep it.
+     *
+     * @param player  Player - the player, who sent the payload.
+     * @param channel String - the namespaced channel, like it was registered.
+     * @param payload ByteBuf - the payload.
+     */
+    void payloadReceived(Player player, String channel, ByteBuf payload);
+
+}
@@ -1,34 +1,49 @@
 package chatzis.nikolas.mc.nikoapi.packet.reader;
 
 import chatzis.nikolas.mc.nikoapi.NikoAPI;
+import chatzis.nikolas.mc.nikoapi.packet.metrics.PacketMetrics;
 import chatzis.nikolas.mc.nikoapi.player.PlayerPacketReader;
-import chatzis.nikolas.mc.nikoapi.util.ReflectionHelper;
 import chatzis.nikolas.mc.nikoapi.util.Utils;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
 import net.minecraft.network.protocol.game.ClientboundForgetLevelChunkPacket;
 import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
 import net.minecraft.network.protocol.game.ServerboundInteractPacket;
+import net.minecraft.world.InteractionHand;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.ClickType;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 /**
  * The APIListenerManager class holds all custom listeners for packages.
  * If one of the following packages got triggered by a player,
  * the listener's method (event) will be called.
- * The Plugin is able to return true to cancel the package.
  * If you want to unregister the listener call unregister(listener)
  * <p>
  * Available PackageListener:
  * {@link PacketChunkLoadListener}, {@link PacketChunkUnloadListener} and {@link PacketEntityUseListener}.
+ * A {@link PacketChunkBatchListener} receives the chunks of a player once per tick instead of a call per chunk.
+ * <p>
+ * Any other packet class can be subscribed to with {@link #subscribe(Class, PacketDirection, PacketSubscriber)}.
+ * The subscriber receives a {@link PacketEvent}, which is able to cancel, replace or delay the package.
+ * Only packets of subscribed classes create an event, every other packet passes after a single lookup.
+ * The packets inside a {@link ClientboundBundlePacket}, like the spawn packets of the entity tracker,
+ * are dispatched one by one, see {@link #packetWrite(Player, Object)}.
+ * <p>
+ * Listeners are called on the netty event loop of the player by default.
+ * Slow listeners should return {@link DeliveryMode#ASYNC}, so they are called by the {@link AsyncListenerExecutor}.
+ * Listeners, which need the main thread, should return {@link DeliveryMode#MAIN} instead of scheduling a task per event.
  *
  * @author Niko
  * @since 0.0.1
  */
 public class APIListenerManager {
 
-	private static APIListenerManager instance;
+	private static final APIListenerManager instance = new APIListenerManager();
 
 	/**
 	 * Get the instance of this class
@@ -36,37 +51,61 @@ public class APIListenerManager {
 	 * @return APIListenerManager - A instance of {@link APIListenerManager}
 	 */
 	public static APIListenerManager getInstance() {
-		if (instance == null)
-			instance = new APIListenerManager();
 		return instance;
 	}
 
-	private final Map<PacketTypes, List<IAPIListener>> packetListener;
+	// Snapshot read by the netty threads, only replaced as a whole under the lock of this manager
+	private volatile PacketDispatchTable dispatchTable;
+	private final AsyncListenerExecutor asyncExecutor;
+	private final MainThreadDispatcher mainThreadDispatcher;
+	private final PacketMetrics metrics;
+	private final ChunkBatchCollector chunkBatches;
 
 	/**
-	 * Instantiate the ArrayLists of the Listeners
+	 * Instantiate the empty dispatch table
 	 */
 	private APIListenerManager() {
-		this.packetListener = new EnumMap<>(PacketTypes.class);
+		this.dispatchTable = PacketDispatchTable.EMPTY;
+		this.asyncExecutor = new AsyncListenerExecutor();
+		this.mainThreadDispatcher = new MainThreadDispatcher();
+		this.metrics = PacketMetrics.getInstance();
+		this.chunkBatches = new ChunkBatchCollector(this, metrics);
 	}
 
 	/**
 	 * Register a listener.
-	 * Register either a {@link PacketChunkLoadListener},
-	 * {@link PacketChunkUnloadListener} or a {@link PacketEntityUseListener}.
+	 * Register either a {@link PacketChunkLoadListener}, {@link PacketChunkUnloadListener},
+	 * {@link PacketChunkBatchListener} or a {@link PacketEntityUseListener}.
 	 * The event method in it will be called, when the package has been triggered.
+	 * The listener becomes visible for all of its types at once.
 	 *
 	 * @param listener IAPIListener - The listener to register
 	 */
 	public void registerListener(IAPIListener listener) {
+		if (listener instanceof PacketChunkBatchListener batchListener)
+			chunkBatches.add(batchListener);
+
+		List<PacketSubscription> subscriptions = new ArrayList<>();
 		for (PacketTypes type : listener.getListenerType()) {
-			List<IAPIListener> listeners = this.packetListener.getOrDefault(type, new ArrayList<>());
-			listeners.add(listener);
-			this.packetListener.put(type, listeners);
+			switch (type) {
+				case LOAD -> {
+					if (listener instanceof PacketChunkLoadListener loadListener)
+						subscriptions.add(new PacketSubscription(listener, type.getPacketClass(), type.getDirection(), DeliveryMode.NETTY,
+								(PacketSubscriber<ClientboundLevelChunkWithLightPacket>) event -> onChunkLoad(event, loadListener)));
+				}
+				case UNLOAD -> {
+					if (listener instanceof PacketChunkUnloadListener unloadListener)
+						subscriptions.add(new PacketSubscription(listener, type.getPacketClass(), type.getDirection(), DeliveryMode.NETTY,
+								(PacketSubscriber<ClientboundForgetLevelChunkPacket>) event -> onChunkUnload(event, unloadListener)));
+				}
+				case INTERACT -> {
+					if (listener instanceof PacketEntityUseListener useListener)
+						subscriptions.add(new PacketSubscription(listener, type.getPacketClass(), type.getDirection(), DeliveryMode.NETTY,
+								(PacketSubscriber<ServerboundInteractPacket>) event -> onInteract(event, useListener)));
+				}
+			}
 		}
-
-		if (!PlayerPacketReader.isEnabled())
-			PlayerPacketReader.enable();
+		register(subscriptions.toArray(new PacketSubscription[0]));
 	}
 
 	/**
@@ -75,119 +114,357 @@ public class APIListenerManager {
 	 *
 	 * @param listener IAPIListener - Listener to remove
 	 */
-	public void unRegisterListener(IAPIListener listener) {
-		for (PacketTypes type : listener.getListenerType()) {
-			if (!this.packetListener.containsKey(type)) continue;
-			List<IAPIListener> listeners = this.packetListener.get(type);
-			listeners.remove(listener);
-			if (listeners.isEmpty())
-				this.packetListener.remove(type);
-			else
-				this.packetListener.put(type, listeners);
+	public synchronized void unRegisterListener(IAPIListener listener) {
+		this.dispatchTable = dispatchTable.without(listener);
+		if (listener instanceof PacketChunkBatchListener batchListener)
+			chunkBatches.remove(batchListener);
+	}
+
+	/**
+	 * Subscribes to a packet class, which is called on the netty event loop of the player.
+	 *
+	 * @param packetClass Class<P> - the concrete class of the packet.
+	 * @param direction   {@link PacketDirection} - the direction the packet is sent.
+	 * @param subscriber  {@link PacketSubscriber} - the subscriber.
+	 * @param <P>         the packet class.
+	 * @return {@link PacketSubscription} - the handle to unsubscribe with.
+	 * @since 1.0.3
+	 */
+	public <P extends Packet<?>> PacketSubscription subscribe(Class<P> packetClass, PacketDirection direction, PacketSubscriber<P> subscriber) {
+		return subscribe(packetClass, direction, DeliveryMode.NETTY, subscriber);
+	}
+
+	/**
+	 * Subscribes to a packet class.
+	 *
+	 * @param packetClass  Class<P> - the concrete class of the packet.
+	 * @param direction    {@link PacketDirection} - the direction the packet is sent.
+	 * @param deliveryMode {@link DeliveryMode} - the thread the subscriber is called on.
+	 * @param subscriber   {@link PacketSubscriber} - the subscriber.
+	 * @param <P>          the packet class.
+	 * @return {@link PacketSubscription} - the handle to unsubscribe with.
+	 * @since 1.0.3
+	 */
+	public <P extends Packet<?>> PacketSubscription subscribe(Class<P> packetClass, PacketDirection direction, DeliveryMode deliveryMode, PacketSubscriber<P> subscriber) {
+		PacketSubscription subscription = new PacketSubscription(null, packetClass, direction, deliveryMode, subscriber);
+		register(subscription);
+		return subscription;
+	}
+
+	/**
+	 * Removes a subscription.
+	 *
+	 * @param subscription {@link PacketSubscription} - the subscription to remove.
+	 * @since 1.0.3
+	 */
+	public synchronized void unsubscribe(PacketSubscription subscription) {
+		this.dispatchTable = dispatchTable.without(subscription.getOwner());
+	}
+
+	private void register(PacketSubscription... subscriptions) {
+		synchronized (this) {
+			this.dispatchTable = dispatchTable.with(subscriptions);
 		}
+
+		if (!PlayerPacketReader.isEnabled())
+			PlayerPacketReader.enable();
 	}
 
 	/**
-	 * Event gets triggered, when a player
+	 * Event gets triggered, when a packet is sent to a player
+	 * <p>
+	 * A bundle is dispatched as a whole first and afterward every packet of it, which has subscribers.
+	 * Cancelled packets are removed from the bundle and replaced packets are exchanged, the bundle is cancelled, when it gets empty.
+	 * The client applies a bundle at once, so the packets of a bundle can't be delayed on their own:
+	 * the bundle is delayed by the longest delay of its packets.
 	 *
-	 * @param player Player - player that triggered the event
+	 * @param player Player - player that triggered the event or null, if the connection is still logging in
 	 * @param packet Object - Packet that got triggered
+	 * @return {@link PacketEvent} - the event or null, if nobody subscribed to the packet
 	 */
-	public void packetWrite(Player player, Object packet) {
-		if (!(packet instanceof ClientboundLevelChunkWithLightPacket || packet instanceof ClientboundForgetLevelChunkPacket))
-			return;
-		PacketTypes type = PacketTypes.getByPacketClass(packet);
-		if (type == null || !packetListener.containsKey(type)) return;
+	public PacketEvent<?> packetWrite(Player player, Object packet) {
+		PacketEvent<?> event = dispatch(player, PacketDirection.OUTBOUND, packet);
+		if (event != null && event.isCancelled())
+			return event;
+		Object result = event == null ? packet : event.getPacket();
+		return result instanceof ClientboundBundlePacket bundle ? dispatchBundle(player, bundle, event) : event;
+	}
 
-		for (IAPIListener listener : packetListener.get(type)) {
-			if (listener instanceof PacketChunkLoadListener && packet instanceof ClientboundLevelChunkWithLightPacket chunkPacket) {
-				try {
-					((PacketChunkLoadListener) listener).loadChunk(player, Utils.getChunkId(chunkPacket.getX(), chunkPacket.getZ()));
-				} catch (Exception exception) {
-					NikoAPI.getInstance().getLogger().log(Level.WARNING, "Error while executing chunk load listener for {0} with {1}: {2}",
-							new String[]{packet.getClass().getSimpleName(), exception.getClass().getSimpleName(), exception.getMessage()});
-				}
-			} else if (listener instanceof PacketChunkUnloadListener && packet instanceof ClientboundForgetLevelChunkPacket chunkPacket) {
+	/**
+	 * Gets called with every packet, which passed the subscribers and is written to the channel of a player.
+	 * The chunk packets are collected for the {@link PacketChunkBatchListener}s.
+	 *
+	 * @param player Player - the player, who receives the packet
+	 * @param packet Object - the packet, which is written
+	 * @since 1.0.3
+	 */
+	public void packetSent(Player player, Object packet) {
+		chunkBatches.packetSent(player, packet);
+	}
+
+	/**
+	 * Event gets triggered, when a player sends a packet to the server
+	 *
+	 * @param player Player - player that triggered the event or null, if the connection is still logging in
+	 * @param packet Object - Packet that got triggered
+	 * @return {@link PacketEvent} - the event or null, if nobody subscribed to the packet
+	 */
+	public PacketEvent<?> packetRead(Player player, Object packet) {
+		return dispatch(player, PacketDirection.INBOUND, packet);
+	}
+
+	@SuppressWarnings("unchecked")
+	private PacketEvent<?> dispatch(Player player, PacketDirection direction, Object packet) {
+		PacketSubscription[] subscriptions = dispatchTable.get(direction, packet.getClass());
+		if (subscriptions == null) return null;
+
+		PacketEvent<Packet<?>> event = new PacketEvent<>(player, direction, (Packet<?>) packet);
+		boolean deferred = false;
+		for (PacketSubscription subscription : subscriptions) {
+			if (subscription.getDeliveryMode() != DeliveryMode.NETTY)
+				deferred = true;
+			else
+				call(subscription, (PacketSubscriber<Packet<?>>) subscription.getSubscriber(), event);
+		}
+
+		if (deferred && player != null) {
+			event.setReadOnly();
+			for (PacketSubscription subscription : subscriptions) {
+				if (subscription.getDeliveryMode() == DeliveryMode.NETTY)
+					continue;
 				try {
-					((PacketChunkUnloadListener) listener).unloadChunk(player, Utils.getChunkId(chunkPacket.getX(), chunkPacket.getZ()));
+					deliver(player, subscription.getDeliveryMode(), null, () -> call(subscription, (PacketSubscriber<Packet<?>>) subscription.getSubscriber(), event));
 				} catch (Exception exception) {
-					NikoAPI.getInstance().getLogger().log(Level.WARNING, "Error while executing chunk un load listener for {0} with {1}: {2}",
-							new String[]{packet.getClass().getSimpleName(), exception.getClass().getSimpleName(), exception.getMessage()});
+					NikoAPI.getInstance().getLogger().log(Level.WARNING, "Error while delivering packet subscriber for {0} with {1}: {2}",
+							new String[]{subscription.getPacketClass().getSimpleName(), exception.getClass().getSimpleName(), exception.getMessage()});
 				}
 			}
 		}
+		return event;
 	}
 
-	public void packetRead(Player player, Object packet) {
-		if (!(packet instanceof ServerboundInteractPacket interactPacket))
-			return;
-		PacketTypes type = PacketTypes.getByPacketClass(packet);
-		if (type != PacketTypes.INTERACT || !packetListener.containsKey(type)) return; // ONLY INTERACT IS READ CURRENT PACKET
+	/**
+	 * Dispatches the packets of a bundle and rebuilds it with the results.
+	 *
+	 * @return PacketEvent<?> - the event of the bundle or the given event, if nobody subscribed to a packet of the bundle.
+	 */
+	@SuppressWarnings("unchecked")
+	private PacketEvent<?> dispatchBundle(Player player, ClientboundBundlePacket bundle, PacketEvent<?> bundleEvent) {
+		PacketDispatchTable table = dispatchTable;
+		boolean subscribed = false;
+		for (Packet<ClientGamePacketListener> subPacket : bundle.subPackets()) {
+			if (table.get(PacketDirection.OUTBOUND, subPacket.getClass()) != null) {
+				subscribed = true;
+				break;
+			}
+		}
+		if (!subscribed) return bundleEvent;
+
+		long delayNanos = bundleEvent == null ? 0 : bundleEvent.getDelayNanos();
+		boolean changed = false;
+		List<Packet<ClientGamePacketListener>> packets = new ArrayList<>();
+		for (Packet<ClientGamePacketListener> subPacket : bundle.subPackets()) {
+			PacketEvent<?> subEvent = dispatch(player, PacketDirection.OUTBOUND, subPacket);
+			if (subEvent == null) {
+				packets.add(subPacket);
+				continue;
+			}
+			delayNanos = Math.max(delayNanos, subEvent.getDelayNanos());
+			if (subEvent.isCancelled()) {
+				changed = true;
+				continue;
+			}
+			Packet<ClientGamePacketListener> result = (Packet<ClientGamePacketListener>) subEvent.getPacket();
+			changed |= result != subPacket;
+			packets.add(result);
+		}
 
-		String action;
+		PacketEvent<Packet<?>> event = new PacketEvent<>(player, PacketDirection.OUTBOUND, changed && !packets.isEmpty() ? new ClientboundBundlePacket(packets) : bundle);
+		event.setCancelled(packets.isEmpty());
+		if (delayNanos > 0)
+			event.setDelay(delayNanos, TimeUnit.NANOSECONDS);
+		return event;
+	}
 
-		Object actionInterfaceInstance = ReflectionHelper.get(interactPacket, "b");
+	private void call(PacketSubscription subscription, PacketSubscriber<Packet<?>> subscriber, PacketEvent<Packet<?>> event) {
+		// Adapters of an IAPIListener are timed by the listener call itself
+		long start = subscription.getOwner() == subscription ? metrics.startTimer() : 0;
+		try {
+			subscriber.onPacket(event);
+		} catch (Exception exception) {
+			NikoAPI.getInstance().getLogger().log(Level.WARNING, "Error while executing packet subscriber for {0} with {1}: {2}",
+					new String[]{subscription.getPacketClass().getSimpleName(), exception.getClass().getSimpleName(), exception.getMessage()});
+		} finally {
+			metrics.stopTimer(subscriber.getClass(), start);
+		}
+	}
 
-		if (actionInterfaceInstance == null) {
-			NikoAPI.getInstance().getLogger().warning("Could not get the action of the InteractionPacket");
+	private void onChunkLoad(PacketEvent<ClientboundLevelChunkWithLightPacket> event, PacketChunkLoadListener listener) {
+		Player player = event.getPlayer();
+		if (player == null) return;
+		int x = event.getPacket().getX();
+		int z = event.getPacket().getZ();
+		// The int id collides in large worlds, so it is only computed for the listener
+		deliver(player, listener.getDeliveryMode(), new CoalesceKey(listener, PacketTypes.LOAD, Utils.getChunkKey(x, z)), () -> loadChunk(player, listener, Utils.getChunkId(x, z)));
+	}
+
+	private void onChunkUnload(PacketEvent<ClientboundForgetLevelChunkPacket> event, PacketChunkUnloadListener listener) {
+		Player player = event.getPlayer();
+		if (player == null) return;
+		int x = event.getPacket().getX();
+		int z = event.getPacket().getZ();
+		// The int id collides in large worlds, so it is only computed for the listener
+		deliver(player, listener.getDeliveryMode(), new CoalesceKey(listener, PacketTypes.UNLOAD, Utils.getChunkKey(x, z)), () -> unloadChunk(player, listener, Utils.getChunkId(x, z)));
+	}
+
+	private void onInteract(PacketEvent<ServerboundInteractPacket> event, PacketEntityUseListener listener) {
+		// The listeners are only called with a player, like the deferred subscribers
+		Player player = event.getPlayer();
+		if (player == null) return;
+		if (!InteractPacketDecoder.isAvailable()) {
+			NikoAPI.getInstance().getLogger().warning("Could not decode the InteractionPacket");
 			return;
 		}
 
-		Object actionObject = ReflectionHelper.invokeMethod(actionInterfaceInstance.getClass(), "a", actionInterfaceInstance);
-		action = actionObject == null ? "INTERACT" : actionObject.toString();
+		ServerboundInteractPacket interactPacket = event.getPacket();
+		InteractPacketDecoder.Action action = InteractPacketDecoder.getAction(interactPacket);
 
 		// Action is interact_at that is called with interacting
-		if (action.equalsIgnoreCase("c") || action.equalsIgnoreCase("interact_at"))
+		if (action == InteractPacketDecoder.Action.INTERACT_AT)
 			return;
 
-		Integer entityId = ReflectionHelper.get(interactPacket, "a");
-		if (entityId == null) {
-			NikoAPI.getInstance().getLogger().warning("Could not determine the entityId for NPCInteractPacket");
+		// Only the main hand is called for interacting
+		if (action == InteractPacketDecoder.Action.INTERACT && InteractPacketDecoder.getHand(interactPacket) != InteractionHand.MAIN_HAND)
 			return;
-		}
+
+		int entityId = InteractPacketDecoder.getEntityId(interactPacket);
 		boolean shift = player.isSneaking();
 
-		ClickType clickType = switch (action.toUpperCase()) {
-			case "A", "ATTACK" -> shift ? ClickType.SHIFT_LEFT : ClickType.LEFT;
-			case "B", "INTERACT" -> shift ? ClickType.SHIFT_RIGHT : ClickType.RIGHT;
-			default -> {
-				NikoAPI.getInstance().getLogger().warning("Could not find action type for NPCPacket: " + action);
-				yield ClickType.RIGHT;
-			}
-		};
+		ClickType clickType = action == InteractPacketDecoder.Action.ATTACK ?
+				(shift ? ClickType.SHIFT_LEFT : ClickType.LEFT) :
+				(shift ? ClickType.SHIFT_RIGHT : ClickType.RIGHT);
+		EntityUsePacket entityUsePacket = new EntityUsePacket(entityId, clickType);
 
-		if (clickType.isRightClick()) {
-			Object hand = ReflectionHelper.get(actionInterfaceInstance, "a");
-			if (hand != null && !hand.toString().equals("MAIN_HAND"))
-				return;
+		deliver(player, listener.getDeliveryMode(), new CoalesceKey(listener, PacketTypes.INTERACT, entityUsePacket), () -> useEntity(player, listener, entityUsePacket));
+	}
+
+	/**
+	 * Calls a listener on the thread of its delivery mode.
+	 */
+	void deliver(Player player, DeliveryMode deliveryMode, Object coalesceKey, Runnable call) {
+		switch (deliveryMode) {
+			case ASYNC -> asyncExecutor.submit(player.getUniqueId(), coalesceKey, call);
+			case MAIN -> mainThreadDispatcher.submit(call);
+			default -> call.run();
 		}
+	}
 
-		for (IAPIListener iapiListener : packetListener.get(type)) {
-			if (!(iapiListener instanceof PacketEntityUseListener))
-				continue;
+	private void loadChunk(Player player, PacketChunkLoadListener listener, int chunkId) {
+		long start = metrics.startTimer();
+		try {
+			listener.loadChunk(player, chunkId);
+		} catch (Exception exception) {
+			NikoAPI.getInstance().getLogger().log(Level.WARNING, "Error while executing chunk load listener for {0} with {1}: {2}",
+					new String[]{listener.getClass().getSimpleName(), exception.getClass().getSimpleName(), exception.getMessage()});
+		} finally {
+			metrics.stopTimer(listener.getClass(), start);
+		}
+	}
 
-			try {
-				((PacketEntityUseListener) iapiListener).useEntity(player, new EntityUsePacket(entityId, clickType));
-			} catch (Exception exception) {
-				NikoAPI.getInstance().getLogger().log(Level.WARNING, "Error while executing interact listener for {0} with {1}: {2}",
-						new String[]{packet.getClass().getSimpleName(), exception.getClass().getSimpleName(), exception.getMessage()});
-			}
+	private void unloadChunk(Player player, PacketChunkUnloadListener listener, int chunkId) {
+		long start = metrics.startTimer();
+		try {
+			listener.unloadChunk(player, chunkId);
+		} catch (Exception exception) {
+			NikoAPI.getInstance().getLogger().log(Level.WARNING, "Error while executing chunk un load listener for {0} with {1}: {2}",
+					new String[]{listener.getClass().getSimpleName(), exception.getClass().getSimpleName(), exception.getMessage()});
+		} finally {
+			metrics.stopTimer(listener.getClass(), start);
 		}
 	}
 
+	private void useEntity(Player player, PacketEntityUseListener listener, EntityUsePacket entityUsePacket) {
+		long start = metrics.startTimer();
+		try {
+			listener.useEntity(player, entityUsePacket);
+		} catch (Exception exception) {
+			NikoAPI.getInstance().getLogger().log(Level.WARNING, "Error while executing interact listener for {0} with {1}: {2}",
+					new String[]{listener.getClass().getSimpleName(), exception.getClass().getSimpleName(), exception.getMessage()});
+		} finally {
+			metrics.stopTimer(listener.getClass(), start);
+		}
+	}
+
+	/**
+	 * Gets the executor of the listeners with the {@link DeliveryMode#ASYNC} delivery mode.
+	 * It can be used to configure the queues and to read their statistics.
+	 *
+	 * @return {@link AsyncListenerExecutor} - the executor.
+	 * @since 1.0.3
+	 */
+	public AsyncListenerExecutor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+
+	/**
+	 * Gets the dispatcher of the listeners with the {@link DeliveryMode#MAIN} delivery mode.
+	 * It can be used to configure the limit per tick and to read its statistics.
+	 *
+	 * @return {@link MainThreadDispatcher} - the dispatcher.
+	 * @since 1.0.3
+	 */
+	public MainThreadDispatcher getMainThreadDispatcher() {
+		return mainThreadDispatcher;
+	}
+
+	/**
+	 * Key of an async event, equal events of a listener are coalesced.
+	 */
+	private record CoalesceKey(IAPIListener listener, PacketTypes type, Object value) {
+	}
+
 	public enum PacketTypes {
-		LOAD(ClientboundLevelChunkWithLightPacket.class),
-		UNLOAD(ClientboundForgetLevelChunkPacket.class),
-		INTERACT(ServerboundInteractPacket.class);
+		LOAD(ClientboundLevelChunkWithLightPacket.class, PacketDirection.OUTBOUND),
+		UNLOAD(ClientboundForgetLevelChunkPacket.class, PacketDirection.OUTBOUND),
+		INTERACT(ServerboundInteractPacket.class, PacketDirection.INBOUND);
+
+		private static final Map<Class<?>, PacketTypes> BY_CLASS = new IdentityHashMap<>();
+
+		static {
+			for (PacketTypes type : values())
+				BY_CLASS.put(type.packetClass, type);
+		}
 
 		private final Class<?> packetClass;
+		private final PacketDirection direction;
 
-		PacketTypes(Class<?> packetClass) {
+		PacketTypes(Class<?> packetClass, PacketDirection direction) {
 			this.packetClass = packetClass;
+			this.direction = direction;
+		}
+
+		/**
+		 * Gets the nms class of the packet type.
+		 *
+		 * @return Class<?> - the packet class.
+		 * @since 1.0.3
+		 */
+		public Class<?> getPacketClass() {
+			return packetClass;
+		}
+
+		/**
+		 * Gets the direction the packet is sent.
+		 *
+		 * @return {@link PacketDirection} - the direction.
+		 * @since 1.0.3
+		 */
+		public PacketDirection getDirection() {
+			return direction;
 		}
 
 		public static PacketTypes getByPacketClass(Object packet) {
-			return Arrays.stream(values()).filter(p -> p.packetClass.getSimpleName().equals(packet.getClass().getSimpleName())).findFirst().orElse(null);
+			return BY_CLASS.get(packet.getClass());
 		}
 	}
 
@@ -0,0 +1,377 @@
+package chatzis.nikolas.mc.nikoapi.packet.reader;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executes the listeners with the {@link DeliveryMode#ASYNC} delivery mode off the netty event loop.
+ * Every player has an own bounded queue, which is drained by a shared worker pool.
+ * A queue is drained by at most one worker at a time, so the events of a player keep their order.
+ * If a queue is full, the configured {@link OverflowPolicy} decides what happens with the new event.
+ * <p>
+ * A queue is added, when the connection of a player is bound, and removed, when the player quits.
+ * Events of players without a queue and events after the {@link #shutdown()} are discarded.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public class AsyncListenerExecutor {
+
+    private static final Logger LOG = Logger.getLogger(AsyncListenerExecutor.class.getSimpleName());
+    private static final int DRAIN_BATCH = 64;
+
+    private final ConcurrentMap<UUID, PlayerQueue> queues;
+    private final LongAdder droppedEvents;
+    private volatile ExecutorService workers;
+    private volatile int capacity;
+    private volatile OverflowPolicy overflowPolicy;
+    private volatile boolean shutdown;
+
+    /**
+     * Creates the executor with a capacity of 256 events per player, which drops the oldest event on overflow.
+     * The worker threads are only started with the first event.
+     * @since 1.0.3
+     */
+    AsyncListenerExecutor() {
+        this.queues = new ConcurrentHashMap<>();
+        this.droppedEvents = new LongAdder();
+        this.capacity = 256;
+        this.overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    }
+
+    /**
+     * Queues an event for the player.
+     *
+     * @param uuid UUID - the player the event belongs to.
+     * @param key  Object - key to coalesce equal events with {@link OverflowPolicy#COALESCE} or null.
+     * @param task Runnable - the listener call.
+     * @since 1.0.3
+     */
+    void submit(UUID uuid, Object key, Runnable task) {
+        if (shutdown)
+            return;
+        PlayerQueue queue = queues.get(uuid);
+        if (queue == null) {
+            droppedEvents.increment();
+            return;
+        }
+        if (queue.offer(key, task))
+            execute(queue);
+    }
+
+    /**
+     * Adds the queue of a player, so its events are executed.
+     * Called, when the connection of the player is bound.
+     *
+     * @param uuid UUID - the player.
+     * @since 1.0.3
+     */
+    public void add(UUID uuid) {
+        if (!shutdown)
+            queues.putIfAbsent(uuid, new PlayerQueue(uuid));
+    }
+
+    /**
+     * Removes the queue of a player and discards the pending events.
+     *
+     * @param uuid UUID - the player.
+     * @since 1.0.3
+     */
+    public void remove(UUID uuid) {
+        PlayerQueue queue = queues.remove(uuid);
+        if (queue != null)
+            queue.clear();
+    }
+
+    /**
+     * Gets the number of pending events of a player.
+     *
+     * @param uuid UUID - the player.
+     * @return int - the queue depth.
+     * @since 1.0.3
+     */
+    public int getQueueDepth(UUID uuid) {
+        PlayerQueue queue = queues.get(uuid);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Gets the number of events dropped or coalesced for a player.
+     *
+     * @param uuid UUID - the player.
+     * @return long - the dropped events.
+     * @since 1.0.3
+     */
+    public long getDroppedEvents(UUID uuid) {
+        PlayerQueue queue = queues.get(uuid);
+        return queue == null ? 0 : queue.dropped;
+    }
+
+    /**
+     * Gets the number of events dropped or coalesced since the start.
+     *
+     * @return long - the dropped events of all players.
+     * @since 1.0.3
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * Sets the maximum number of pending events per player.
+     *
+     * @param capacity int - the capacity, at least one.
+     * @since 1.0.3
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the policy, which is applied, when the queue of a player is full.
+     *
+     * @param overflowPolicy {@link OverflowPolicy} - the policy.
+     * @since 1.0.3
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Stops the worker threads.
+     * Pending and later events are discarded.
+     * @since 1.0.3
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+        queues.values().forEach(PlayerQueue::clear);
+        queues.clear();
+    }
+
+    private void execute(PlayerQueue queue) {
+        try {
+            getWorkers().execute(() -> drain(queue));
+        } catch (RejectedExecutionException exception) {
+            queues.remove(queue.uuid, queue);
+            queue.clear();
+        }
+    }
+
+    private ExecutorService getWorkers() {
+        ExecutorService executor = workers;
+        if (executor == null) {
+            synchronized (this) {
+                if (shutdown)
+                    throw new RejectedExecutionException("The executor is shut down");
+                if (workers == null) {
+                    AtomicInteger counter = new AtomicInteger();
+                    workers = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2), runnable -> {
+                        Thread thread = new Thread(runnable, "NikoAPI-Listener-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+                executor = workers;
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Runs a batch of events of the queue.
+     * If events remain, the queue is rescheduled, so one busy player does not starve the others.
+     * The queue is always rescheduled or released, even if a listener throws an error.
+     */
+    private void drain(PlayerQueue queue) {
+        boolean empty = false;
+        try {
+            for (int i = 0; i < DRAIN_BATCH; i++) {
+                Runnable task = queue.poll();
+                if (task == null) {
+                    empty = true;
+                    return;
+                }
+                try {
+                    task.run();
+                } catch (Throwable throwable) {
+                    LOG.log(Level.WARNING, "Error while executing async listener: {0}", throwable.toString());
+                }
+            }
+        } finally {
+            if (!empty && queue.reschedule())
+                execute(queue);
+        }
+    }
+
+    /**
+     * The policies for a full queue.
+     *
+     * @since 1.0.3
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * The oldest pending event is dropped.
+         */
+        DROP_OLDEST,
+
+        /**
+         * A pending event with an equal key is replaced by the new one.
+         * If there is none, the oldest pending event is dropped.
+         */
+        COALESCE,
+
+        /**
+         * The netty thread waits until the queue has space again.
+         * This keeps every event, but stalls the event loop like a slow listener would do.
+         */
+        BLOCK
+
+    }
+
+    /**
+     * The pending events of one player.
+     * All access is guarded by the queue itself.
+     */
+    private final class PlayerQueue {
+
+        private final UUID uuid;
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean closed;
+        private volatile long dropped;
+
+        private PlayerQueue(UUID uuid) {
+            this.uuid = uuid;
+        }
+
+        /**
+         * Adds the event.
+         * @return boolean - whatever the queue has to be scheduled.
+         */
+        private synchronized boolean offer(Object key, Runnable task) {
+            if (closed)
+                return false;
+            if (entries.size() >= capacity && !makeSpace(key, task))
+                return false;
+
+            entries.addLast(new Entry(key, task));
+            if (scheduled)
+                return false;
+            scheduled = true;
+            return true;
+        }
+
+        /**
+         * Applies the overflow policy.
+         * @return boolean - whatever the event still has to be added.
+         */
+        private boolean makeSpace(Object key, Runnable task) {
+            switch (overflowPolicy) {
+                case COALESCE -> {
+                    if (key != null) {
+                        Iterator<Entry> iterator = entries.descendingIterator();
+                        while (iterator.hasNext()) {
+                            Entry entry = iterator.next();
+                            if (key.equals(entry.key)) {
+                                entry.task = task;
+                                drop();
+                                return false;
+                            }
+                        }
+                    }
+                    entries.pollFirst();
+                    drop();
+                }
+                case BLOCK -> {
+                    while (entries.size() >= capacity && !closed) {
+                        try {
+                            wait();
+                        } catch (InterruptedException exception) {
+                            Thread.currentThread().interrupt();
+                            drop();
+                            return false;
+                        }
+                    }
+                    return !closed;
+                }
+                default -> {
+                    entries.pollFirst();
+                    drop();
+                }
+            }
+            return true;
+        }
+
+        private void drop() {
+            dropped++;
+            droppedEvents.increment();
+        }
+
+        private synchronized Runnable poll() {
+            Entry entry = entries.pollFirst();
+            if (entry == null) {
+                scheduled = false;
+                return null;
+            }
+            notifyAll();
+            return entry.task;
+        }
+
+        /**
+         * @return boolean - whatever events are remaining and the queue has to be scheduled again.
+         */
+        private synchronized boolean reschedule() {
+            if (entries.isEmpty()) {
+                scheduled = false;
+                return false;
+            }
+            return true;
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+
+        private synchronized void clear() {
+            closed = true;
+            entries.clear();
+            notifyAll();
+        }
+    }
+
+    private static final class Entry {
+        private final Object key;
+        private Runnable task;
+
+        private Entry(Object key, Runnable task) {
+            this.key = key;
+            this.task = task;
+        }
+    }
+}
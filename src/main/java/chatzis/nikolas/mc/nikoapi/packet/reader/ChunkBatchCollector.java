@@ -0,0 +1,165 @@
+package chatzis.nikolas.mc.nikoapi.packet.reader;
+
+import chatzis.nikolas.mc.nikoapi.NikoAPI;
+import chatzis.nikolas.mc.nikoapi.packet.metrics.PacketMetrics;
+import chatzis.nikolas.mc.nikoapi.util.LongHashSet;
+import chatzis.nikolas.mc.nikoapi.util.Utils;
+import net.minecraft.network.protocol.game.ClientboundForgetLevelChunkPacket;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+
+/**
+ * Collects the chunk loads and unloads of every player for the {@link PacketChunkBatchListener}s.
+ * The netty event loops add the chunks, a task on the main thread passes them on once per tick.
+ * The collector is fed by the {@link chatzis.nikolas.mc.nikoapi.player.PacketInterceptor} with the packets, which are actually written,
+ * so chunk packets, which a subscriber cancels, are not passed on. Without a batch listener, the packets are ignored.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class ChunkBatchCollector {
+
+    private final APIListenerManager manager;
+    private final PacketMetrics metrics;
+    private final List<PacketChunkBatchListener> listeners;
+    private final Map<UUID, PendingChunks> pending;
+    private BukkitTask task;
+
+    ChunkBatchCollector(APIListenerManager manager, PacketMetrics metrics) {
+        this.manager = manager;
+        this.metrics = metrics;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.pending = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a listener, the first one starts the task, which passes the chunks on.
+     */
+    synchronized void add(PacketChunkBatchListener listener) {
+        if (listeners.contains(listener))
+            return;
+        listeners.add(listener);
+        if (task == null)
+            task = Bukkit.getScheduler().runTaskTimer(NikoAPI.getInstance(), this::flush, 1L, 1L);
+    }
+
+    /**
+     * Removes a listener, the last one stops the task.
+     */
+    synchronized void remove(PacketChunkBatchListener listener) {
+        if (!listeners.remove(listener) || !listeners.isEmpty())
+            return;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        pending.clear();
+    }
+
+    /**
+     * Adds the chunk of a packet, which was written to the channel of the player.
+     * Called by the event loop of the player.
+     */
+    void packetSent(Player player, Object packet) {
+        if (listeners.isEmpty())
+            return;
+        if (packet instanceof ClientboundLevelChunkWithLightPacket chunkPacket)
+            getPending(player).load(Utils.getChunkKey(chunkPacket.getX(), chunkPacket.getZ()));
+        else if (packet instanceof ClientboundForgetLevelChunkPacket forgetPacket)
+            getPending(player).unload(Utils.getChunkKey(forgetPacket.getX(), forgetPacket.getZ()));
+    }
+
+    /**
+     * Passes the chunks of the last tick to the listeners.
+     * Players, who went offline, are removed.
+     */
+    private void flush() {
+        Iterator<PendingChunks> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            PendingChunks chunks = iterator.next();
+            if (!chunks.player.isOnline()) {
+                iterator.remove();
+                continue;
+            }
+
+            long[][] changes = chunks.drain();
+            if (changes == null)
+                continue;
+            // The flush already runs on the main thread, so only asynchronous listeners are deferred
+            for (PacketChunkBatchListener listener : listeners) {
+                if (listener.getDeliveryMode() == DeliveryMode.ASYNC)
+                    manager.deliver(chunks.player, DeliveryMode.ASYNC, null, () -> call(listener, chunks.player, changes[0], changes[1]));
+                else
+                    call(listener, chunks.player, changes[0], changes[1]);
+            }
+        }
+    }
+
+    private void call(PacketChunkBatchListener listener, Player player, long[] loaded, long[] unloaded) {
+        long start = metrics.startTimer();
+        try {
+            listener.chunksChanged(player, loaded, unloaded);
+        } catch (Exception exception) {
+            NikoAPI.getInstance().getLogger().log(Level.WARNING, "Error while executing chunk batch listener for {0} with {1}: {2}",
+                    new String[]{listener.getClass().getSimpleName(), exception.getClass().getSimpleName(), exception.getMessage()});
+        } finally {
+            metrics.stopTimer(listener.getClass(), start);
+        }
+    }
+
+    private PendingChunks getPending(Player player) {
+        return pending.computeIfAbsent(player.getUniqueId(), uuid -> new PendingChunks(player));
+    }
+
+    /**
+     * The chunks of a player, which were sent since the last tick.
+     * Written by the event loop of the player and drained by the main thread.
+     */
+    private static final class PendingChunks {
+
+        private final Player player;
+        private final LongHashSet loaded;
+        private final LongHashSet unloaded;
+
+        private PendingChunks(Player player) {
+            this.player = player;
+            this.loaded = new LongHashSet();
+            this.unloaded = new LongHashSet();
+        }
+
+        private synchronized void load(long chunkKey) {
+            unloaded.remove(chunkKey);
+            loaded.add(chunkKey);
+        }
+
+        private synchronized void unload(long chunkKey) {
+            // A chunk loaded in this tick was never passed, so its unload is not passed either
+            if (!loaded.remove(chunkKey))
+                unloaded.add(chunkKey);
+        }
+
+        /**
+         * Takes the loaded and unloaded chunks.
+         *
+         * @return long[][] - the loaded and the unloaded chunks or null, if nothing changed.
+         */
+        private synchronized long[][] drain() {
+            if (loaded.isEmpty() && unloaded.isEmpty())
+                return null;
+            long[][] changes = {loaded.toArray(), unloaded.toArray()};
+            loaded.clear();
+            unloaded.clear();
+            return changes;
+        }
+    }
+}
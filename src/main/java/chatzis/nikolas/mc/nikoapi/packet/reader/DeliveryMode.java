@@ -0,0 +1,30 @@
+package chatzis.nikolas.mc.nikoapi.packet.reader;
+
+/**
+ * Defines on which thread the {@link APIListenerManager} calls a listener.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public enum DeliveryMode {
+
+    /**
+     * The listener is called directly on the netty event loop of the player.
+     * This is the default and the cheapest mode, but a slow listener stalls every connection of the event loop.
+     */
+    NETTY,
+
+    /**
+     * The listener is called on a worker thread of the {@link AsyncListenerExecutor}.
+     * The events of a player are still delivered in order, but are queued in a bounded queue.
+     */
+    ASYNC,
+
+    /**
+     * The listener is called on the main thread at the start of the next tick by the {@link MainThreadDispatcher}.
+     * The events of all players are delivered in the order they arrived, without a scheduler task per event.
+     * Like with {@link #ASYNC} the packet already passed, so the event can only be read.
+     */
+    MAIN
+
+}
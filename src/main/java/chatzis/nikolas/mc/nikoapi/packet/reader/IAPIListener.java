@@ -9,4 +9,15 @@ public interface IAPIListener {
 
     List<APIListenerManager.PacketTypes> getListenerType();
 
+    /**
+     * Gets the thread the listener is called on.
+     * Listeners are called on the netty event loop by default.
+     *
+     * @return {@link DeliveryMode} - the delivery mode.
+     * @since 1.0.3
+     */
+    default DeliveryMode getDeliveryMode() {
+        return DeliveryMode.NETTY;
+    }
+
 }
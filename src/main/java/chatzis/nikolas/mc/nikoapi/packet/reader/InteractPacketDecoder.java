@@ -0,0 +1,157 @@
+package chatzis.nikolas.mc.nikoapi.packet.reader;
+
+import chatzis.nikolas.mc.nikoapi.util.ReflectionHelper;
+import net.minecraft.network.protocol.game.ServerboundInteractPacket;
+import net.minecraft.world.InteractionHand;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decoder for the {@link ServerboundInteractPacket}.
+ * The fields of the packet are not accessible, so the handles to them are resolved once on class load.
+ * They are located by their types instead of their (obfuscated) names,
+ * so the decoder works with spigot and mojang mappings alike.
+ * Decoding a packet afterward neither looks up fields nor boxes or compares strings.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class InteractPacketDecoder {
+
+    private static final Logger LOG = Logger.getLogger(InteractPacketDecoder.class.getSimpleName());
+    private static final Action[] ACTIONS = Action.values();
+
+    private static final VarHandle ENTITY_ID;
+    private static final VarHandle ACTION;
+    private static final MethodHandle ACTION_TYPE;
+    private static final Class<?> INTERACTION_ACTION;
+    private static final VarHandle INTERACTION_HAND;
+
+    static {
+        VarHandle entityId = null;
+        VarHandle action = null;
+        MethodHandle actionType = null;
+        Class<?> interactionAction = null;
+        VarHandle interactionHand = null;
+        try {
+            Class<?> packetClass = ServerboundInteractPacket.class;
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(packetClass, MethodHandles.lookup());
+
+            Field entityIdField = ReflectionHelper.findFieldByType(packetClass, int.class);
+            Field actionField = ReflectionHelper.findField(packetClass, field ->
+                    field.getType().isInterface() && field.getType().getDeclaringClass() == packetClass);
+            if (entityIdField == null || actionField == null)
+                throw new IllegalStateException("Fields of " + packetClass.getSimpleName() + " not found");
+            Class<?> actionClass = actionField.getType();
+
+            Method typeMethod = null;
+            for (Method method : actionClass.getDeclaredMethods()) {
+                if (method.getParameterCount() == 0 && method.getReturnType().isEnum())
+                    typeMethod = method;
+            }
+            if (typeMethod == null)
+                throw new IllegalStateException("Type method of " + actionClass.getName() + " not found");
+
+            for (Class<?> declaredClass : packetClass.getDeclaredClasses()) {
+                if (!actionClass.isAssignableFrom(declaredClass) || declaredClass.isInterface())
+                    continue;
+                Field[] fields = declaredClass.getDeclaredFields();
+                if (fields.length == 1 && fields[0].getType() == InteractionHand.class && !Modifier.isStatic(fields[0].getModifiers())) {
+                    interactionAction = declaredClass;
+                    interactionHand = MethodHandles.privateLookupIn(declaredClass, MethodHandles.lookup()).unreflectVarHandle(fields[0]);
+                }
+            }
+            if (interactionAction == null)
+                throw new IllegalStateException("Interaction action of " + packetClass.getSimpleName() + " not found");
+
+            entityId = lookup.unreflectVarHandle(entityIdField);
+            action = lookup.unreflectVarHandle(actionField);
+            actionType = lookup.unreflect(typeMethod).asType(MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            LOG.log(Level.SEVERE, "Could not resolve the handles for the interact packet: {0}", exception.getMessage());
+            interactionAction = null;
+        }
+        ENTITY_ID = entityId;
+        ACTION = action;
+        ACTION_TYPE = actionType;
+        INTERACTION_ACTION = interactionAction;
+        INTERACTION_HAND = interactionHand;
+    }
+
+    private InteractPacketDecoder() {
+        throw new UnsupportedOperationException("This is a util class.");
+    }
+
+    /**
+     * Checks if all handles could be resolved.
+     * If not, none of the other methods may be called.
+     *
+     * @return boolean - whatever the decoder can be used.
+     * @since 1.0.3
+     */
+    public static boolean isAvailable() {
+        return INTERACTION_ACTION != null;
+    }
+
+    /**
+     * Gets the id of the entity the player interacted with.
+     *
+     * @param packet ServerboundInteractPacket - the packet to decode.
+     * @return int - the entity id.
+     * @since 1.0.3
+     */
+    public static int getEntityId(ServerboundInteractPacket packet) {
+        return (int) ENTITY_ID.get(packet);
+    }
+
+    /**
+     * Gets the action the player performed.
+     *
+     * @param packet ServerboundInteractPacket - the packet to decode.
+     * @return {@link Action} - the action.
+     * @since 1.0.3
+     */
+    public static Action getAction(ServerboundInteractPacket packet) {
+        try {
+            Object type = (Object) ACTION_TYPE.invokeExact(ACTION.get(packet));
+            return ACTIONS[((Enum<?>) type).ordinal()];
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Could not decode the action of the interact packet", throwable);
+        }
+    }
+
+    /**
+     * Gets the hand the player interacted with.
+     * Only {@link Action#INTERACT} packets carry a hand, otherwise null is returned.
+     *
+     * @param packet ServerboundInteractPacket - the packet to decode.
+     * @return InteractionHand - the hand or null.
+     * @since 1.0.3
+     */
+    public static InteractionHand getHand(ServerboundInteractPacket packet) {
+        Object action = ACTION.get(packet);
+        if (!INTERACTION_ACTION.isInstance(action))
+            return null;
+        return (InteractionHand) INTERACTION_HAND.get(action);
+    }
+
+    /**
+     * The actions of the interact packet.
+     * The order matches the ids of the protocol, so the ordinal of the nms enum can be used.
+     *
+     * @since 1.0.3
+     */
+    public enum Action {
+        INTERACT,
+        ATTACK,
+        INTERACT_AT
+    }
+}
@@ -0,0 +1,142 @@
+package chatzis.nikolas.mc.nikoapi.packet.reader;
+
+import chatzis.nikolas.mc.nikoapi.NikoAPI;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executes the listeners with the {@link DeliveryMode#MAIN} delivery mode on the main thread.
+ * The netty event loops add the events to a single lock free queue,
+ * which is drained by one scheduler task at the start of every tick in the order the events arrived.
+ * At most {@link #getMaxEventsPerTick()} events are drained per tick, the rest is carried over to the next tick.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public class MainThreadDispatcher {
+
+    private final Queue<Runnable> queue;
+    private final AtomicInteger queueDepth;
+    private final LongAdder deliveredEvents;
+    private final LongAdder carriedOverTicks;
+    private volatile BukkitTask task;
+    private volatile int maxEventsPerTick;
+    private volatile boolean shutdown;
+
+    /**
+     * Creates the dispatcher with a limit of 10000 events per tick.
+     * The scheduler task is only started with the first event.
+     * @since 1.0.3
+     */
+    MainThreadDispatcher() {
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.queueDepth = new AtomicInteger();
+        this.deliveredEvents = new LongAdder();
+        this.carriedOverTicks = new LongAdder();
+        this.maxEventsPerTick = 10000;
+    }
+
+    /**
+     * Queues an event for the next tick.
+     * Events, which are submitted after the shutdown, are dropped.
+     *
+     * @param task Runnable - the listener call.
+     * @since 1.0.3
+     */
+    void submit(Runnable task) {
+        if (shutdown) return;
+        queue.offer(task);
+        queueDepth.incrementAndGet();
+        if (this.task == null)
+            start();
+    }
+
+    /**
+     * Gets the number of events, which wait for the next tick.
+     *
+     * @return int - the pending events.
+     * @since 1.0.3
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Gets the number of events delivered since the start.
+     *
+     * @return long - the delivered events.
+     * @since 1.0.3
+     */
+    public long getDeliveredEvents() {
+        return deliveredEvents.sum();
+    }
+
+    /**
+     * Gets the number of ticks, which reached the limit and carried events over to the next tick.
+     *
+     * @return long - the ticks with carried over events.
+     * @since 1.0.3
+     */
+    public long getCarriedOverTicks() {
+        return carriedOverTicks.sum();
+    }
+
+    /**
+     * Sets the maximum number of events, which are delivered per tick.
+     *
+     * @param maxEventsPerTick int - the limit, at least one.
+     * @since 1.0.3
+     */
+    public void setMaxEventsPerTick(int maxEventsPerTick) {
+        if (maxEventsPerTick < 1)
+            throw new IllegalArgumentException("Limit must be at least 1");
+        this.maxEventsPerTick = maxEventsPerTick;
+    }
+
+    public int getMaxEventsPerTick() {
+        return maxEventsPerTick;
+    }
+
+    /**
+     * Stops the scheduler task.
+     * Pending events and events, which are submitted afterward, are discarded.
+     * @since 1.0.3
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        queue.clear();
+        queueDepth.set(0);
+    }
+
+    private synchronized void start() {
+        // The plugin may already be disabled, an event submitted meanwhile must not schedule a task
+        if (task == null && !shutdown)
+            task = Bukkit.getScheduler().runTaskTimer(NikoAPI.getInstance(), this::drain, 0L, 1L);
+    }
+
+    /**
+     * Delivers the events of the last tick, the calls catch the exceptions of the listeners.
+     */
+    private void drain() {
+        int limit = maxEventsPerTick;
+        int delivered = 0;
+        Runnable event;
+        while (delivered < limit && (event = queue.poll()) != null) {
+            queueDepth.decrementAndGet();
+            event.run();
+            delivered++;
+        }
+        deliveredEvents.add(delivered);
+        if (delivered == limit && !queue.isEmpty())
+            carriedOverTicks.increment();
+    }
+}
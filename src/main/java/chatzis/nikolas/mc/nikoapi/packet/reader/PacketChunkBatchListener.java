@@ -0,0 +1,35 @@
+package chatzis.nikolas.mc.nikoapi.packet.reader;
+
+import chatzis.nikolas.mc.nikoapi.util.Utils;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+
+/**
+ * Interface for a listener, which receives the chunk loads and unloads of a player once per tick.
+ * The chunks sent during a tick are collected and passed at once on the main thread,
+ * or on a worker thread of the {@link AsyncListenerExecutor}, if the listener returns {@link DeliveryMode#ASYNC}.
+ * <p>
+ * The arrays contain the net change of the tick as chunk keys, see {@link Utils#getChunkKey(int, int)}.
+ * A chunk, which is loaded and unloaded in the same tick, is not passed,
+ * a chunk, which is unloaded and loaded again, is passed as loaded.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public interface PacketChunkBatchListener extends IAPIListener {
+
+    default List<APIListenerManager.PacketTypes> getListenerType() {
+        return List.of(APIListenerManager.PacketTypes.LOAD, APIListenerManager.PacketTypes.UNLOAD);
+    }
+
+    /**
+     * Will be called once per tick, if chunks were sent to the player.
+     *
+     * @param player   Player - the player, who received the chunks.
+     * @param loaded   long[] - the keys of the loaded chunks, may be empty.
+     * @param unloaded long[] - the keys of the unloaded chunks, may be empty.
+     */
+    void chunksChanged(Player player, long[] loaded, long[] unloaded);
+
+}
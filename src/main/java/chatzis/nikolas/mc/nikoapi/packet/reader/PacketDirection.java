@@ -0,0 +1,21 @@
+package chatzis.nikolas.mc.nikoapi.packet.reader;
+
+/**
+ * The direction a packet travels through the channel of a player.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public enum PacketDirection {
+
+    /**
+     * Packets sent by the client to the server.
+     */
+    INBOUND,
+
+    /**
+     * Packets sent by the server to the client.
+     */
+    OUTBOUND
+
+}
@@ -0,0 +1,100 @@
+package chatzis.nikolas.mc.nikoapi.packet.reader;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Immutable lookup table from a concrete packet class to the subscriptions of it, separated by direction.
+ * A (un-)registration never modifies a table, but creates a new one,
+ * which the {@link APIListenerManager} publishes as a whole.
+ * Netty threads therefore always iterate a consistent snapshot without any locks,
+ * and resolving the subscriptions of a packet is a single identity lookup without any allocation.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class PacketDispatchTable {
+
+    static final PacketDispatchTable EMPTY = new PacketDispatchTable(new IdentityHashMap<>(), new IdentityHashMap<>());
+
+    private final IdentityHashMap<Class<?>, PacketSubscription[]> inbound;
+    private final IdentityHashMap<Class<?>, PacketSubscription[]> outbound;
+
+    private PacketDispatchTable(IdentityHashMap<Class<?>, PacketSubscription[]> inbound,
+                                IdentityHashMap<Class<?>, PacketSubscription[]> outbound) {
+        this.inbound = inbound;
+        this.outbound = outbound;
+    }
+
+    /**
+     * Gets the subscriptions of the given packet class.
+     * The returned array must not be modified.
+     *
+     * @param direction   {@link PacketDirection} - the direction of the packet.
+     * @param packetClass Class<?> - the concrete class of the packet.
+     * @return PacketSubscription[] - the subscriptions or null, if nobody subscribed to the class.
+     * @since 1.0.3
+     */
+    PacketSubscription[] get(PacketDirection direction, Class<?> packetClass) {
+        return (direction == PacketDirection.INBOUND ? inbound : outbound).get(packetClass);
+    }
+
+    /**
+     * Checks if no subscription is registered at all.
+     *
+     * @return boolean - whatever the table is empty.
+     * @since 1.0.3
+     */
+    boolean isEmpty() {
+        return inbound.isEmpty() && outbound.isEmpty();
+    }
+
+    /**
+     * Creates a copy of this table, which additionally contains the subscriptions.
+     *
+     * @param subscriptions PacketSubscription[] - the subscriptions to add.
+     * @return {@link PacketDispatchTable} - the new table.
+     * @since 1.0.3
+     */
+    PacketDispatchTable with(PacketSubscription... subscriptions) {
+        IdentityHashMap<Class<?>, PacketSubscription[]> inboundCopy = new IdentityHashMap<>(inbound);
+        IdentityHashMap<Class<?>, PacketSubscription[]> outboundCopy = new IdentityHashMap<>(outbound);
+        for (PacketSubscription subscription : subscriptions) {
+            IdentityHashMap<Class<?>, PacketSubscription[]> copy = subscription.getDirection() == PacketDirection.INBOUND ? inboundCopy : outboundCopy;
+            PacketSubscription[] existing = copy.get(subscription.getPacketClass());
+            if (existing == null) {
+                copy.put(subscription.getPacketClass(), new PacketSubscription[]{subscription});
+            } else {
+                PacketSubscription[] added = Arrays.copyOf(existing, existing.length + 1);
+                added[existing.length] = subscription;
+                copy.put(subscription.getPacketClass(), added);
+            }
+        }
+        return new PacketDispatchTable(inboundCopy, outboundCopy);
+    }
+
+    /**
+     * Creates a copy of this table, which does not contain the subscriptions of the owner anymore.
+     *
+     * @param owner Object - the owner of the subscriptions to remove.
+     * @return {@link PacketDispatchTable} - the new table.
+     * @since 1.0.3
+     */
+    PacketDispatchTable without(Object owner) {
+        return new PacketDispatchTable(without(inbound, owner), without(outbound, owner));
+    }
+
+    private static IdentityHashMap<Class<?>, PacketSubscription[]> without(IdentityHashMap<Class<?>, PacketSubscription[]> table, Object owner) {
+        IdentityHashMap<Class<?>, PacketSubscription[]> copy = new IdentityHashMap<>(table);
+        table.forEach((packetClass, subscriptions) -> {
+            PacketSubscription[] remaining = Arrays.stream(subscriptions)
+                    .filter(subscription -> !subscription.getOwner().equals(owner))
+                    .toArray(PacketSubscription[]::new);
+            if (remaining.length == 0)
+                copy.remove(packetClass);
+            else if (remaining.length != subscriptions.length)
+                copy.put(packetClass, remaining);
+        });
+        return copy;
+    }
+}
@@ -0,0 +1,150 @@
+package chatzis.nikolas.mc.nikoapi.packet.reader;
+
+import net.minecraft.network.protocol.Packet;
+import org.bukkit.entity.Player;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event for a packet, which passes the channel of a player.
+ * Subscribers with the {@link DeliveryMode#NETTY} delivery mode are able to
+ * cancel the packet, replace it with another one of the same class or delay it.
+ * Subscribers with the {@link DeliveryMode#ASYNC} or {@link DeliveryMode#MAIN} delivery mode receive the event after the packet passed,
+ * so they can only read it.
+ *
+ * @param <P> the packet class.
+ * @author Niko
+ * @since 1.0.3
+ */
+public class PacketEvent<P extends Packet<?>> {
+
+    private final Player player;
+    private final PacketDirection direction;
+    private P packet;
+    private boolean cancelled;
+    private long delayNanos;
+    private boolean readOnly;
+
+    /**
+     * Creates the event for a packet.
+     *
+     * @param player    Player - the player of the channel.
+     * @param direction {@link PacketDirection} - the direction of the packet.
+     * @param packet    P - the packet.
+     * @since 1.0.3
+     */
+    PacketEvent(Player player, PacketDirection direction, P packet) {
+        this.player = player;
+        this.direction = direction;
+        this.packet = packet;
+    }
+
+    /**
+     * Gets the player, who sent or receives the packet.
+     * Packets of the login are passed before the player exists, in this case null is returned.
+     *
+     * @return Player - the player or null.
+     * @since 1.0.3
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the direction of the packet.
+     *
+     * @return {@link PacketDirection} - the direction.
+     * @since 1.0.3
+     */
+    public PacketDirection getDirection() {
+        return direction;
+    }
+
+    /**
+     * Gets the packet, which will be passed on.
+     *
+     * @return P - the packet.
+     * @since 1.0.3
+     */
+    public P getPacket() {
+        return packet;
+    }
+
+    /**
+     * Replaces the packet, which will be passed on.
+     *
+     * @param packet P - the replacement.
+     * @since 1.0.3
+     */
+    public void setPacket(P packet) {
+        checkModifiable();
+        this.packet = Objects.requireNonNull(packet);
+    }
+
+    /**
+     * Gets if the packet is cancelled.
+     *
+     * @return boolean - whatever the packet is cancelled.
+     * @since 1.0.3
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cancels the packet, so it will not be passed on.
+     *
+     * @param cancelled boolean - whatever the packet should be cancelled.
+     * @since 1.0.3
+     */
+    public void setCancelled(boolean cancelled) {
+        checkModifiable();
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Delays the packet.
+     * The packet is passed on by the event loop of the player after the delay.
+     * A packet inside a bundle delays the whole bundle, the longest delay of its packets applies.
+     *
+     * @param delay long - the delay, zero to pass it on immediately.
+     * @param unit  TimeUnit - the unit of the delay.
+     * @since 1.0.3
+     */
+    public void setDelay(long delay, TimeUnit unit) {
+        checkModifiable();
+        if (delay < 0)
+            throw new IllegalArgumentException("Delay must not be negative");
+        this.delayNanos = unit.toNanos(delay);
+    }
+
+    /**
+     * Gets the delay of the packet.
+     *
+     * @return long - the delay in nanoseconds.
+     * @since 1.0.3
+     */
+    public long getDelayNanos() {
+        return delayNanos;
+    }
+
+    /**
+     * Gets if the event can't be modified anymore.
+     *
+     * @return boolean - whatever the event is read only.
+     * @since 1.0.3
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    void setReadOnly() {
+        this.readOnly = true;
+    }
+
+    private void checkModifiable() {
+        if (readOnly)
+            throw new IllegalStateException("The packet already passed the channel");
+    }
+}
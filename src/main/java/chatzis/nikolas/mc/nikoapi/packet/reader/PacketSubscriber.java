@@ -0,0 +1,23 @@
+package chatzis.nikolas.mc.nikoapi.packet.reader;
+
+import net.minecraft.network.protocol.Packet;
+
+/**
+ * Functional interface for subscribers of a specific packet class.
+ * Subscribers are registered with {@link APIListenerManager#subscribe(Class, PacketDirection, PacketSubscriber)}.
+ *
+ * @param <P> the packet class.
+ * @author Niko
+ * @since 1.0.3
+ */
+@FunctionalInterface
+public interface PacketSubscriber<P extends Packet<?>> {
+
+    /**
+     * Will be called, if a packet of the subscribed class passes the channel of a player.
+     *
+     * @param event {@link PacketEvent} - the event, which can cancel, replace or delay the packet.
+     */
+    void onPacket(PacketEvent<P> event);
+
+}
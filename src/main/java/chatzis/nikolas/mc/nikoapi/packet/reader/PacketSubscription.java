@@ -0,0 +1,81 @@
+package chatzis.nikolas.mc.nikoapi.packet.reader;
+
+/**
+ * Handle of a subscriber, which is registered for a packet class in the {@link APIListenerManager}.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class PacketSubscription {
+
+    private final Object owner;
+    private final Class<?> packetClass;
+    private final PacketDirection direction;
+    private final DeliveryMode deliveryMode;
+    private final PacketSubscriber<?> subscriber;
+
+    /**
+     * Creates the subscription.
+     *
+     * @param owner        Object - the owner to unregister the subscription with or null, if the subscription owns itself.
+     * @param packetClass  Class<?> - the concrete packet class.
+     * @param direction    {@link PacketDirection} - the direction of the packet.
+     * @param deliveryMode {@link DeliveryMode} - the thread the subscriber is called on.
+     * @param subscriber   {@link PacketSubscriber} - the subscriber.
+     * @since 1.0.3
+     */
+    PacketSubscription(Object owner, Class<?> packetClass, PacketDirection direction, DeliveryMode deliveryMode, PacketSubscriber<?> subscriber) {
+        this.owner = owner == null ? this : owner;
+        this.packetClass = packetClass;
+        this.direction = direction;
+        this.deliveryMode = deliveryMode;
+        this.subscriber = subscriber;
+    }
+
+    Object getOwner() {
+        return owner;
+    }
+
+    PacketSubscriber<?> getSubscriber() {
+        return subscriber;
+    }
+
+    /**
+     * Gets the packet class the subscriber is registered for.
+     *
+     * @return Class<?> - the packet class.
+     * @since 1.0.3
+     */
+    public Class<?> getPacketClass() {
+        return packetClass;
+    }
+
+    /**
+     * Gets the direction the subscriber is registered for.
+     *
+     * @return {@link PacketDirection} - the direction.
+     * @since 1.0.3
+     */
+    public PacketDirection getDirection() {
+        return direction;
+    }
+
+    /**
+     * Gets the thread the subscriber is called on.
+     *
+     * @return {@link DeliveryMode} - the delivery mode.
+     * @since 1.0.3
+     */
+    public DeliveryMode getDeliveryMode() {
+        return deliveryMode;
+    }
+
+    /**
+     * Removes the subscriber from the {@link APIListenerManager}.
+     *
+     * @since 1.0.3
+     */
+    public void unsubscribe() {
+        APIListenerManager.getInstance().unsubscribe(this);
+    }
+}
@@ -0,0 +1,179 @@
+package chatzis.nikolas.mc.nikoapi.packet.sender;
+
+import chatzis.nikolas.mc.nikoapi.util.Utils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import net.minecraft.network.Connection;
+import net.minecraft.network.ConnectionProtocol;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.BundlePacket;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.PacketFlow;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends the same packet to many players, but serializes it only once.
+ * The packet is encoded into a buffer like the vanilla encoder does,
+ * and a retained duplicate of it is written to every channel after the encoder stage.
+ * Compression, framing and encryption still happen per channel.
+ * <p>
+ * Broadcast packets skip every handler between the encoder and the tail of the pipeline,
+ * so subscribers of the {@link chatzis.nikolas.mc.nikoapi.packet.reader.APIListenerManager} won't see them.
+ * Bundles and channels, which are not in the play protocol, are sent the regular way.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public class PacketBroadcaster {
+
+    private static final Logger LOG = Logger.getLogger(PacketBroadcaster.class.getSimpleName());
+    private static final String ENCODER = "encoder";
+    private static final PacketBroadcaster instance = new PacketBroadcaster();
+
+    /**
+     * Get the instance of this class
+     *
+     * @return PacketBroadcaster - A instance of {@link PacketBroadcaster}
+     */
+    public static PacketBroadcaster getInstance() {
+        return instance;
+    }
+
+    private final LongAdder encodes;
+    private final LongAdder encodesSaved;
+    private final LongAdder bytesSaved;
+
+    private PacketBroadcaster() {
+        this.encodes = new LongAdder();
+        this.encodesSaved = new LongAdder();
+        this.bytesSaved = new LongAdder();
+    }
+
+    /**
+     * Sends the packet to all players.
+     *
+     * @param players Collection<Player> - the players to send the packet.
+     * @param packet  Packet<?> - the packet.
+     * @since 1.0.3
+     */
+    public void broadcast(Collection<? extends Player> players, Packet<?> packet) {
+        List<Channel> channels = new ArrayList<>(players.size());
+        for (Player player : players) {
+            Channel channel = Utils.getChannel(player);
+            if (channel != null)
+                channels.add(channel);
+        }
+        broadcastToChannels(channels, packet);
+    }
+
+    /**
+     * Sends the packet to all channels.
+     *
+     * @param channels Collection<Channel> - the channels of the players.
+     * @param packet   Packet<?> - the packet.
+     * @since 1.0.3
+     */
+    public void broadcastToChannels(Collection<Channel> channels, Packet<?> packet) {
+        if (channels.isEmpty())
+            return;
+
+        ByteBuf encoded = null;
+        int writes = 0;
+        try {
+            for (Channel channel : channels) {
+                ChannelHandlerContext encoderContext = getEncoderContext(channel, packet);
+                if (encoderContext == null) {
+                    PacketSender.getInstance().send(channel, packet);
+                    continue;
+                }
+
+                if (encoded == null) {
+                    encoded = encode(packet);
+                    if (encoded == null) {
+                        PacketSender.getInstance().send(channel, packet);
+                        continue;
+                    }
+                }
+                encoderContext.writeAndFlush(encoded.retainedDuplicate(), encoderContext.voidPromise());
+                writes++;
+            }
+        } finally {
+            if (encoded != null) {
+                if (writes > 1) {
+                    encodesSaved.add(writes - 1L);
+                    bytesSaved.add((writes - 1L) * encoded.readableBytes());
+                }
+                encoded.release();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of packets encoded for broadcasts.
+     *
+     * @return long - the encoded packets.
+     * @since 1.0.3
+     */
+    public long getEncodes() {
+        return encodes.sum();
+    }
+
+    /**
+     * Gets the number of per-player encodes, which were saved by broadcasting.
+     *
+     * @return long - the saved encodes.
+     * @since 1.0.3
+     */
+    public long getEncodesSaved() {
+        return encodesSaved.sum();
+    }
+
+    /**
+     * Gets the number of bytes, which did not have to be serialized again by broadcasting.
+     *
+     * @return long - the saved bytes.
+     * @since 1.0.3
+     */
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    private ChannelHandlerContext getEncoderContext(Channel channel, Packet<?> packet) {
+        if (!channel.isOpen() || packet instanceof BundlePacket<?>
+                || channel.attr(Connection.ATTRIBUTE_PROTOCOL).get() != ConnectionProtocol.PLAY)
+            return null;
+        return channel.pipeline().context(ENCODER);
+    }
+
+    /**
+     * Encodes the packet like the vanilla encoder: packet id followed by the packet data.
+     */
+    private ByteBuf encode(Packet<?> packet) {
+        int packetId = ConnectionProtocol.PLAY.getPacketId(PacketFlow.CLIENTBOUND, packet);
+        if (packetId < 0)
+            return null;
+
+        ByteBuf buffer = ByteBufAllocator.DEFAULT.ioBuffer();
+        try {
+            FriendlyByteBuf friendlyByteBuf = new FriendlyByteBuf(buffer);
+            friendlyByteBuf.writeVarInt(packetId);
+            packet.write(friendlyByteBuf);
+            encodes.increment();
+            return buffer;
+        } catch (RuntimeException exception) {
+            buffer.release();
+            LOG.log(Level.WARNING, "Could not encode {0} for a broadcast: {1}",
+                    new String[]{packet.getClass().getSimpleName(), exception.getMessage()});
+            return null;
+        }
+    }
+}
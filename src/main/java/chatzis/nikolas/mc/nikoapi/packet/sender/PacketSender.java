@@ -0,0 +1,184 @@
+package chatzis.nikolas.mc.nikoapi.packet.sender;
+
+import chatzis.nikolas.mc.nikoapi.util.Utils;
+import io.netty.channel.Channel;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends packets directly into the netty channel of a player without flushing after every packet.
+ * <p>
+ * {@link #write(Player, Packet[])} only writes the packets, the channel is flushed by the flush task at the start of the next tick,
+ * so the packets wait for up to a tick.
+ * {@link #send(Player, Packet[])} writes a batch of packets and flushes once afterward, batches should prefer it.
+ * Each flush is a syscall and usually a TCP segment, so combining writes saves both during login storms.
+ * <p>
+ * All methods may be called from any thread, the packets are written by the event loop of the channel.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public class PacketSender {
+
+    private static final PacketSender instance = new PacketSender();
+
+    /**
+     * Get the instance of this class
+     *
+     * @return PacketSender - A instance of {@link PacketSender}
+     */
+    public static PacketSender getInstance() {
+        return instance;
+    }
+
+    private final Set<Channel> pendingFlush;
+    private BukkitTask flushTask;
+
+    private PacketSender() {
+        this.pendingFlush = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Starts the task, which flushes the written channels at the start of every tick.
+     *
+     * @param plugin JavaPlugin - the plugin to run the task for.
+     * @since 1.0.3
+     */
+    public void start(JavaPlugin plugin) {
+        if (flushTask == null)
+            flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, 1L, 1L);
+    }
+
+    /**
+     * Stops the flush task and flushes all remaining packets.
+     *
+     * @since 1.0.3
+     */
+    public void stop() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+    }
+
+    /**
+     * Writes the packets to the player without flushing.
+     * The packets are flushed by the flush task at the start of the next tick.
+     *
+     * @param player  Player - the player to send the packets.
+     * @param packets Packet[] - the packets.
+     * @since 1.0.3
+     */
+    public void write(Player player, Packet<?>... packets) {
+        write(Utils.getChannel(player), packets);
+    }
+
+    /**
+     * Writes the packets to the channel without flushing.
+     * The packets are flushed by the flush task at the start of the next tick.
+     *
+     * @param channel Channel - the channel of the player.
+     * @param packets Packet[] - the packets.
+     * @since 1.0.3
+     */
+    public void write(Channel channel, Packet<?>... packets) {
+        if (channel == null || packets.length == 0) return;
+        execute(channel, () -> {
+            writePackets(channel, packets);
+            pendingFlush.add(channel);
+        });
+    }
+
+    /**
+     * Writes the packets to the player and flushes once after the last one.
+     *
+     * @param player  Player - the player to send the packets.
+     * @param packets Packet[] - the packets.
+     * @since 1.0.3
+     */
+    public void send(Player player, Packet<?>... packets) {
+        send(Utils.getChannel(player), packets);
+    }
+
+    /**
+     * Writes the packets to the channel and flushes once after the last one.
+     *
+     * @param channel Channel - the channel of the player.
+     * @param packets Packet[] - the packets.
+     * @since 1.0.3
+     */
+    public void send(Channel channel, Packet<?>... packets) {
+        if (channel == null || packets.length == 0) return;
+        execute(channel, () -> {
+            writePackets(channel, packets);
+            channel.flush();
+        });
+    }
+
+    /**
+     * Sends the packets as one bundle to the player.
+     * The client handles all packets of a bundle in the same frame,
+     * so e.g. the spawn and metadata packet of an entity become visible at once.
+     *
+     * @param player  Player - the player to send the packets.
+     * @param packets Packet[] - the packets.
+     * @since 1.0.3
+     */
+    @SafeVarargs
+    public final void sendBundle(Player player, Packet<ClientGamePacketListener>... packets) {
+        sendBundle(Utils.getChannel(player), Arrays.asList(packets));
+    }
+
+    /**
+     * Sends the packets as one bundle to the channel.
+     *
+     * @param channel Channel - the channel of the player.
+     * @param packets List<Packet> - the packets.
+     * @since 1.0.3
+     */
+    public void sendBundle(Channel channel, List<Packet<ClientGamePacketListener>> packets) {
+        if (packets.isEmpty()) return;
+        send(channel, packets.size() == 1 ? packets.get(0) : new ClientboundBundlePacket(packets));
+    }
+
+    /**
+     * Flushes all channels, which have been written to since the last flush.
+     *
+     * @since 1.0.3
+     */
+    public void flush() {
+        Iterator<Channel> iterator = pendingFlush.iterator();
+        while (iterator.hasNext()) {
+            Channel channel = iterator.next();
+            iterator.remove();
+            channel.flush();
+        }
+    }
+
+    private static void writePackets(Channel channel, Packet<?>[] packets) {
+        for (Packet<?> packet : packets) {
+            channel.write(packet, channel.voidPromise());
+        }
+    }
+
+    private static void execute(Channel channel, Runnable runnable) {
+        if (!channel.isOpen())
+            return;
+        if (channel.eventLoop().inEventLoop())
+            runnable.run();
+        else
+            channel.eventLoop().execute(runnable);
+    }
+}
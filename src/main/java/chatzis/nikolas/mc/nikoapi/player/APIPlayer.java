@@ -2,14 +2,16 @@ package chatzis.nikolas.mc.nikoapi.player;
 
 import chatzis.nikolas.mc.nikoapi.NikoAPI;
 import chatzis.nikolas.mc.nikoapi.hologram.APIHologram;
+import chatzis.nikolas.mc.nikoapi.hologram.HologramIndex;
+import chatzis.nikolas.mc.nikoapi.hologram.HologramVisibility;
+import chatzis.nikolas.mc.nikoapi.packet.chunk.BlockSubstitution;
+import chatzis.nikolas.mc.nikoapi.packet.chunk.ChunkSubstitutions;
+import chatzis.nikolas.mc.nikoapi.util.IntHashSet;
 import chatzis.nikolas.mc.nikoapi.util.LocationUtil;
 import chatzis.nikolas.mc.nikoapi.util.Utils;
-import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
 import net.minecraft.network.protocol.game.ClientboundOpenBookPacket;
-import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
+import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
 import net.minecraft.world.InteractionHand;
-import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.decoration.ArmorStand;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Sound;
@@ -17,7 +19,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 public class APIPlayer {
 
@@ -26,7 +28,7 @@ public class APIPlayer {
 
 	private final Player player;
 	private final Map<String, Object> customData;
-	private final Map<Integer, List<APIHologram>> holograms;
+	private final IntHashSet holograms;
 
 	/**
 	 * Creates an instance of the api player for a given player.
@@ -37,7 +39,7 @@ public class APIPlayer {
 	public APIPlayer(Player player) {
 		this.player = player;
 		this.customData = new HashMap<>();
-		this.holograms = new HashMap<>();
+		this.holograms = new IntHashSet();
 	}
 
 
@@ -59,25 +61,17 @@ public class APIPlayer {
 
 	/**
 	 * Shows a hologram to the player.
+	 * The hologram is added to the {@link HologramIndex}, the player only stores its id.
+	 * Its entities are spawned, while it is within the render distance, see {@link HologramVisibility}.
 	 *
 	 * @param apiHologram {@link APIHologram} - the hologram to show.
 	 * @since 0.0.1
 	 */
 	public void showHologram(APIHologram apiHologram) {
-		this.holograms.compute(Utils.getChunkId(apiHologram.getLocation()),
-				(integer, apiHolograms) -> {
-					if (apiHolograms == null) {
-						apiHolograms = new ArrayList<>();
-					}
-					apiHolograms.add(apiHologram);
-					return apiHolograms;
-				});
-		if (player.getWorld().equals(apiHologram.getLocation().getWorld())) {
-			for (ArmorStand entityArmorStand : apiHologram.getArmorStands()) {
-				sendPacket(new ClientboundAddEntityPacket(entityArmorStand),
-						new ClientboundSetEntityDataPacket(entityArmorStand.getId(), entityArmorStand.getEntityData().getNonDefaultValues()));
-			}
-		}
+		if (isShowingHologram(apiHologram))
+			return;
+		holograms.add(HologramIndex.getInstance().addViewer(apiHologram));
+		HologramVisibility.getInstance().show(this, apiHologram);
 	}
 
 	/**
@@ -109,15 +103,12 @@ public class APIPlayer {
 	 * @since 0.0.1
 	 */
 	public void hideHolograms(Location location) {
-		holograms.computeIfPresent(Utils.getChunkId(location), (integer, holo) -> {
-			Utils.destroyEntities(player, holo.stream()
-					.filter(apiHologram -> LocationUtil.equalsLocation(location, apiHologram.getLocation()))
-					.flatMap(apiHologram -> {
-						holo.remove(apiHologram);
-						return apiHologram.getArmorStands().stream().map(h -> (Entity) h);
-					}).toList());
-			return holo;
-		});
+		List<APIHologram> hidden = getHolograms(location);
+		HologramVisibility.getInstance().hide(this, hidden);
+		for (APIHologram apiHologram : hidden) {
+			holograms.remove(HologramIndex.getInstance().getId(apiHologram));
+			HologramIndex.getInstance().removeViewer(apiHologram);
+		}
 	}
 
 	/**
@@ -126,10 +117,11 @@ public class APIPlayer {
 	 * @since 0.0.1
 	 */
 	public void hideHolograms() {
-		List<Entity> armorStands = getShownHolograms().values().stream().flatMap(apiHolograms -> apiHolograms.stream()
-				.flatMap(h -> h.getArmorStands().stream().map(armorStand -> (Entity) armorStand))).toList();
+		List<APIHologram> hidden = new ArrayList<>(holograms.size());
+		forEachShownHologram(hidden::add);
+		HologramVisibility.getInstance().hide(this, hidden);
+		hidden.forEach(HologramIndex.getInstance()::removeViewer);
 		holograms.clear();
-		Utils.destroyEntities(player, armorStands);
 	}
 
 	/**
@@ -140,19 +132,242 @@ public class APIPlayer {
 	 * @since 0.0.1
 	 */
 	public List<APIHologram> getHolograms(Location location) {
-		return getShownHolograms().getOrDefault(Utils.getChunkId(location), new ArrayList<>())
-				.stream().filter(holo -> LocationUtil.equalsLocation(location, holo.getLocation())).collect(Collectors.toList());
+		List<APIHologram> found = new ArrayList<>();
+		for (APIHologram apiHologram : HologramIndex.getInstance().getHolograms(location.getWorld(), Utils.getChunkKey(location))) {
+			if (isShowingHologram(apiHologram) && LocationUtil.equalsLocation(location, apiHologram.getLocation()))
+				found.add(apiHologram);
+		}
+		return found;
+	}
+
+	/**
+	 * Checks if a hologram is shown to the player.
+	 *
+	 * @param apiHologram {@link APIHologram} - the hologram.
+	 * @return boolean - whatever the player sees the hologram.
+	 * @since 1.0.3
+	 */
+	public boolean isShowingHologram(APIHologram apiHologram) {
+		int id = HologramIndex.getInstance().getId(apiHologram);
+		return id >= 0 && holograms.contains(id);
+	}
+
+	/**
+	 * Passes every hologram shown to the player to the consumer.
+	 * The holograms must not be shown or hidden by the consumer.
+	 *
+	 * @param consumer Consumer of {@link APIHologram} - the consumer.
+	 * @since 1.0.3
+	 */
+	public void forEachShownHologram(Consumer<APIHologram> consumer) {
+		HologramIndex index = HologramIndex.getInstance();
+		holograms.forEach(id -> consumer.accept(index.get(id)));
+	}
+
+	/**
+	 * Sets the distance, in which holograms are spawned for the player.
+	 *
+	 * @param distance double - the distance in blocks, 0 to spawn the holograms of all loaded chunks
+	 *                 or -1 to use the default distance.
+	 * @see HologramVisibility
+	 * @since 1.0.3
+	 */
+	public void setHologramRenderDistance(double distance) {
+		HologramVisibility.getInstance().setRenderDistance(this, distance);
 	}
 
+	/**
+	 * Gets the distance, in which holograms are spawned for the player.
+	 *
+	 * @return double - the distance in blocks, 0 if the holograms of all loaded chunks are spawned.
+	 * @since 1.0.3
+	 */
+	public double getHologramRenderDistance() {
+		return HologramVisibility.getInstance().getRenderDistance(player);
+	}
+
+	/**
+	 * Gets the number of holograms shown to the player.
+	 *
+	 * @return int - the number of holograms.
+	 * @since 1.0.3
+	 */
+	public int getShownHologramCount() {
+		return holograms.size();
+	}
 
 	/**
 	 * Gets all the holograms that the player can see.
 	 *
 	 * @return Map of {@link APIHologram}
 	 * @since 0.0.1
+	 * @deprecated the map is created on every call, use {@link #isShowingHologram(APIHologram)} or the {@link HologramIndex}.
 	 */
+	@Deprecated
 	public Map<Integer, List<APIHologram>> getShownHolograms() {
-		return new HashMap<>(holograms);
+		Map<Integer, List<APIHologram>> shown = new HashMap<>();
+		HologramIndex index = HologramIndex.getInstance();
+		holograms.forEach(id -> {
+			APIHologram apiHologram = index.get(id);
+			shown.computeIfAbsent(Utils.getChunkId(apiHologram.getLocation()), chunkId -> new ArrayList<>()).add(apiHologram);
+		});
+		return shown;
+	}
+
+	/**
+	 * Removes the player from the viewers of its holograms without sending packets.
+	 * Called, when the player quits.
+	 */
+	void releaseHolograms() {
+		HologramVisibility.getInstance().remove(player.getUniqueId());
+		HologramIndex index = HologramIndex.getInstance();
+		holograms.forEach(id -> index.removeViewer(index.get(id)));
+		holograms.clear();
+	}
+
+	/**
+	 * Hides an entity from the player.
+	 * The packets of the entity are dropped in the connection of the player, the entity tracker of the server is not involved.
+	 *
+	 * @param entityId int - the id of the entity.
+	 * @return boolean - whatever the entity was hidden, false if it is already hidden or the connection is not bound.
+	 * @since 1.0.3
+	 */
+	public boolean hideEntity(int entityId) {
+		EntityFilter entityFilter = getEntityFilter();
+		if (entityFilter == null || !entityFilter.hide(entityId))
+			return false;
+		sendPacket(new ClientboundRemoveEntitiesPacket(entityId));
+		return true;
+	}
+
+	/**
+	 * Hides an entity from the player.
+	 *
+	 * @param entity org.bukkit.entity.Entity - the entity.
+	 * @return boolean - whatever the entity was hidden, false if it is already hidden or the connection is not bound.
+	 * @see #hideEntity(int)
+	 * @since 1.0.3
+	 */
+	public boolean hideEntity(org.bukkit.entity.Entity entity) {
+		return hideEntity(entity.getEntityId());
+	}
+
+	/**
+	 * Shows a hidden entity to the player again.
+	 * The entity is not spawned again, so this is meant for packet entities, which are sent by the caller afterward.
+	 *
+	 * @param entityId int - the id of the entity.
+	 * @return boolean - whatever the entity was hidden before.
+	 * @since 1.0.3
+	 */
+	public boolean showEntity(int entityId) {
+		EntityFilter entityFilter = getEntityFilter();
+		return entityFilter != null && entityFilter.show(entityId);
+	}
+
+	/**
+	 * Shows a hidden entity to the player again.
+	 * The entity tracker is asked to spawn the entity again for this player, so it has to be called on the main thread.
+	 *
+	 * @param entity org.bukkit.entity.Entity - the entity.
+	 * @return boolean - whatever the entity was hidden before.
+	 * @since 1.0.3
+	 */
+	public boolean showEntity(org.bukkit.entity.Entity entity) {
+		if (!showEntity(entity.getEntityId()))
+			return false;
+		player.hideEntity(NikoAPI.getInstance(), entity);
+		player.showEntity(NikoAPI.getInstance(), entity);
+		return true;
+	}
+
+	/**
+	 * Checks if an entity is hidden from the player.
+	 *
+	 * @param entityId int - the id of the entity.
+	 * @return boolean - whatever the entity is hidden.
+	 * @since 1.0.3
+	 */
+	public boolean isEntityHidden(int entityId) {
+		EntityFilter entityFilter = getEntityFilter();
+		return entityFilter != null && entityFilter.isHidden(entityId);
+	}
+
+	/**
+	 * Gets the filter of the entities, which are hidden from the player.
+	 *
+	 * @return {@link EntityFilter} - the filter or null, if the connection of the player is not bound.
+	 * @since 1.0.3
+	 */
+	public EntityFilter getEntityFilter() {
+		PlayerPacketReader reader = PlayerPacketReader.getReader(player.getUniqueId());
+		return reader == null ? null : reader.getEntityFilter();
+	}
+
+	/**
+	 * Sets the distance, in which the player sees entities.
+	 * Entities beyond it are removed in the connection of the player, while the server still tracks them.
+	 *
+	 * @param distance double - the distance in blocks, 0 to see every entity the server sends.
+	 * @return boolean - whatever the distance was set, false if the connection is not bound.
+	 * @since 1.0.3
+	 */
+	public boolean setEntityViewDistance(double distance) {
+		EntityViewCuller entityCuller = getEntityCuller();
+		if (entityCuller == null)
+			return false;
+		entityCuller.setViewDistance(distance);
+		return true;
+	}
+
+	/**
+	 * Gets the distance, in which the player sees entities.
+	 *
+	 * @return double - the distance in blocks, 0 if entities are not culled.
+	 * @since 1.0.3
+	 */
+	public double getEntityViewDistance() {
+		EntityViewCuller entityCuller = getEntityCuller();
+		return entityCuller == null ? 0 : entityCuller.getViewDistance();
+	}
+
+	/**
+	 * Gets the statistics of the entity culling of the player.
+	 *
+	 * @return {@link EntityViewStats} - the statistics or null, if the connection is not bound.
+	 * @since 1.0.3
+	 */
+	public EntityViewStats getEntityViewStats() {
+		EntityViewCuller entityCuller = getEntityCuller();
+		return entityCuller == null ? null : entityCuller.getStats();
+	}
+
+	/**
+	 * Sets the rules, which replace block states in the chunks sent to the player.
+	 * Players with the same rule set share the rewritten chunks.
+	 *
+	 * @param substitution {@link BlockSubstitution} - the rule set or null, to send the chunks unchanged.
+	 * @see ChunkSubstitutions
+	 * @since 1.0.3
+	 */
+	public void setBlockSubstitution(BlockSubstitution substitution) {
+		ChunkSubstitutions.getInstance().setSubstitution(player, substitution);
+	}
+
+	/**
+	 * Gets the rules, which replace block states in the chunks sent to the player.
+	 *
+	 * @return {@link BlockSubstitution} - the rule set or null, if the chunks are sent unchanged.
+	 * @since 1.0.3
+	 */
+	public BlockSubstitution getBlockSubstitution() {
+		return ChunkSubstitutions.getInstance().getSubstitution(player);
+	}
+
+	private EntityViewCuller getEntityCuller() {
+		PlayerPacketReader reader = PlayerPacketReader.getReader(player.getUniqueId());
+		return reader == null ? null : reader.getEntityCuller();
 	}
 
 	/**
@@ -162,9 +377,7 @@ public class APIPlayer {
 	 * @since 1.0.2
 	 */
 	public void sendPacket(Object... packets) {
-		for (Object packet : packets) {
-			sendPacket(packet);
-		}
+		Utils.sendPackets(player, packets);
 	}
 
 	/**
@@ -0,0 +1,233 @@
+package chatzis.nikolas.mc.nikoapi.player;
+
+import chatzis.nikolas.mc.nikoapi.util.LongHashSet;
+import chatzis.nikolas.mc.nikoapi.util.Utils;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.protocol.game.ClientboundForgetLevelChunkPacket;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.network.protocol.game.ClientboundLoginPacket;
+import net.minecraft.network.protocol.game.ClientboundRespawnPacket;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.dimension.DimensionType;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Tracks the chunks, which the client of a player has loaded.
+ * The tracker is fed by the {@link PacketInterceptor} with the chunk loads and unloads, which actually pass the channel,
+ * so cancelled packets are not tracked.
+ * On login and respawn the client drops all of its chunks, so the view is cleared
+ * and the lowest section of the new dimension is read from the packet.
+ * <p>
+ * The chunks are stored as chunk keys (see {@link Utils#getChunkKey(int, int)}) in a primitive set per player.
+ * Locations are resolved by their block coordinates, so a query never loads a chunk.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public class ChunkViewTracker {
+
+    /**
+     * Returned as lowest section, while the dimension of a client is unknown.
+     */
+    public static final int UNKNOWN_SECTION = Integer.MIN_VALUE;
+
+    private static final ChunkViewTracker instance = new ChunkViewTracker();
+
+    /**
+     * Get the instance of this class
+     *
+     * @return ChunkViewTracker - A instance of {@link ChunkViewTracker}
+     */
+    public static ChunkViewTracker getInstance() {
+        return instance;
+    }
+
+    private final Map<UUID, ChunkView> views;
+
+    private ChunkViewTracker() {
+        this.views = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Checks if the client of a player has a chunk loaded.
+     *
+     * @param player Player - the player.
+     * @param chunkX int - the x coordinate of the chunk.
+     * @param chunkZ int - the z coordinate of the chunk.
+     * @return boolean - whatever the chunk is loaded by the client.
+     * @since 1.0.3
+     */
+    public boolean isChunkVisible(Player player, int chunkX, int chunkZ) {
+        return isChunkVisible(player, Utils.getChunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * Checks if the client of a player has a chunk loaded.
+     *
+     * @param player   Player - the player.
+     * @param chunkKey long - the key of the chunk.
+     * @return boolean - whatever the chunk is loaded by the client.
+     * @since 1.0.3
+     */
+    public boolean isChunkVisible(Player player, long chunkKey) {
+        ChunkView view = views.get(player.getUniqueId());
+        return view != null && view.contains(chunkKey);
+    }
+
+    /**
+     * Checks if the client of a player has the chunk of a location loaded.
+     * The location has to be in the world of the player.
+     *
+     * @param player   Player - the player.
+     * @param location Location - the location.
+     * @return boolean - whatever the chunk of the location is loaded by the client.
+     * @since 1.0.3
+     */
+    public boolean isVisible(Player player, Location location) {
+        return player.getWorld().equals(location.getWorld()) && isChunkVisible(player, Utils.getChunkKey(location));
+    }
+
+    /**
+     * Gets the chunks, which the client of a player has loaded.
+     *
+     * @param player Player - the player.
+     * @return long[] - the chunk keys in no particular order.
+     * @since 1.0.3
+     */
+    public long[] getVisibleChunks(Player player) {
+        ChunkView view = views.get(player.getUniqueId());
+        return view == null ? new long[0] : view.toArray();
+    }
+
+    /**
+     * Passes every chunk, which the client of a player has loaded, to the consumer.
+     * The view of the player is locked meanwhile, so the consumer should be short.
+     *
+     * @param player   Player - the player.
+     * @param consumer LongConsumer - the consumer of the chunk keys.
+     * @since 1.0.3
+     */
+    public void forEachVisibleChunk(Player player, LongConsumer consumer) {
+        ChunkView view = views.get(player.getUniqueId());
+        if (view != null)
+            view.forEach(consumer);
+    }
+
+    /**
+     * Gets the number of chunks, which the client of a player has loaded.
+     *
+     * @param player Player - the player.
+     * @return int - the loaded chunks.
+     * @since 1.0.3
+     */
+    public int getVisibleChunkCount(Player player) {
+        ChunkView view = views.get(player.getUniqueId());
+        return view == null ? 0 : view.size();
+    }
+
+    /**
+     * Gets the lowest section of the dimension, in which the client of a player is.
+     * The section is taken from the login and respawn packets, which passed the channel,
+     * so it matches the chunks sent afterward and can be queried by the event loop of the player.
+     *
+     * @param player Player - the player.
+     * @return int - the y coordinate of the lowest section or {@link #UNKNOWN_SECTION}, if the dimension is unknown.
+     * @since 1.0.3
+     */
+    public int getMinSection(Player player) {
+        ChunkView view = views.get(player.getUniqueId());
+        return view == null ? UNKNOWN_SECTION : view.minSection;
+    }
+
+    /**
+     * Removes the view of a player, called on quit.
+     *
+     * @param uuid UUID - the uuid of the player.
+     * @since 1.0.3
+     */
+    public void remove(UUID uuid) {
+        views.remove(uuid);
+    }
+
+    /**
+     * Creates the view of a player, which is bound to its channel.
+     * Called by the main thread, the dimension of the player is used until a login or respawn packet passes the channel.
+     */
+    void playerBound(Player player) {
+        ChunkView view = views.computeIfAbsent(player.getUniqueId(), uuid -> new ChunkView());
+        if (view.minSection == UNKNOWN_SECTION)
+            view.minSection = SectionPos.blockToSectionCoord(player.getWorld().getMinHeight());
+    }
+
+    /**
+     * Updates the view with a packet, which passed the channel of the player.
+     * Called by the event loop of the player.
+     */
+    void packetSent(Player player, Object packet) {
+        if (packet instanceof ClientboundLevelChunkWithLightPacket chunkPacket) {
+            views.computeIfAbsent(player.getUniqueId(), uuid -> new ChunkView()).add(Utils.getChunkKey(chunkPacket.getX(), chunkPacket.getZ()));
+        } else if (packet instanceof ClientboundForgetLevelChunkPacket forgetPacket) {
+            ChunkView view = views.get(player.getUniqueId());
+            if (view != null)
+                view.remove(Utils.getChunkKey(forgetPacket.getX(), forgetPacket.getZ()));
+        } else if (packet instanceof ClientboundLoginPacket loginPacket) {
+            dimensionChanged(player, loginPacket.dimensionType());
+        } else if (packet instanceof ClientboundRespawnPacket respawnPacket) {
+            dimensionChanged(player, respawnPacket.getDimensionType());
+        }
+    }
+
+    private void dimensionChanged(Player player, ResourceKey<DimensionType> dimensionType) {
+        ChunkView view = views.computeIfAbsent(player.getUniqueId(), uuid -> new ChunkView());
+        view.clear();
+        MinecraftServer server = MinecraftServer.getServer();
+        DimensionType type = server == null ? null : server.registryAccess().registryOrThrow(Registries.DIMENSION_TYPE).get(dimensionType);
+        // The section of the previous dimension must not be applied to chunks of the new one
+        view.minSection = type == null ? UNKNOWN_SECTION : SectionPos.blockToSectionCoord(type.minY());
+    }
+
+    /**
+     * The chunks of one client, written by the event loop and read by any thread.
+     */
+    private static final class ChunkView {
+
+        private final LongHashSet chunks = new LongHashSet(512);
+        private volatile int minSection = UNKNOWN_SECTION;
+
+        private synchronized void add(long chunkKey) {
+            chunks.add(chunkKey);
+        }
+
+        private synchronized void remove(long chunkKey) {
+            chunks.remove(chunkKey);
+        }
+
+        private synchronized void clear() {
+            chunks.clear();
+        }
+
+        private synchronized boolean contains(long chunkKey) {
+            return chunks.contains(chunkKey);
+        }
+
+        private synchronized int size() {
+            return chunks.size();
+        }
+
+        private synchronized long[] toArray() {
+            return chunks.toArray();
+        }
+
+        private synchronized void forEach(LongConsumer consumer) {
+            chunks.forEach(consumer);
+        }
+    }
+}
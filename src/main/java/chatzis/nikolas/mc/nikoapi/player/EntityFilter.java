@@ -0,0 +1,107 @@
+package chatzis.nikolas.mc.nikoapi.player;
+
+import chatzis.nikolas.mc.nikoapi.util.IntHashSet;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+
+/**
+ * Hides entities from a single viewer in the outbound path of its connection.
+ * The {@link PacketInterceptor} drops the spawn, metadata, movement and equipment packets of hidden entities,
+ * bundles are unwrapped and sent without them.
+ * The server keeps tracking the entities, so hiding and showing does not touch the entity tracker.
+ * <p>
+ * The hidden entities are a primitive set, which is replaced as a whole on change,
+ * so the event loop reads it without locking.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class EntityFilter {
+
+    private volatile IntHashSet hidden;
+
+    EntityFilter() {
+        this.hidden = new IntHashSet(0);
+    }
+
+    /**
+     * Hides an entity from the viewer.
+     *
+     * @param entityId int - the id of the entity.
+     * @return boolean - whatever the entity was visible before.
+     * @since 1.0.3
+     */
+    public synchronized boolean hide(int entityId) {
+        IntHashSet copy = hidden.copy();
+        if (!copy.add(entityId))
+            return false;
+        this.hidden = copy;
+        return true;
+    }
+
+    /**
+     * Shows a hidden entity to the viewer again.
+     * Only the following packets are passed, the entity has to be spawned again to be seen.
+     *
+     * @param entityId int - the id of the entity.
+     * @return boolean - whatever the entity was hidden before.
+     * @since 1.0.3
+     */
+    public synchronized boolean show(int entityId) {
+        IntHashSet copy = hidden.copy();
+        if (!copy.remove(entityId))
+            return false;
+        this.hidden = copy;
+        return true;
+    }
+
+    /**
+     * Shows all hidden entities to the viewer again.
+     *
+     * @since 1.0.3
+     */
+    public synchronized void clear() {
+        this.hidden = new IntHashSet(0);
+    }
+
+    /**
+     * Checks if an entity is hidden from the viewer.
+     *
+     * @param entityId int - the id of the entity.
+     * @return boolean - whatever the entity is hidden.
+     * @since 1.0.3
+     */
+    public boolean isHidden(int entityId) {
+        return hidden.contains(entityId);
+    }
+
+    /**
+     * Gets the entities, which are hidden from the viewer.
+     *
+     * @return int[] - the ids of the hidden entities.
+     * @since 1.0.3
+     */
+    public int[] getHiddenEntities() {
+        return hidden.toArray();
+    }
+
+    /**
+     * Filters an outbound packet.
+     * Called by the event loop of the viewer.
+     *
+     * @return Object - the packet, a bundle without the packets of hidden entities or null, if the packet is dropped.
+     */
+    Object filter(Object packet) {
+        IntHashSet hidden = this.hidden;
+        if (hidden.isEmpty())
+            return packet;
+
+        if (packet instanceof ClientboundBundlePacket bundle)
+            return EntityPackets.filterBundle(bundle, subPacket -> !isHidden(hidden, subPacket));
+        return isHidden(hidden, packet) ? null : packet;
+    }
+
+    private static boolean isHidden(IntHashSet hidden, Object packet) {
+        int entityId = EntityPackets.getEntityId(packet);
+        return entityId != EntityPackets.NO_ENTITY && hidden.contains(entityId);
+    }
+}
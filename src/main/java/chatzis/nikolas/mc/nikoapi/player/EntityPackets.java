@@ -0,0 +1,192 @@
+package chatzis.nikolas.mc.nikoapi.player;
+
+import chatzis.nikolas.mc.nikoapi.util.ReflectionHelper;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundAddExperienceOrbPacket;
+import net.minecraft.network.protocol.game.ClientboundAddPlayerPacket;
+import net.minecraft.network.protocol.game.ClientboundAnimatePacket;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import net.minecraft.network.protocol.game.ClientboundEntityEventPacket;
+import net.minecraft.network.protocol.game.ClientboundHurtAnimationPacket;
+import net.minecraft.network.protocol.game.ClientboundMoveEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
+import net.minecraft.network.protocol.game.ClientboundRotateHeadPacket;
+import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
+import net.minecraft.network.protocol.game.ClientboundSetEntityMotionPacket;
+import net.minecraft.network.protocol.game.ClientboundSetEquipmentPacket;
+import net.minecraft.network.protocol.game.ClientboundTeleportEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundUpdateAttributesPacket;
+import net.minecraft.network.protocol.game.ClientboundUpdateMobEffectPacket;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads the entity id of the clientbound packets, which spawn or update a single entity.
+ * The packets without a getter for the id are read by a handle to their int field,
+ * which is located by its type, so it works with spigot and mojang mappings alike.
+ * The lookup is a single map access by the packet class.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+final class EntityPackets {
+
+    /**
+     * Returned for packets, which don't belong to a single entity.
+     */
+    static final int NO_ENTITY = Integer.MIN_VALUE;
+
+    /**
+     * The estimated size of the packets, which are not estimated by their type.
+     */
+    static final int DEFAULT_SIZE = 8;
+
+    private static final Logger LOG = Logger.getLogger(EntityPackets.class.getSimpleName());
+    private static final Map<Class<?>, ToIntFunction<Object>> ENTITY_IDS = new IdentityHashMap<>();
+
+    static {
+        register(ClientboundAddEntityPacket.class, ClientboundAddEntityPacket::getId);
+        register(ClientboundAddPlayerPacket.class, ClientboundAddPlayerPacket::getEntityId);
+        register(ClientboundAddExperienceOrbPacket.class, ClientboundAddExperienceOrbPacket::getId);
+        register(ClientboundSetEntityDataPacket.class, ClientboundSetEntityDataPacket::id);
+        register(ClientboundTeleportEntityPacket.class, ClientboundTeleportEntityPacket::getId);
+        register(ClientboundSetEntityMotionPacket.class, ClientboundSetEntityMotionPacket::getId);
+        register(ClientboundSetEquipmentPacket.class, ClientboundSetEquipmentPacket::getEntity);
+        register(ClientboundAnimatePacket.class, ClientboundAnimatePacket::getId);
+        register(ClientboundHurtAnimationPacket.class, ClientboundHurtAnimationPacket::id);
+        register(ClientboundUpdateAttributesPacket.class, ClientboundUpdateAttributesPacket::getEntityId);
+        register(ClientboundUpdateMobEffectPacket.class, ClientboundUpdateMobEffectPacket::getEntityId);
+
+        ToIntFunction<Object> moveEntity = fieldReader(ClientboundMoveEntityPacket.class);
+        if (moveEntity != null) {
+            ENTITY_IDS.put(ClientboundMoveEntityPacket.Pos.class, moveEntity);
+            ENTITY_IDS.put(ClientboundMoveEntityPacket.PosRot.class, moveEntity);
+            ENTITY_IDS.put(ClientboundMoveEntityPacket.Rot.class, moveEntity);
+        }
+        ToIntFunction<Object> rotateHead = fieldReader(ClientboundRotateHeadPacket.class);
+        if (rotateHead != null)
+            ENTITY_IDS.put(ClientboundRotateHeadPacket.class, rotateHead);
+        ToIntFunction<Object> entityEvent = fieldReader(ClientboundEntityEventPacket.class);
+        if (entityEvent != null)
+            ENTITY_IDS.put(ClientboundEntityEventPacket.class, entityEvent);
+    }
+
+    private EntityPackets() {
+        throw new UnsupportedOperationException("This is a util class.");
+    }
+
+    /**
+     * Gets the entity id of a packet.
+     *
+     * @param packet Object - the packet.
+     * @return int - the entity id or {@link #NO_ENTITY}, if the packet does not belong to a single entity.
+     */
+    static int getEntityId(Object packet) {
+        ToIntFunction<Object> entityId = ENTITY_IDS.get(packet.getClass());
+        return entityId == null ? NO_ENTITY : entityId.applyAsInt(packet);
+    }
+
+    /**
+     * Checks if a packet spawns an entity.
+     */
+    static boolean isSpawn(Object packet) {
+        return packet instanceof ClientboundAddEntityPacket || packet instanceof ClientboundAddPlayerPacket
+                || packet instanceof ClientboundAddExperienceOrbPacket;
+    }
+
+    /**
+     * Estimates the size of a packet before compression, without encoding it.
+     * The size assumes entity ids of three bytes and items without tags,
+     * packets of other types are estimated with {@link #DEFAULT_SIZE}.
+     *
+     * @return int - the estimated size in bytes including the packet id.
+     */
+    static int estimateSize(Object packet) {
+        if (packet instanceof ClientboundBundlePacket bundle) {
+            // Both delimiters are a packet id only
+            int size = 2;
+            for (Packet<ClientGamePacketListener> subPacket : bundle.subPackets())
+                size += estimateSize(subPacket);
+            return size;
+        }
+        if (packet instanceof ClientboundMoveEntityPacket movePacket)
+            return 5 + (movePacket.hasPosition() ? 6 : 0) + (movePacket.hasRotation() ? 2 : 0);
+        if (packet instanceof ClientboundSetEntityDataPacket dataPacket)
+            return 5 + dataPacket.packedItems().size() * 6;
+        if (packet instanceof ClientboundSetEquipmentPacket equipmentPacket)
+            return 4 + equipmentPacket.getSlots().size() * 6;
+        if (packet instanceof ClientboundRemoveEntitiesPacket removePacket)
+            return 2 + removePacket.getEntityIds().size() * 3;
+        if (packet instanceof ClientboundAddEntityPacket)
+            return 53;
+        if (packet instanceof ClientboundAddPlayerPacket)
+            return 46;
+        if (packet instanceof ClientboundAddExperienceOrbPacket)
+            return 30;
+        if (packet instanceof ClientboundTeleportEntityPacket)
+            return 31;
+        return DEFAULT_SIZE;
+    }
+
+    /**
+     * Filters the packets of a bundle.
+     *
+     * @return Object - the bundle itself, if every packet is kept, a bundle of the kept packets or null, if none is kept.
+     */
+    static Object filterBundle(ClientboundBundlePacket bundle, Predicate<Packet<ClientGamePacketListener>> keep) {
+        List<Packet<ClientGamePacketListener>> kept = null;
+        int index = 0;
+        for (Packet<ClientGamePacketListener> packet : bundle.subPackets()) {
+            boolean drop = !keep.test(packet);
+            if (drop && kept == null) {
+                // The first dropped packet, the packets before it are kept
+                kept = new ArrayList<>();
+                for (Packet<ClientGamePacketListener> previous : bundle.subPackets()) {
+                    if (kept.size() == index)
+                        break;
+                    kept.add(previous);
+                }
+            } else if (!drop && kept != null) {
+                kept.add(packet);
+            }
+            index++;
+        }
+
+        if (kept == null)
+            return bundle;
+        return kept.isEmpty() ? null : new ClientboundBundlePacket(kept);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <P> void register(Class<P> packetClass, ToIntFunction<P> entityId) {
+        ENTITY_IDS.put(packetClass, (ToIntFunction<Object>) entityId);
+    }
+
+    /**
+     * Creates a reader of the only int field of a packet class, which is its entity id.
+     */
+    private static ToIntFunction<Object> fieldReader(Class<?> packetClass) {
+        try {
+            Field field = ReflectionHelper.findFieldByType(packetClass, int.class);
+            if (field == null)
+                throw new IllegalStateException("Entity id of " + packetClass.getSimpleName() + " not found");
+            VarHandle handle = MethodHandles.privateLookupIn(packetClass, MethodHandles.lookup()).unreflectVarHandle(field);
+            return packet -> (int) handle.get(packet);
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            LOG.log(Level.WARNING, "Could not resolve the entity id of {0}: {1}", new String[]{packetClass.getSimpleName(), exception.getMessage()});
+            return null;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package chatzis.nikolas.mc.nikoapi.player;
+
+import chatzis.nikolas.mc.nikoapi.packet.metrics.PacketMetrics;
+import com.mojang.datafixers.util.Pair;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundAddExperienceOrbPacket;
+import net.minecraft.network.protocol.game.ClientboundAddPlayerPacket;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import net.minecraft.network.protocol.game.ClientboundLoginPacket;
+import net.minecraft.network.protocol.game.ClientboundMoveEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundPlayerPositionPacket;
+import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
+import net.minecraft.network.protocol.game.ClientboundRespawnPacket;
+import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
+import net.minecraft.network.protocol.game.ClientboundSetEquipmentPacket;
+import net.minecraft.network.protocol.game.ClientboundTeleportEntityPacket;
+import net.minecraft.network.protocol.game.ServerboundMovePlayerPacket;
+import net.minecraft.network.protocol.game.ServerboundMoveVehiclePacket;
+import net.minecraft.network.syncher.SynchedEntityData;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.RelativeMovement;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Limits the distance, in which a player sees entities, below the tracking range of the server.
+ * The culler sits in the outbound path of the {@link PacketInterceptor} and keeps the state of every entity,
+ * which is spawned for the player, from the packets themselves:
+ * its spawn packet, its position, its merged metadata and its equipment.
+ * <p>
+ * The packets of entities beyond the view distance are not sent.
+ * When an entity crosses the view distance, the culler removes it from the client
+ * or spawns it again with its cached state, so the server tracker is never involved.
+ * The position of the player is read from its movement packets.
+ * Entities, which were spawned before the view distance was set, are culled after they are spawned again.
+ * <p>
+ * The state is only accessed by the event loop of the player, the statistics are read by any thread.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class EntityViewCuller {
+
+    // Entities are removed a bit beyond the view distance, so entities at the border don't flicker
+    private static final double HYSTERESIS = 2;
+    private static final double REEVALUATE_DISTANCE_SQUARED = 4 * 4;
+
+    private final Channel channel;
+    private final Map<Integer, TrackedEntity> entities;
+    private volatile double viewDistance;
+    private double appliedViewDistance;
+    private boolean viewerKnown;
+    private double viewerX;
+    private double viewerZ;
+    private double evaluatedX;
+    private double evaluatedZ;
+
+    // Only written by the event loop
+    private volatile int trackedEntities;
+    private volatile int culledEntities;
+    private volatile long suppressedPackets;
+    private volatile long suppressedBytes;
+    private volatile long synthesizedPackets;
+    private volatile long synthesizedBytes;
+
+    EntityViewCuller(Channel channel) {
+        this.channel = channel;
+        this.entities = new HashMap<>();
+    }
+
+    /**
+     * Sets the view distance for entities.
+     * Entities are spawned or removed on the next packet of the connection.
+     *
+     * @param viewDistance double - the distance in blocks, 0 to send every entity of the server tracker.
+     * @since 1.0.3
+     */
+    public void setViewDistance(double viewDistance) {
+        if (viewDistance < 0)
+            throw new IllegalArgumentException("View distance must not be negative");
+        this.viewDistance = viewDistance;
+        channel.eventLoop().execute(this::applyViewDistance);
+    }
+
+    /**
+     * Gets the view distance for entities.
+     *
+     * @return double - the distance in blocks, 0 if entities are not culled.
+     * @since 1.0.3
+     */
+    public double getViewDistance() {
+        return viewDistance;
+    }
+
+    /**
+     * Gets the statistics of the culler.
+     *
+     * @return {@link EntityViewStats} - the statistics.
+     * @since 1.0.3
+     */
+    public EntityViewStats getStats() {
+        return new EntityViewStats(trackedEntities, culledEntities, suppressedPackets, suppressedBytes, synthesizedPackets, synthesizedBytes);
+    }
+
+    /**
+     * Reads the position of the player from an inbound packet.
+     */
+    void packetRead(ChannelHandlerContext ctx, Object packet) {
+        if (appliedViewDistance <= 0)
+            return;
+        if (packet instanceof ServerboundMovePlayerPacket movePacket && movePacket.hasPosition())
+            moveViewer(ctx, movePacket.getX(viewerX), movePacket.getZ(viewerZ));
+        else if (packet instanceof ServerboundMoveVehiclePacket vehiclePacket)
+            moveViewer(ctx, vehiclePacket.getX(), vehiclePacket.getZ());
+    }
+
+    /**
+     * Filters an outbound packet.
+     *
+     * @return Object - the packet, a bundle without the culled packets or null, if the packet is culled.
+     */
+    Object filter(ChannelHandlerContext ctx, Object packet) {
+        if (appliedViewDistance <= 0)
+            return packet;
+
+        if (packet instanceof ClientboundBundlePacket bundle)
+            return EntityPackets.filterBundle(bundle, subPacket -> handle(ctx, subPacket));
+        return handle(ctx, packet) ? packet : null;
+    }
+
+    /**
+     * Updates the state with a packet.
+     *
+     * @return boolean - whatever the packet is sent.
+     */
+    private boolean handle(ChannelHandlerContext ctx, Object packet) {
+        if (packet instanceof ClientboundRemoveEntitiesPacket removePacket) {
+            for (int entityId : removePacket.getEntityIds())
+                remove(entityId);
+            return true;
+        }
+        if (packet instanceof ClientboundPlayerPositionPacket positionPacket) {
+            teleportViewer(ctx, positionPacket);
+            return true;
+        }
+        if (packet instanceof ClientboundLoginPacket || packet instanceof ClientboundRespawnPacket) {
+            clear();
+            return true;
+        }
+
+        int entityId = EntityPackets.getEntityId(packet);
+        if (entityId == EntityPackets.NO_ENTITY)
+            return true;
+
+        if (EntityPackets.isSpawn(packet)) {
+            TrackedEntity entity = new TrackedEntity(entityId, (Packet<?>) packet);
+            TrackedEntity replaced = entities.put(entityId, entity);
+            if (replaced != null && !replaced.visible)
+                culledEntities--;
+            trackedEntities = entities.size();
+            entity.visible = isInRange(entity, appliedViewDistance);
+            if (entity.visible)
+                return true;
+            culledEntities++;
+            suppress(packet);
+            return false;
+        }
+
+        TrackedEntity entity = entities.get(entityId);
+        if (entity == null)
+            return true;
+        entity.update(packet);
+        if (entity.visible) {
+            if (isInRange(entity, appliedViewDistance + HYSTERESIS))
+                return true;
+            hide(ctx, entity);
+        } else if (isInRange(entity, appliedViewDistance)) {
+            // The spawned state already contains the packet
+            reveal(ctx, entity);
+            return false;
+        }
+        suppress(packet);
+        return false;
+    }
+
+    private void applyViewDistance() {
+        double distance = viewDistance;
+        if (distance == appliedViewDistance)
+            return;
+        ChannelHandlerContext ctx = channel.pipeline().context(PacketInterceptor.NAME);
+        if (distance <= 0 && ctx != null) {
+            // Entities, which are culled, are spawned again, afterward the state is not needed anymore
+            for (TrackedEntity entity : entities.values()) {
+                if (!entity.visible)
+                    reveal(ctx, entity);
+            }
+            ctx.flush();
+        }
+        this.appliedViewDistance = distance;
+        if (distance <= 0)
+            clear();
+        else if (ctx != null)
+            reevaluate(ctx);
+    }
+
+    private void teleportViewer(ChannelHandlerContext ctx, ClientboundPlayerPositionPacket packet) {
+        double x = packet.getRelativeArguments().contains(RelativeMovement.X) ? viewerX + packet.getX() : packet.getX();
+        double z = packet.getRelativeArguments().contains(RelativeMovement.Z) ? viewerZ + packet.getZ() : packet.getZ();
+        moveViewer(ctx, x, z);
+    }
+
+    private void moveViewer(ChannelHandlerContext ctx, double x, double z) {
+        this.viewerX = x;
+        this.viewerZ = z;
+        if (!viewerKnown) {
+            this.viewerKnown = true;
+            reevaluate(ctx);
+            return;
+        }
+        double dx = x - evaluatedX;
+        double dz = z - evaluatedZ;
+        if (dx * dx + dz * dz >= REEVALUATE_DISTANCE_SQUARED)
+            reevaluate(ctx);
+    }
+
+    /**
+     * Spawns and removes the entities, which crossed the view distance, because the player moved.
+     */
+    private void reevaluate(ChannelHandlerContext ctx) {
+        this.evaluatedX = viewerX;
+        this.evaluatedZ = viewerZ;
+        boolean changed = false;
+        for (TrackedEntity entity : entities.values()) {
+            if (entity.visible && !isInRange(entity, appliedViewDistance + HYSTERESIS)) {
+                hide(ctx, entity);
+                changed = true;
+            } else if (!entity.visible && isInRange(entity, appliedViewDistance)) {
+                reveal(ctx, entity);
+                changed = true;
+            }
+        }
+        if (changed)
+            ctx.flush();
+    }
+
+    private boolean isInRange(TrackedEntity entity, double distance) {
+        if (!viewerKnown)
+            return true;
+        double dx = entity.x - viewerX;
+        double dz = entity.z - viewerZ;
+        return dx * dx + dz * dz <= distance * distance;
+    }
+
+    private void hide(ChannelHandlerContext ctx, TrackedEntity entity) {
+        entity.visible = false;
+        culledEntities++;
+        synthesize(ctx, new ClientboundRemoveEntitiesPacket(entity.id));
+    }
+
+    private void reveal(ChannelHandlerContext ctx, TrackedEntity entity) {
+        entity.visible = true;
+        culledEntities--;
+        synthesize(ctx, entity.spawn);
+        synthesize(ctx, entity.createTeleport());
+        List<SynchedEntityData.DataValue<?>> metadata = entity.getMetadata();
+        if (!metadata.isEmpty())
+            synthesize(ctx, new ClientboundSetEntityDataPacket(entity.id, metadata));
+        if (!entity.equipment.isEmpty()) {
+            List<Pair<EquipmentSlot, ItemStack>> slots = new ArrayList<>();
+            entity.equipment.forEach((slot, item) -> slots.add(Pair.of(slot, item)));
+            synthesize(ctx, new ClientboundSetEquipmentPacket(entity.id, slots));
+        }
+    }
+
+    private void remove(int entityId) {
+        TrackedEntity entity = entities.remove(entityId);
+        if (entity == null)
+            return;
+        if (!entity.visible)
+            culledEntities--;
+        trackedEntities = entities.size();
+    }
+
+    private void clear() {
+        entities.clear();
+        trackedEntities = 0;
+        culledEntities = 0;
+        viewerKnown = false;
+    }
+
+    private void synthesize(ChannelHandlerContext ctx, Packet<?> packet) {
+        PacketInterceptor.forward(ctx, PlayerPacketReader.getPlayer(channel), packet, ctx.voidPromise());
+        synthesizedPackets++;
+        if (PacketMetrics.getInstance().isEnabled())
+            synthesizedBytes += EntityPackets.estimateSize(packet);
+    }
+
+    private void suppress(Object packet) {
+        suppressedPackets++;
+        if (PacketMetrics.getInstance().isEnabled())
+            suppressedBytes += EntityPackets.estimateSize(packet);
+    }
+
+    /**
+     * The state of an entity, which was spawned for the player.
+     */
+    private static final class TrackedEntity {
+
+        private final int id;
+        private final Packet<?> spawn;
+        private final Map<EquipmentSlot, ItemStack> equipment;
+        private SynchedEntityData.DataValue<?>[] metadata;
+        private double x;
+        private double y;
+        private double z;
+        private byte yRot;
+        private byte xRot;
+        private boolean onGround;
+        private boolean visible;
+
+        private TrackedEntity(int id, Packet<?> spawn) {
+            this.id = id;
+            this.spawn = spawn;
+            this.equipment = new EnumMap<>(EquipmentSlot.class);
+            this.metadata = new SynchedEntityData.DataValue<?>[0];
+            if (spawn instanceof ClientboundAddEntityPacket addEntity) {
+                setPosition(addEntity.getX(), addEntity.getY(), addEntity.getZ());
+                this.yRot = (byte) Math.floor(addEntity.getYRot() * 256.0F / 360.0F);
+                this.xRot = (byte) Math.floor(addEntity.getXRot() * 256.0F / 360.0F);
+            } else if (spawn instanceof ClientboundAddPlayerPacket addPlayer) {
+                setPosition(addPlayer.getX(), addPlayer.getY(), addPlayer.getZ());
+                this.yRot = addPlayer.getyRot();
+                this.xRot = addPlayer.getxRot();
+            } else if (spawn instanceof ClientboundAddExperienceOrbPacket addOrb) {
+                setPosition(addOrb.getX(), addOrb.getY(), addOrb.getZ());
+            }
+        }
+
+        private void update(Object packet) {
+            if (packet instanceof ClientboundMoveEntityPacket movePacket) {
+                if (movePacket.hasPosition())
+                    setPosition(x + movePacket.getXa() / 4096.0, y + movePacket.getYa() / 4096.0, z + movePacket.getZa() / 4096.0);
+                if (movePacket.hasRotation()) {
+                    this.yRot = movePacket.getyRot();
+                    this.xRot = movePacket.getxRot();
+                }
+                this.onGround = movePacket.isOnGround();
+            } else if (packet instanceof ClientboundTeleportEntityPacket teleportPacket) {
+                setPosition(teleportPacket.getX(), teleportPacket.getY(), teleportPacket.getZ());
+                this.yRot = teleportPacket.getyRot();
+                this.xRot = teleportPacket.getxRot();
+                this.onGround = teleportPacket.isOnGround();
+            } else if (packet instanceof ClientboundSetEntityDataPacket dataPacket) {
+                for (SynchedEntityData.DataValue<?> value : dataPacket.packedItems()) {
+                    if (value.id() >= metadata.length)
+                        metadata = Arrays.copyOf(metadata, value.id() + 1);
+                    metadata[value.id()] = value;
+                }
+            } else if (packet instanceof ClientboundSetEquipmentPacket equipmentPacket) {
+                for (Pair<EquipmentSlot, ItemStack> slot : equipmentPacket.getSlots())
+                    equipment.put(slot.getFirst(), slot.getSecond());
+            }
+        }
+
+        private void setPosition(double x, double y, double z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        private List<SynchedEntityData.DataValue<?>> getMetadata() {
+            List<SynchedEntityData.DataValue<?>> values = new ArrayList<>();
+            for (SynchedEntityData.DataValue<?> value : metadata) {
+                if (value != null)
+                    values.add(value);
+            }
+            return values;
+        }
+
+        /**
+         * Creates the teleport to the current position, the packet has no constructor for it without the entity.
+         */
+        private ClientboundTeleportEntityPacket createTeleport() {
+            FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.buffer(34));
+            try {
+                buffer.writeVarInt(id);
+                buffer.writeDouble(x);
+                buffer.writeDouble(y);
+                buffer.writeDouble(z);
+                buffer.writeByte(yRot);
+                buffer.writeByte(xRot);
+                buffer.writeBoolean(onGround);
+                return new ClientboundTeleportEntityPacket(buffer);
+            } finally {
+                buffer.release();
+            }
+        }
+    }
+}
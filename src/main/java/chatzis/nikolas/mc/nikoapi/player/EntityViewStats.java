@@ -0,0 +1,29 @@
+package chatzis.nikolas.mc.nikoapi.player;
+
+/**
+ * Statistics of the {@link EntityViewCuller} of a player.
+ * The packets are always counted, their sizes are estimated by type and only while the {@link chatzis.nikolas.mc.nikoapi.packet.metrics.PacketMetrics} are enabled.
+ *
+ * @param trackedEntities    int - the entities, which are tracked for the player.
+ * @param culledEntities     int - the entities, which are currently beyond the view distance.
+ * @param suppressedPackets  long - the packets, which were not sent.
+ * @param suppressedBytes    long - the estimated size of the packets, which were not sent.
+ * @param synthesizedPackets long - the packets, which were sent to spawn and remove entities at the view distance.
+ * @param synthesizedBytes   long - the estimated size of the synthesized packets.
+ * @author Niko
+ * @since 1.0.3
+ */
+public record EntityViewStats(int trackedEntities, int culledEntities, long suppressedPackets, long suppressedBytes,
+                              long synthesizedPackets, long synthesizedBytes) {
+
+    /**
+     * Gets the bytes, which were saved in total.
+     * The size is estimated before compression.
+     *
+     * @return long - the suppressed bytes without the synthesized bytes.
+     * @since 1.0.3
+     */
+    public long getSavedBytes() {
+        return suppressedBytes - synthesizedBytes;
+    }
+}
@@ -0,0 +1,120 @@
+package chatzis.nikolas.mc.nikoapi.player;
+
+import chatzis.nikolas.mc.nikoapi.packet.metrics.TrafficMeter;
+import chatzis.nikolas.mc.nikoapi.packet.payload.PayloadHandler;
+import chatzis.nikolas.mc.nikoapi.packet.reader.APIListenerManager;
+import chatzis.nikolas.mc.nikoapi.packet.reader.PacketEvent;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import net.minecraft.network.protocol.login.ClientboundGameProfilePacket;
+import net.minecraft.network.protocol.login.ServerboundHelloPacket;
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The channel handler, which passes every packet of a connection to the {@link APIListenerManager}.
+ * One instance is shared by all channels, the player of a channel is stored in the channel attributes
+ * by the {@link PlayerPacketReader}.
+ * Before the player is bound, the packets are dispatched without a player.
+ * Outbound packets of entities, which are hidden by the {@link EntityFilter} of the player
+ * or beyond the view distance of its {@link EntityViewCuller}, are dropped before the dispatch.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+@ChannelHandler.Sharable
+public final class PacketInterceptor extends ChannelDuplexHandler {
+
+    /**
+     * The name of the handler in the pipeline.
+     */
+    public static final String NAME = "nikoapi_packet_reader";
+    static final PacketInterceptor INSTANCE = new PacketInterceptor();
+    private static final APIListenerManager MANAGER = APIListenerManager.getInstance();
+    private static final ChunkViewTracker CHUNK_VIEWS = ChunkViewTracker.getInstance();
+
+    private PacketInterceptor() {
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object packet) throws Exception {
+        if (packet instanceof ServerboundHelloPacket helloPacket)
+            PlayerPacketReader.loginStarted(ctx.channel(), helloPacket.name());
+
+        PlayerPacketReader reader = ctx.channel().attr(PlayerPacketReader.READER_KEY).get();
+        Player player = reader == null ? null : reader.getPlayer();
+        TrafficMeter.packetRead(ctx.channel(), player, packet);
+        if (PayloadHandler.packetRead(ctx.channel(), player, packet))
+            return;
+        if (reader != null)
+            reader.getEntityCuller().packetRead(ctx, packet);
+
+        PacketEvent<?> event = MANAGER.packetRead(player, packet);
+        if (event == null) {
+            super.channelRead(ctx, packet);
+        } else if (!event.isCancelled()) {
+            Object result = event.getPacket();
+            if (event.getDelayNanos() > 0)
+                ctx.executor().schedule(() -> ctx.fireChannelRead(result), event.getDelayNanos(), TimeUnit.NANOSECONDS);
+            else
+                super.channelRead(ctx, result);
+        }
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object packet, ChannelPromise promise) throws Exception {
+        PlayerPacketReader reader = ctx.channel().attr(PlayerPacketReader.READER_KEY).get();
+        Player player = reader == null ? null : reader.getPlayer();
+        if (reader != null) {
+            packet = reader.getEntityFilter().filter(packet);
+            if (packet != null)
+                packet = reader.getEntityCuller().filter(ctx, packet);
+            if (packet == null) {
+                promise.trySuccess();
+                return;
+            }
+        }
+
+        PacketEvent<?> event = MANAGER.packetWrite(player, packet);
+        if (event == null) {
+            forward(ctx, player, packet, promise);
+        } else if (event.isCancelled()) {
+            promise.trySuccess();
+        } else {
+            Object result = event.getPacket();
+            if (event.getDelayNanos() > 0) {
+                ctx.executor().schedule(() -> {
+                    forward(ctx, player, result, promise);
+                    ctx.flush();
+                }, event.getDelayNanos(), TimeUnit.NANOSECONDS);
+            } else {
+                forward(ctx, player, result, promise);
+            }
+        }
+    }
+
+    /**
+     * Writes the packet to the next handler, the {@link TrafficMeter} counts it with the size of its encoded frame.
+     * The {@link ChunkViewTracker} and the chunk batches of the {@link APIListenerManager} see every packet, which is passed on.
+     */
+    static void forward(ChannelHandlerContext ctx, Player player, Object packet, ChannelPromise promise) {
+        if (player != null) {
+            CHUNK_VIEWS.packetSent(player, packet);
+            MANAGER.packetSent(player, packet);
+        } else if (packet instanceof ClientboundGameProfilePacket profilePacket) {
+            PlayerPacketReader.profileSent(ctx.channel(), profilePacket.getGameProfile().getId());
+        }
+        if (!TrafficMeter.beginWrite(ctx.channel(), player, packet)) {
+            ctx.write(packet, promise);
+            return;
+        }
+        try {
+            ctx.write(packet, promise);
+        } finally {
+            TrafficMeter.endWrite(ctx.channel());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package chatzis.nikolas.mc.nikoapi.player;
 
+import chatzis.nikolas.mc.nikoapi.packet.sender.PacketBroadcaster;
+import net.minecraft.network.protocol.Packet;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
@@ -88,13 +90,39 @@ public class PlayerHandler {
         onlinePlayers.putIfAbsent(player.getUniqueId(), new APIPlayer(player));
     }
 
+    /**
+     * Sends a packet to all online api players.
+     * The packet is only serialized once for all of them.
+     * @param packet Packet<?> - the nms packet.
+     * @see PacketBroadcaster
+     * @since 1.0.3
+     */
+    public void broadcastPacket(Packet<?> packet) {
+        broadcastPacket(getOnlinePlayers(), packet);
+    }
+
+    /**
+     * Sends a packet to the given api players.
+     * The packet is only serialized once for all of them.
+     * @param players Collection<APIPlayer> - the players to send the packet.
+     * @param packet Packet<?> - the nms packet.
+     * @see PacketBroadcaster
+     * @since 1.0.3
+     */
+    public void broadcastPacket(Collection<APIPlayer> players, Packet<?> packet) {
+        PacketBroadcaster.getInstance().broadcast(players.stream().map(APIPlayer::getPlayer).toList(), packet);
+    }
+
     /**
      * Removes a player from the player handler.
+     * The player is removed from the viewers of its holograms.
      * @param uuid UUID - the uuid to remove
      * @since 0.0.1
      */
     public void removePlayer(UUID uuid) {
-        onlinePlayers.remove(uuid);
+        APIPlayer apiPlayer = onlinePlayers.remove(uuid);
+        if (apiPlayer != null)
+            apiPlayer.releaseHolograms();
     }
 
 }
@@ -1,47 +1,110 @@
 package chatzis.nikolas.mc.nikoapi.player;
 
-import chatzis.nikolas.mc.nikoapi.NikoAPI;
+import chatzis.nikolas.mc.nikoapi.packet.capture.PacketCapture;
+import chatzis.nikolas.mc.nikoapi.packet.limiter.RateLimitHandler;
+import chatzis.nikolas.mc.nikoapi.packet.metrics.TrafficMeter;
+import chatzis.nikolas.mc.nikoapi.packet.payload.PayloadHandler;
 import chatzis.nikolas.mc.nikoapi.packet.reader.APIListenerManager;
 import chatzis.nikolas.mc.nikoapi.util.ReflectionHelper;
 import chatzis.nikolas.mc.nikoapi.util.Utils;
-import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.channel.ChannelPromise;
-import net.minecraft.network.Connection;
-import net.minecraft.server.network.ServerGamePacketListenerImpl;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerConnectionListener;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * This class is for the PacketReader.
- * The class should be instantiated with every player.
- * If APIListenerManager contains a listener,
- * the reader is set to enable.
-
+ * The {@link PacketInterceptor} is injected into every connection, when the server accepts it,
+ * so also the packets of the login are passed to the {@link APIListenerManager}.
+ * The injection is done by the event loop of the connection, not by the main thread.
+ * <p>
+ * The reader binds a player to the channel of its connection.
+ * The channel is remembered by the uuid of the game profile, which the server sends at the end of the login,
+ * and bound to the player with that uuid on login, whichever of both happens last.
+ * Players, which connected before the reader was enabled, are injected on join.
  */
 public class PlayerPacketReader {
 
-    private static final Map<UUID, PlayerPacketReader> READERS = new HashMap<>();
-    private static final APIListenerManager MANAGER = APIListenerManager.getInstance();
-    private static boolean enabled = false;
+    static final AttributeKey<PlayerPacketReader> READER_KEY = AttributeKey.valueOf("nikoapi_packet_reader");
+    private static final String ACCEPTOR = "nikoapi_acceptor";
+    private static final String PACKET_HANDLER = "packet_handler";
+
+    private static final Logger LOG = Logger.getLogger(PlayerPacketReader.class.getSimpleName());
+    private static final Map<UUID, PlayerPacketReader> READERS = new ConcurrentHashMap<>();
+    // Both maps are guarded by PENDING_LOGINS, so a login and its game profile are always paired
+    private static final Map<UUID, Channel> PENDING_LOGINS = new HashMap<>();
+    private static final Map<UUID, Player> PENDING_PLAYERS = new HashMap<>();
+    private static final ChannelGroup CHANNELS = new DefaultChannelGroup("NikoAPI", GlobalEventExecutor.INSTANCE);
+    private static final List<Channel> SERVER_CHANNELS = new ArrayList<>();
+    private static volatile boolean enabled = false;
 
     /**
      * Enables the Packet reader.
-     * This method gets called, if a packetListener is registered in {@link APIListenerManager}.
+     * Hooks into the server channels, so every new connection gets the {@link PacketInterceptor}
+     * and injects the players, which are already online.
+     * This method gets called on enable and if a packetListener is registered in {@link APIListenerManager}.
      */
-    public static void enable() {
+    public static synchronized void enable() {
         if (enabled) return;
         enabled = true;
+        // Without a running server, like in the benchmarks, channels are only injected manually
+        if (Bukkit.getServer() == null)
+            return;
+        hookServerChannels();
         Bukkit.getOnlinePlayers().forEach(PlayerPacketReader::injectIfAbsent);
     }
 
+    /**
+     * Disables the Packet reader.
+     * Removes the hook of the server channels and the {@link PacketInterceptor} of every connection.
+     * @since 1.0.3
+     */
+    public static synchronized void disable() {
+        if (!enabled) return;
+        enabled = false;
+        for (Channel serverChannel : SERVER_CHANNELS) {
+            serverChannel.eventLoop().execute(() -> removeHandler(serverChannel, ACCEPTOR));
+        }
+        SERVER_CHANNELS.clear();
+        for (Channel channel : CHANNELS) {
+            channel.eventLoop().execute(() -> {
+                removeHandler(channel, PacketInterceptor.NAME);
+                RateLimitHandler.uninstall(channel);
+                PayloadHandler.uninstall(channel);
+                TrafficMeter.uninstall(channel);
+                channel.attr(READER_KEY).set(null);
+            });
+        }
+        CHANNELS.clear();
+        READERS.clear();
+        synchronized (PENDING_LOGINS) {
+            PENDING_LOGINS.clear();
+            PENDING_PLAYERS.clear();
+        }
+    }
+
     /**
      * Check if the PacketReader is enabled
      *
@@ -51,11 +114,47 @@ public class PlayerPacketReader {
         return enabled;
     }
 
+    /**
+     * Binds the player to the channel, which received the game profile of the player.
+     * Called on login, before the player joins.
+     * If the game profile was not sent yet, the player is bound as soon as it passes the channel.
+     *
+     * @param player Player - player that logs in.
+     * @since 1.0.3
+     */
+    public static void bind(Player player) {
+        ChunkViewTracker.getInstance().playerBound(player);
+        Channel channel;
+        synchronized (PENDING_LOGINS) {
+            channel = PENDING_LOGINS.remove(player.getUniqueId());
+            if (channel == null) {
+                PENDING_PLAYERS.put(player.getUniqueId(), player);
+                return;
+            }
+        }
+        READERS.put(player.getUniqueId(), new PlayerPacketReader(player, channel));
+    }
+
+    /**
+     * Injects the packet reader into the connection of the player, if it is not bound yet.
+     * This is only needed for players, which connected before the reader was enabled.
+     *
+     * @param player Player - player to inject
+     */
     public static void injectIfAbsent(Player player) {
         if (!isEnabled())
             throw new IllegalStateException("PacketReader is not enabled!");
 
-        READERS.putIfAbsent(player.getUniqueId(), new PlayerPacketReader(player));
+        READERS.computeIfAbsent(player.getUniqueId(), uuid -> {
+            Channel channel = Utils.getChannel(player);
+            if (channel == null) {
+                LOG.warning("Could not get the channel of " + player.getName());
+                return null;
+            }
+            inject(channel);
+            ChunkViewTracker.getInstance().playerBound(player);
+            return new PlayerPacketReader(player, channel);
+        });
     }
 
     /**
@@ -64,82 +163,217 @@ public class PlayerPacketReader {
      * @param player Player - player to uninject
      */
     public static void uninject(Player player) {
-        READERS.computeIfPresent(player.getUniqueId(), (uuid, playerPacketReader) -> {
-            playerPacketReader.uninject();
-            return null;
-        });
+        synchronized (PENDING_LOGINS) {
+            PENDING_PLAYERS.remove(player.getUniqueId(), player);
+        }
+        PlayerPacketReader reader = READERS.remove(player.getUniqueId());
+        if (reader != null)
+            reader.channel.attr(READER_KEY).compareAndSet(reader, null);
     }
 
-
-    private static final Logger LOG = Logger.getLogger(PlayerPacketReader.class.getSimpleName());
-    private final Player player;
+    /**
+     * Gets the reader of a player.
+     *
+     * @param uuid UUID - the uuid of the player.
+     * @return {@link PlayerPacketReader} - the reader or null, if the player is not bound.
+     * @since 1.0.3
+     */
+    public static PlayerPacketReader getReader(UUID uuid) {
+        return READERS.get(uuid);
+    }
 
     /**
-     * Instantiate a new PacketReader for a player.
-     * Uninject the old one, if exists.
-     * Injects the new one.
-     * @param player Player - Player to inject the reader
+     * Gets the channel of a player, which is bound to a reader.
+     *
+     * @param player Player - the player.
+     * @return Channel - the channel or null, if the player is not bound.
+     * @since 1.0.3
      */
-    private PlayerPacketReader(Player player) {
-        this.player = player;
-        inject();
+    public static Channel getChannel(Player player) {
+        PlayerPacketReader reader = READERS.get(player.getUniqueId());
+        return reader == null ? null : reader.channel;
     }
 
     /**
-     * Injects the player the packet reader
-     * Calls the {@link APIListenerManager}, to check if packet has a listener
+     * Gets the player, which is bound to a channel.
+     *
+     * @param channel Channel - the channel of the connection.
+     * @return Player - the player or null, if no player is bound to the channel.
+     * @since 1.0.3
      */
-    private void inject() {
-        ChannelDuplexHandler channelDuplexHandler = new ChannelDuplexHandler() {
+    public static Player getPlayer(Channel channel) {
+        PlayerPacketReader reader = channel.attr(READER_KEY).get();
+        return reader == null ? null : reader.player;
+    }
 
-            @Override
-            public void channelRead(ChannelHandlerContext ctx, Object packet) throws Exception {
-                MANAGER.packetRead(player, packet);
-                super.channelRead(ctx, packet);
-            }
+    /**
+     * Passes the start of the login to the {@link PacketCapture}.
+     * The name is not validated yet, so it is not used to identify the player.
+     */
+    static void loginStarted(Channel channel, String name) {
+        PacketCapture.getInstance().loginStarted(channel, name);
+    }
 
-            @Override
-            public void write(ChannelHandlerContext ctx, Object packet, ChannelPromise promise) throws Exception {
-                MANAGER.packetWrite(player, packet);
-                super.write(ctx, packet, promise);
+    /**
+     * Remembers the channel, which received the game profile the server settled on,
+     * or binds it to the player with the uuid, if the player already logged in.
+     * Called by the event loop of the channel.
+     */
+    static void profileSent(Channel channel, UUID uuid) {
+        Player player;
+        synchronized (PENDING_LOGINS) {
+            player = PENDING_PLAYERS.remove(uuid);
+            if (player == null) {
+                PENDING_LOGINS.put(uuid, channel);
+                channel.closeFuture().addListener(future -> {
+                    synchronized (PENDING_LOGINS) {
+                        PENDING_LOGINS.remove(uuid, channel);
+                    }
+                });
+                return;
             }
-        };
+        }
+        READERS.put(uuid, new PlayerPacketReader(player, channel));
+    }
 
+    /**
+     * Adds the {@link PacketInterceptor} in front of the packet handler of the connection.
+     */
+    private static void inject(Channel channel) {
         try {
-            Connection networkManager = getConnection();
-            if (networkManager == null ) {
-                LOG.warning("Could not cast Connection of player!");
-            } else {
-                networkManager.channel.pipeline().addBefore("packet_handler", player.getName(), channelDuplexHandler);
-                LOG.info("Injected packet reader for " + player.getName());
-            }
+            if (!channel.isOpen() || channel.pipeline().get(PacketInterceptor.NAME) != null)
+                return;
+            channel.pipeline().addBefore(PACKET_HANDLER, PacketInterceptor.NAME, PacketInterceptor.INSTANCE);
+            // The meter is added behind the splitter last, so it measures every frame before the limiter and the payloads
+            PayloadHandler.install(channel);
+            RateLimitHandler.install(channel);
+            TrafficMeter.install(channel);
+            CHANNELS.add(channel);
         } catch (IllegalArgumentException | NoSuchElementException exception) {
             LOG.log(Level.WARNING, "Error while injecting packet reader: {0}", exception.getMessage());
         }
     }
 
-    /**
-     * Uninject player the PacketReader
-     */
-    private void uninject() {
+    private static void removeHandler(Channel channel, String name) {
+        if (channel.pipeline().get(name) != null)
+            channel.pipeline().remove(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void hookServerChannels() {
+        ServerConnectionListener connectionListener = MinecraftServer.getServer().getConnection();
+        Field channelsField = ReflectionHelper.findField(ServerConnectionListener.class, field ->
+                field.getGenericType() instanceof ParameterizedType type && type.getActualTypeArguments()[0] == ChannelFuture.class);
+        if (connectionListener == null || channelsField == null) {
+            LOG.warning("Could not hook into the server channels, only joining players will be injected");
+            return;
+        }
+
         try {
-            Connection networkManager = getConnection();
-            if (networkManager == null ) {
-                LOG.warning("Could not cast Connection of player!");
-            } else {
-                networkManager.channel.eventLoop().submit(() -> {
-                    networkManager.channel.pipeline().remove(player.getName());
-                    return null;
-                });
-                LOG.info("Ejected packet reader for " + player.getName());
+            List<ChannelFuture> futures = (List<ChannelFuture>) channelsField.get(connectionListener);
+            synchronized (futures) {
+                for (ChannelFuture future : futures) {
+                    Channel serverChannel = future.channel();
+                    serverChannel.pipeline().addFirst(ACCEPTOR, ConnectionAcceptor.INSTANCE);
+                    SERVER_CHANNELS.add(serverChannel);
+                }
             }
-        } catch (IllegalArgumentException | NoSuchElementException exception) {
-            LOG.log(Level.WARNING, "Error while uninject packet reader: {0}", exception.getMessage());
+        } catch (IllegalAccessException | IllegalArgumentException exception) {
+            LOG.log(Level.WARNING, "Error while hooking into the server channels: {0}", exception.getMessage());
+        }
+    }
+
+    private final Player player;
+    private final Channel channel;
+    private final EntityFilter entityFilter;
+    private final EntityViewCuller entityCuller;
+
+    /**
+     * Instantiate a new PacketReader for a player.
+     * Binds the player to the channel.
+     * @param player Player - Player of the connection
+     * @param channel Channel - Channel of the connection
+     */
+    private PlayerPacketReader(Player player, Channel channel) {
+        this.player = player;
+        this.channel = channel;
+        this.entityFilter = new EntityFilter();
+        this.entityCuller = new EntityViewCuller(channel);
+        channel.attr(READER_KEY).set(this);
+        APIListenerManager.getInstance().getAsyncExecutor().add(player.getUniqueId());
+        channel.closeFuture().addListener(future -> READERS.remove(player.getUniqueId(), this));
+    }
+
+    /**
+     * Gets the player of the connection.
+     *
+     * @return Player - the player.
+     * @since 1.0.3
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the channel of the connection.
+     *
+     * @return Channel - the channel.
+     * @since 1.0.3
+     */
+    public Channel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Gets the filter of the entities, which are hidden from the player.
+     *
+     * @return {@link EntityFilter} - the filter.
+     * @since 1.0.3
+     */
+    public EntityFilter getEntityFilter() {
+        return entityFilter;
+    }
+
+    /**
+     * Gets the culler, which limits the view distance of entities for the player.
+     *
+     * @return {@link EntityViewCuller} - the culler.
+     * @since 1.0.3
+     */
+    public EntityViewCuller getEntityCuller() {
+        return entityCuller;
+    }
+
+    /**
+     * Handler of the server channels, which receives every accepted connection.
+     * It adds the {@link ConnectionInitializer} in front of the vanilla initializer.
+     */
+    @ChannelHandler.Sharable
+    private static final class ConnectionAcceptor extends ChannelInboundHandlerAdapter {
+
+        private static final ConnectionAcceptor INSTANCE = new ConnectionAcceptor();
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (msg instanceof Channel channel)
+                channel.pipeline().addFirst(ConnectionInitializer.INSTANCE);
+            super.channelRead(ctx, msg);
         }
     }
 
-    private Connection getConnection() {
-        return ReflectionHelper.get(ServerGamePacketListenerImpl.class, Utils.getPlayerConnection(player), "h");
+    /**
+     * Initializer of an accepted connection.
+     * It runs before the vanilla initializer, so the injection is deferred until the vanilla handlers are added.
+     */
+    @ChannelHandler.Sharable
+    private static final class ConnectionInitializer extends ChannelInitializer<Channel> {
+
+        private static final ConnectionInitializer INSTANCE = new ConnectionInitializer();
+
+        @Override
+        protected void initChannel(Channel channel) {
+            channel.eventLoop().execute(() -> inject(channel));
+        }
     }
 
 }
@@ -0,0 +1,246 @@
+package chatzis.nikolas.mc.nikoapi.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of primitive ints with open addressing and linear probing.
+ * The values are stored in a single array without boxing, removed values are backward shifted,
+ * so there are no tombstones and lookups stay short.
+ * The set is not thread safe, use {@link #copy()} to publish snapshots to other threads.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class IntHashSet {
+
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int mask;
+    private int size;
+    private boolean containsEmpty;
+
+    /**
+     * Creates an empty set.
+     *
+     * @since 1.0.3
+     */
+    public IntHashSet() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty set for an expected number of values.
+     *
+     * @param expectedSize int - the expected number of values.
+     * @since 1.0.3
+     */
+    public IntHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private IntHashSet(IntHashSet other) {
+        this.keys = other.keys.clone();
+        this.mask = other.mask;
+        this.size = other.size;
+        this.containsEmpty = other.containsEmpty;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value int - the value.
+     * @return boolean - whatever the value was added, false if it was already contained.
+     * @since 1.0.3
+     */
+    public boolean add(int value) {
+        if (value == EMPTY) {
+            if (containsEmpty)
+                return false;
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        int index = index(value);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == value)
+                return false;
+            index = (index + 1) & mask;
+        }
+        keys[index] = value;
+        if (++size > keys.length * LOAD_FACTOR)
+            rehash(keys.length << 1);
+        return true;
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param value int - the value.
+     * @return boolean - whatever the value was removed, false if it was not contained.
+     * @since 1.0.3
+     */
+    public boolean remove(int value) {
+        if (value == EMPTY) {
+            if (!containsEmpty)
+                return false;
+            containsEmpty = false;
+            size--;
+            return true;
+        }
+
+        int index = index(value);
+        while (keys[index] != value) {
+            if (keys[index] == EMPTY)
+                return false;
+            index = (index + 1) & mask;
+        }
+        size--;
+        shiftBack(index);
+        return true;
+    }
+
+    /**
+     * Checks if the set contains a value.
+     *
+     * @param value int - the value.
+     * @return boolean - whatever the value is contained.
+     * @since 1.0.3
+     */
+    public boolean contains(int value) {
+        if (value == EMPTY)
+            return containsEmpty;
+
+        int index = index(value);
+        int key;
+        while ((key = keys[index]) != EMPTY) {
+            if (key == value)
+                return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of values.
+     *
+     * @return int - the size.
+     * @since 1.0.3
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the set is empty.
+     *
+     * @return boolean - whatever the set is empty.
+     * @since 1.0.3
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values, the capacity is kept.
+     *
+     * @since 1.0.3
+     */
+    public void clear() {
+        if (size == 0)
+            return;
+        Arrays.fill(keys, EMPTY);
+        containsEmpty = false;
+        size = 0;
+    }
+
+    /**
+     * Passes every value to the consumer.
+     * The set must not be modified by the consumer.
+     *
+     * @param consumer IntConsumer - the consumer.
+     * @since 1.0.3
+     */
+    public void forEach(IntConsumer consumer) {
+        if (containsEmpty)
+            consumer.accept(EMPTY);
+        for (int key : keys) {
+            if (key != EMPTY)
+                consumer.accept(key);
+        }
+    }
+
+    /**
+     * Copies the values into an array.
+     *
+     * @return int[] - the values in no particular order.
+     * @since 1.0.3
+     */
+    public int[] toArray() {
+        int[] values = new int[size];
+        int i = 0;
+        if (containsEmpty)
+            values[i++] = EMPTY;
+        for (int key : keys) {
+            if (key != EMPTY)
+                values[i++] = key;
+        }
+        return values;
+    }
+
+    /**
+     * Creates an independent copy of the set.
+     *
+     * @return {@link IntHashSet} - the copy.
+     * @since 1.0.3
+     */
+    public IntHashSet copy() {
+        return new IntHashSet(this);
+    }
+
+    private int index(int value) {
+        // Entity ids are sequential, so the bits are mixed to spread neighbours
+        int hash = value * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Closes the gap of a removed value by moving the following values of its cluster back.
+     */
+    private void shiftBack(int gap) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            int key = keys[index];
+            if (key == EMPTY) {
+                keys[gap] = EMPTY;
+                return;
+            }
+            int home = index(key);
+            // The key may move into the gap, if its home is not between the gap and its current slot
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = key;
+                gap = index;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        this.keys = new int[capacity];
+        this.mask = capacity - 1;
+        for (int key : oldKeys) {
+            if (key == EMPTY)
+                continue;
+            int index = index(key);
+            while (keys[index] != EMPTY)
+                index = (index + 1) & mask;
+            keys[index] = key;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package chatzis.nikolas.mc.nikoapi.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of primitive longs with open addressing and linear probing.
+ * The values are stored in a single array without boxing, removed values are backward shifted,
+ * so there are no tombstones and lookups stay short.
+ * The set is not thread safe.
+ *
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class LongHashSet {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean containsEmpty;
+
+    /**
+     * Creates an empty set.
+     *
+     * @since 1.0.3
+     */
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty set for an expected number of values.
+     *
+     * @param expectedSize int - the expected number of values.
+     * @since 1.0.3
+     */
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value long - the value.
+     * @return boolean - whatever the value was added, false if it was already contained.
+     * @since 1.0.3
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty)
+                return false;
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        int index = index(value);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == value)
+                return false;
+            index = (index + 1) & mask;
+        }
+        keys[index] = value;
+        if (++size > keys.length * LOAD_FACTOR)
+            rehash(keys.length << 1);
+        return true;
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param value long - the value.
+     * @return boolean - whatever the value was removed, false if it was not contained.
+     * @since 1.0.3
+     */
+    public boolean remove(long value) {
+        if (value == EMPTY) {
+            if (!containsEmpty)
+                return false;
+            containsEmpty = false;
+            size--;
+            return true;
+        }
+
+        int index = index(value);
+        while (keys[index] != value) {
+            if (keys[index] == EMPTY)
+                return false;
+            index = (index + 1) & mask;
+        }
+        size--;
+        shiftBack(index);
+        return true;
+    }
+
+    /**
+     * Checks if the set contains a value.
+     *
+     * @param value long - the value.
+     * @return boolean - whatever the value is contained.
+     * @since 1.0.3
+     */
+    public boolean contains(long value) {
+        if (value == EMPTY)
+            return containsEmpty;
+
+        int index = index(value);
+        long key;
+        while ((key = keys[index]) != EMPTY) {
+            if (key == value)
+                return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of values.
+     *
+     * @return int - the size.
+     * @since 1.0.3
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the set is empty.
+     *
+     * @return boolean - whatever the set is empty.
+     * @since 1.0.3
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values, the capacity is kept.
+     *
+     * @since 1.0.3
+     */
+    public void clear() {
+        if (size == 0)
+            return;
+        Arrays.fill(keys, EMPTY);
+        containsEmpty = false;
+        size = 0;
+    }
+
+    /**
+     * Passes every value to the consumer.
+     * The set must not be modified by the consumer.
+     *
+     * @param consumer LongConsumer - the consumer.
+     * @since 1.0.3
+     */
+    public void forEach(LongConsumer consumer) {
+        if (containsEmpty)
+            consumer.accept(EMPTY);
+        for (long key : keys) {
+            if (key != EMPTY)
+                consumer.accept(key);
+        }
+    }
+
+    /**
+     * Copies the values into an array.
+     *
+     * @return long[] - the values in no particular order.
+     * @since 1.0.3
+     */
+    public long[] toArray() {
+        long[] values = new long[size];
+        int i = 0;
+        if (containsEmpty)
+            values[i++] = EMPTY;
+        for (long key : keys) {
+            if (key != EMPTY)
+                values[i++] = key;
+        }
+        return values;
+    }
+
+    private int index(long value) {
+        // Spreads the bits of both coordinates of a chunk key over the lower bits
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Closes the gap of a removed value by moving the following values of its cluster back.
+     */
+    private void shiftBack(int gap) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            long key = keys[index];
+            if (key == EMPTY) {
+                keys[gap] = EMPTY;
+                return;
+            }
+            int home = index(key);
+            // The key may move into the gap, if its home is not between the gap and its current slot
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = key;
+                gap = index;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        this.keys = new long[capacity];
+        this.mask = capacity - 1;
+        for (long key : oldKeys) {
+            if (key == EMPTY)
+                continue;
+            int index = index(key);
+            while (keys[index] != EMPTY)
+                index = (index + 1) & mask;
+            keys[index] = key;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package chatzis.nikolas.mc.nikoapi.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Map of primitive long keys to objects with open addressing and linear probing, like the {@link LongHashSet}.
+ * The keys are stored without boxing, removed entries are backward shifted, so there are no tombstones.
+ * Null values are not allowed. The map is not thread safe.
+ *
+ * @param <V> the class of the values.
+ * @author Niko
+ * @since 1.0.3
+ */
+public final class LongObjectHashMap<V> {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private V emptyValue;
+
+    /**
+     * Creates an empty map.
+     *
+     * @since 1.0.3
+     */
+    public LongObjectHashMap() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty map for an expected number of entries.
+     *
+     * @param expectedSize int - the expected number of entries.
+     * @since 1.0.3
+     */
+    public LongObjectHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key long - the key.
+     * @return V - the value or null, if the key is not contained.
+     * @since 1.0.3
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == EMPTY)
+            return emptyValue;
+
+        int index = index(key);
+        long current;
+        while ((current = keys[index]) != EMPTY) {
+            if (current == key)
+                return (V) values[index];
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Puts the value of a key.
+     *
+     * @param key   long - the key.
+     * @param value V - the value, not null.
+     * @return V - the previous value or null, if the key was not contained.
+     * @since 1.0.3
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null)
+            throw new NullPointerException("Null values are not allowed");
+        if (key == EMPTY) {
+            V previous = emptyValue;
+            emptyValue = value;
+            if (previous == null)
+                size++;
+            return previous;
+        }
+
+        int index = index(key);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > keys.length * LOAD_FACTOR)
+            rehash(keys.length << 1);
+        return null;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key long - the key.
+     * @return V - the removed value or null, if the key was not contained.
+     * @since 1.0.3
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == EMPTY) {
+            V previous = emptyValue;
+            if (previous != null) {
+                emptyValue = null;
+                size--;
+            }
+            return previous;
+        }
+
+        int index = index(key);
+        while (keys[index] != key) {
+            if (keys[index] == EMPTY)
+                return null;
+            index = (index + 1) & mask;
+        }
+        V previous = (V) values[index];
+        size--;
+        shiftBack(index);
+        return previous;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return int - the size.
+     * @since 1.0.3
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the map is empty.
+     *
+     * @return boolean - whatever the map is empty.
+     * @since 1.0.3
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all entries, the capacity is kept.
+     *
+     * @since 1.0.3
+     */
+    public void clear() {
+        if (size == 0)
+            return;
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        emptyValue = null;
+        size = 0;
+    }
+
+    /**
+     * Passes every value to the consumer.
+     * The map must not be modified by the consumer.
+     *
+     * @param consumer Consumer<V> - the consumer.
+     * @since 1.0.3
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> consumer) {
+        if (emptyValue != null)
+            consumer.accept(emptyValue);
+        for (Object value : values) {
+            if (value != null)
+                consumer.accept((V) value);
+        }
+    }
+
+    private int index(long key) {
+        // Spreads the bits of both coordinates of a chunk key over the lower bits
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Closes the gap of a removed entry by moving the following entries of its cluster back.
+     */
+    private void shiftBack(int gap) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            long key = keys[index];
+            if (key == EMPTY) {
+                keys[gap] = EMPTY;
+                values[gap] = null;
+                return;
+            }
+            int home = index(key);
+            // The entry may move into the gap, if its home is not between the gap and its current slot
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY)
+                continue;
+            int index = index(oldKeys[i]);
+            while (keys[index] != EMPTY)
+                index = (index + 1) & mask;
+            keys[index] = oldKeys[i];
+            values[index] = oldValues[i];
+        }
+    }
+}
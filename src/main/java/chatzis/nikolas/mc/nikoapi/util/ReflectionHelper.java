@@ -3,6 +3,8 @@ package chatzis.nikolas.mc.nikoapi.util;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -90,6 +92,38 @@ public class ReflectionHelper {
         return null;
     }
 
+    /**
+     * Finds the first non-static declared field of a class, which matches the filter.
+     * Useful for obfuscated classes, where the field can be identified by its type but not by its name.
+     *
+     * @param clazz  Class<?> - Class to search in
+     * @param filter Predicate<Field> - Filter the field has to match
+     * @return Field - the accessible field or null, if none matched
+     * @since 1.0.3
+     */
+    public static Field findField(Class<?> clazz, Predicate<Field> filter) {
+        for (Field field : clazz.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || !filter.test(field))
+                continue;
+            field.setAccessible(true);
+            return field;
+        }
+        LOG.log(Level.SEVERE, "Could not find a matching field in {0}", clazz.getName());
+        return null;
+    }
+
+    /**
+     * Finds the first non-static declared field of a class with the given type.
+     *
+     * @param clazz Class<?> - Class to search in
+     * @param type  Class<?> - Type of the field
+     * @return Field - the accessible field or null, if none matched
+     * @since 1.0.3
+     */
+    public static Field findFieldByType(Class<?> clazz, Class<?> type) {
+        return findField(clazz, field -> field.getType() == type);
+    }
+
     /**
      * Invoking a method
      *
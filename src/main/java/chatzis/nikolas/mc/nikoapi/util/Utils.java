@@ -1,6 +1,11 @@
 package chatzis.nikolas.mc.nikoapi.util;
 
 import chatzis.nikolas.mc.nikoapi.NikoAPI;
+import chatzis.nikolas.mc.nikoapi.packet.sender.PacketSender;
+import chatzis.nikolas.mc.nikoapi.player.PlayerPacketReader;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import net.minecraft.network.Connection;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
 import net.minecraft.server.level.ServerLevel;
@@ -14,6 +19,8 @@ import org.bukkit.craftbukkit.v1_20_R1.CraftWorld;
 import org.bukkit.craftbukkit.v1_20_R1.entity.CraftPlayer;
 import org.bukkit.entity.Player;
 
+import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -24,8 +31,7 @@ import java.util.List;
 public class Utils {
 
     private static final String LOGGER_PREFIX = "[Utils] ";
-    private static final String PACKAGE_VERSION = Bukkit.getServer().getClass().getPackage().getName().split("\\.").length < 4 ? "v1_20_6" :
-            Bukkit.getServer().getClass().getPackage().getName().split("\\.")[3];
+    private static final Field CONNECTION_FIELD = ReflectionHelper.findFieldByType(ServerGamePacketListenerImpl.class, Connection.class);
 
     private Utils() {
         // Needed to prevent useless instantiation of this class.
@@ -45,12 +51,71 @@ public class Utils {
         return minimumSlots - mod + 9;
     }
 
+    /**
+     * Gets the chunk id of a location.
+     * The chunk is derived from the block coordinates, so the chunk is not loaded.
+     * @param location Location - the location.
+     * @return int - the chunk id.
+     * @see #getChunkId(int, int)
+     */
     public static int getChunkId(Location location) {
-        return getChunkId(location.getChunk().getX(), location.getChunk().getZ());
+        return getChunkId(location.getBlockX() >> 4, location.getBlockZ() >> 4);
     }
 
+    /**
+     * Gets the chunk id of a chunk.
+     * The id is unique for chunk coordinates from -32768 to 32767, which are the first 524288 blocks from the center.
+     * @param chunkX int - the x coordinate of the chunk.
+     * @param chunkZ int - the z coordinate of the chunk.
+     * @return int - the chunk id.
+     * @deprecated the id collides in large worlds, use {@link #getChunkKey(int, int)}.
+     */
+    @Deprecated
     public static int getChunkId(int chunkX, int chunkZ) {
-        return chunkX * 30000000 + chunkZ;
+        return (chunkX << 16) | (chunkZ & 0xFFFF);
+    }
+
+    /**
+     * Gets the key of the chunk of a location.
+     * The chunk is derived from the block coordinates, so the chunk is not loaded.
+     * @param location Location - the location.
+     * @return long - the chunk key.
+     * @since 1.0.3
+     */
+    public static long getChunkKey(Location location) {
+        return getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    /**
+     * Gets the key of a chunk, it is unique for every chunk.
+     * The key has the same layout as the vanilla chunk position: x in the lower and z in the upper 32 bits.
+     * @param chunkX int - the x coordinate of the chunk.
+     * @param chunkZ int - the z coordinate of the chunk.
+     * @return long - the chunk key.
+     * @since 1.0.3
+     */
+    public static long getChunkKey(int chunkX, int chunkZ) {
+        return (chunkX & 0xFFFFFFFFL) | ((chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    /**
+     * Gets the x coordinate of a chunk key.
+     * @param chunkKey long - the chunk key.
+     * @return int - the x coordinate of the chunk.
+     * @since 1.0.3
+     */
+    public static int getChunkX(long chunkKey) {
+        return (int) chunkKey;
+    }
+
+    /**
+     * Gets the z coordinate of a chunk key.
+     * @param chunkKey long - the chunk key.
+     * @return int - the z coordinate of the chunk.
+     * @since 1.0.3
+     */
+    public static int getChunkZ(long chunkKey) {
+        return (int) (chunkKey >>> 32);
     }
 
     /**
@@ -70,17 +135,85 @@ public class Utils {
 
     /**
      * Sends the given packet to the player.
+     * The channel is flushed once after the last packet.
      * @param player Player - the player to send the packets.
      * @param packets Object[] - the packets.
+     * @see PacketSender
      */
     public static void sendPackets(Player player, Object... packets) {
-        assert packets instanceof Packet<?>[];
-        ServerGamePacketListenerImpl playerConnection = getPlayerConnection(player);
-        for (Object packet : packets) {
-            playerConnection.send((Packet<?>) packet);
+        PacketSender.getInstance().send(player, Arrays.copyOf(packets, packets.length, Packet[].class));
+    }
+
+    /**
+     * Gets the network connection of a given player.
+     * @param player Player - the player to get the connection from.
+     * @return Connection - the connection or null, if it could not be accessed.
+     * @since 1.0.3
+     */
+    public static Connection getConnection(Player player) {
+        if (CONNECTION_FIELD == null)
+            return null;
+        try {
+            return (Connection) CONNECTION_FIELD.get(getPlayerConnection(player));
+        } catch (IllegalAccessException e) {
+            NikoAPI.getInstance().getLogger().warning(LOGGER_PREFIX + e.getMessage());
+            return null;
         }
     }
 
+    /**
+     * Gets the netty channel of a given player.
+     * The channel of a player bound to the {@link PlayerPacketReader} is resolved without reflection.
+     * @param player Player - the player to get the channel from.
+     * @return Channel - the channel or null, if it could not be accessed.
+     * @since 1.0.3
+     */
+    public static Channel getChannel(Player player) {
+        Channel channel = PlayerPacketReader.getChannel(player);
+        if (channel != null)
+            return channel;
+        Connection connection = getConnection(player);
+        return connection == null ? null : connection.channel;
+    }
+
+    /**
+     * Reads the packet id of a frame behind the splitter without moving its reader index.
+     * Packets below the compression threshold are sent with a data length of 0, so their id is readable without decompressing.
+     * @param frame ByteBuf - the frame.
+     * @param compressed boolean - whatever the compression of the connection is on.
+     * @return long - the packet id in the lower and the index behind it in the upper 32 bits, -1 if the frame is compressed or malformed.
+     * @since 1.0.3
+     */
+    public static long peekPacketId(ByteBuf frame, boolean compressed) {
+        int index = frame.readerIndex();
+        if (compressed) {
+            long dataLength = peekVarInt(frame, index);
+            if (dataLength == -1 || (int) dataLength != 0)
+                return -1;
+            index = (int) (dataLength >>> 32);
+        }
+        return peekVarInt(frame, index);
+    }
+
+    /**
+     * Reads a varint at the index without moving the reader index of the buffer.
+     * @param buf ByteBuf - the buffer.
+     * @param index int - the index of the first byte.
+     * @return long - the value in the lower and the index behind the varint in the upper 32 bits, -1 if it is malformed.
+     * @since 1.0.3
+     */
+    public static long peekVarInt(ByteBuf buf, int index) {
+        int value = 0;
+        int end = buf.writerIndex();
+        for (int shift = 0; shift < 35 && index < end; shift += 7) {
+            byte b = buf.getByte(index++);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return ((long) index << 32) | (value & 0xFFFFFFFFL);
+        }
+        return -1;
+    }
+
     /**
      * Gets the PlayerConnection of a given player.
      * @param player Player - the player to get the connection from.
@@ -97,7 +230,7 @@ public class Utils {
      */
     public static Class<?> getNMSClass(String className) {
         try {
-            return Class.forName("net.minecraft.server." + PACKAGE_VERSION + "." + className);
+            return Class.forName("net.minecraft.server." + PackageVersion.NAME + "." + className);
         } catch (ClassNotFoundException e) {
             NikoAPI.getInstance().getLogger().warning(LOGGER_PREFIX + e.getMessage());
             return null;
@@ -112,7 +245,7 @@ public class Utils {
      */
     public static Class<?> getBukkitClass(String className) {
         try{
-            return Class.forName("org.bukkit.craftbukkit." + PACKAGE_VERSION + "." + className);
+            return Class.forName("org.bukkit.craftbukkit." + PackageVersion.NAME + "." + className);
         } catch(ClassNotFoundException e) {
             NikoAPI.getInstance().getLogger().warning(LOGGER_PREFIX + e.getMessage());
             return null;
@@ -127,4 +260,13 @@ public class Utils {
     public static ServerLevel getServerWorld(World world) {
         return ((CraftWorld) world).getHandle();
     }
+
+    /**
+     * Holds the package version of the server.
+     * It is resolved on first use, so the utils can be loaded without a running server.
+     */
+    private static final class PackageVersion {
+        private static final String NAME = Bukkit.getServer().getClass().getPackage().getName().split("\\.").length < 4 ? "v1_20_6" :
+                Bukkit.getServer().getClass().getPackage().getName().split("\\.")[3];
+    }
 }